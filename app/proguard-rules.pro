@@ -12,10 +12,47 @@
 #   public *;
 #}
 
-# Uncomment this to preserve the line number information for
-# debugging stack traces.
-#-keepattributes SourceFile,LineNumberTable
+# Números de línea en las trazas de release (se traducen con mapping.txt)
+-keepattributes SourceFile,LineNumberTable
+-renamesourcefileattribute SourceFile
 
-# If you keep the line number information, uncomment this to
-# hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+# Logs de debug: en release se borran las llamadas y el armado de sus mensajes
+# (ver com.tienda.inventario.diagnostico.Registro)
+-assumenosideeffects class com.tienda.inventario.diagnostico.Registro {
+    public static void d(...);
+}
+-assumenosideeffects class com.tienda.inventario.diagnostico.Registro$Muestreo {
+    public void d(...);
+}
+-assumenosideeffects class android.util.Log {
+    public static int v(...);
+    public static int d(...);
+}
+
+# Entidades de Firestore: hoy se leen y escriben campo a campo (DecodificadorProducto,
+# FirestoreManager), pero son los POJO del esquema compartido con la app de escritorio
+# y deben seguir sirviendo para toObject()/set(): constructor vacío y getters/setters.
+# En modo completo R8 no conserva el constructor por defecto si no se pide.
+-keepattributes Signature,*Annotation*
+-keepclassmembers class com.tienda.inventario.database.entities.** {
+    public <init>();
+    public *** get*();
+    public *** is*();
+    public void set*(***);
+}
+-keep,allowoptimization class com.tienda.inventario.database.entities.Categoria
+-keep,allowoptimization class com.tienda.inventario.database.entities.Movimiento
+-keep,allowoptimization class com.tienda.inventario.database.entities.Producto
+-keep,allowoptimization class com.tienda.inventario.database.entities.Proveedor
+
+# Glide: la API generada se carga por reflexión desde Glide.get()
+-keep class com.bumptech.glide.GeneratedAppGlideModuleImpl { <init>(...); }
+-keep class * extends com.bumptech.glide.module.AppGlideModule { <init>(...); }
+-keep public class * implements com.bumptech.glide.module.GlideModule
+-keep public enum com.bumptech.glide.load.ImageHeaderParser$** {
+    **[] $VALUES;
+    public *;
+}
+-keep class com.bumptech.glide.load.data.ParcelFileDescriptorRewinder$InternalRewinder {
+    *** rewind();
+}
@@ -0,0 +1,166 @@
+package com.tienda.inventario.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.tienda.inventario.database.CamposMapa;
+import com.tienda.inventario.database.DecodificadorProducto;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.repository.ConsultaProductos;
+import com.tienda.inventario.repository.IndiceFiltros;
+import com.tienda.inventario.repository.TablaProductos;
+import com.tienda.inventario.search.BuscadorProductos;
+import com.tienda.inventario.ui.adapter.ProductoFila;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Los mismos caminos calientes que :microbenchmark (JMH) pero en el
+ * dispositivo, con ART: decodificación, búsqueda, filtro por categoría,
+ * agregados del encabezado y textos de las filas.
+ *
+ * BenchmarkRule informa tiempo y asignaciones (allocationCount) por iteración.
+ *
+ * Ejecutar con: ./gradlew :app:connectedDebugAndroidTest
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.tienda.inventario.benchmark.CatalogoBenchmark
+ */
+@RunWith(Parameterized.class)
+public class CatalogoBenchmark {
+
+    private static final String[] NOMBRES = {
+            "Arroz", "Fideos", "Aceite", "Azúcar", "Agua mineral", "Gaseosa cola",
+            "Leche entera", "Yogur", "Detergente", "Pan lactal", "Shampoo", "Galletitas"
+    };
+
+    @Parameterized.Parameters(name = "productos={0}")
+    public static List<Object[]> tamanos() {
+        return Arrays.asList(new Object[][]{{1_000}, {10_000}, {100_000}});
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int cantidad;
+
+    private List<Map<String, Object>> documentos;
+    private List<Producto> productos;
+    private TablaProductos tabla;
+    private IndiceFiltros indice;
+    private BuscadorProductos buscador;
+
+    public CatalogoBenchmark(int cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    @Before
+    public void setUp() {
+        documentos = documentos(cantidad);
+        DecodificadorProducto decodificador = new DecodificadorProducto();
+        productos = new ArrayList<>(cantidad);
+        for (Map<String, Object> campos : documentos) {
+            productos.add(decodificador.decodificar(
+                    new CamposMapa((String) campos.get("firestore_id"), campos)));
+        }
+        tabla = TablaProductos.construir(productos);
+        indice = IndiceFiltros.construir(tabla);
+        buscador = BuscadorProductos.construir(productos);
+    }
+
+    // ==================== DECODIFICACIÓN ====================
+
+    @Test
+    public void decodificarCatalogo() {
+        DecodificadorProducto decodificador = new DecodificadorProducto();
+        CamposMapa campos = new CamposMapa(null, null);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < documentos.size(); i++) {
+                Map<String, Object> datos = documentos.get(i);
+                decodificador.decodificar(campos.apuntar((String) datos.get("firestore_id"), datos));
+            }
+        }
+    }
+
+    // ==================== BÚSQUEDA ====================
+
+    @Test
+    public void buscar() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            buscador.buscar("leche", 200);
+        }
+    }
+
+    @Test
+    public void buscarConErrores() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            buscador.buscar("detergnte", 200);
+        }
+    }
+
+    // ==================== FILTROS Y ESTADÍSTICAS ====================
+
+    @Test
+    public void filtrarPorCategoria() {
+        ConsultaProductos consulta = ConsultaProductos.TODOS.conCategoria(2);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            indice.evaluar(consulta, null);
+        }
+    }
+
+    @Test
+    public void valorInventario() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            tabla.valorInventarioCentavos();
+        }
+    }
+
+    // ==================== FILAS ====================
+
+    @Test
+    public void crearFilas() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < productos.size(); i++) {
+                ProductoFila.desde(productos.get(i), "Bebidas", "Distribuidora Norte");
+            }
+        }
+    }
+
+    private static List<Map<String, Object>> documentos(int cantidad) {
+        Random random = new Random(42);
+        List<Map<String, Object>> documentos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Map<String, Object> campos = new HashMap<>();
+            campos.put("id_producto", (long) (i + 1));
+            campos.put("nombre_producto", NOMBRES[random.nextInt(NOMBRES.length)] + " " + (i + 1));
+            campos.put("descripcion", "");
+            campos.put("precio_unitario", 50 + random.nextInt(500000) / 100.0);
+            campos.put("stock_actual", (long) random.nextInt(200));
+            campos.put("stock_minimo", (long) (5 + random.nextInt(20)));
+            campos.put("codigo_barras", String.format(Locale.ROOT, "779%010d", i + 1));
+            campos.put("id_categoria", (long) (1 + random.nextInt(8)));
+            campos.put("id_proveedor", (long) (1 + random.nextInt(5)));
+            campos.put("activo", true);
+            campos.put("imagen_url", "");
+            campos.put("firestore_id", String.format(Locale.ROOT, "bench-%06d", i + 1));
+            documentos.add(campos);
+        }
+        return documentos;
+    }
+}
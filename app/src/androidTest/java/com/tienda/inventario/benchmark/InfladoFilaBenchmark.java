@@ -0,0 +1,107 @@
+package com.tienda.inventario.benchmark;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.R;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Comparación antes/después del inflado y measure/layout de la fila de producto.
+ *
+ * item_producto_anidado: layout original (MaterialCardView + 6 LinearLayout anidados)
+ * item_producto: layout plano (un solo ConstraintLayout)
+ *
+ * Ejecutar con: ./gradlew :app:connectedDebugAndroidTest
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.tienda.inventario.benchmark.InfladoFilaBenchmark
+ */
+@RunWith(AndroidJUnit4.class)
+public class InfladoFilaBenchmark {
+
+    private static final int ANCHO_PX = 1080;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private LayoutInflater inflater;
+    private ViewGroup parent;
+
+    @Before
+    public void setUp() {
+        Context context = new ContextThemeWrapper(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                R.style.Theme_Inventario);
+        inflater = LayoutInflater.from(context);
+        parent = new FrameLayout(context);
+    }
+
+    // ==================== INFLADO ====================
+
+    @Test
+    public void inflarFilaAnidada() {
+        inflar(R.layout.item_producto_anidado);
+    }
+
+    @Test
+    public void inflarFilaPlana() {
+        inflar(R.layout.item_producto);
+    }
+
+    // ==================== MEASURE / LAYOUT ====================
+
+    @Test
+    public void medirFilaAnidada() {
+        medir(R.layout.item_producto_anidado);
+    }
+
+    @Test
+    public void medirFilaPlana() {
+        medir(R.layout.item_producto);
+    }
+
+    private void inflar(int layoutId) {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            inflater.inflate(layoutId, parent, false);
+        }
+    }
+
+    private void medir(int layoutId) {
+        View fila = inflater.inflate(layoutId, parent, false);
+        int anchoSpec = View.MeasureSpec.makeMeasureSpec(ANCHO_PX, View.MeasureSpec.EXACTLY);
+        int altoSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            invalidarLayout(fila);
+            fila.measure(anchoSpec, altoSpec);
+            fila.layout(0, 0, fila.getMeasuredWidth(), fila.getMeasuredHeight());
+        }
+    }
+
+    /**
+     * Forzar un pase completo de measure/layout en toda la jerarquía
+     */
+    private static void invalidarLayout(View view) {
+        view.forceLayout();
+        if (view instanceof ViewGroup) {
+            ViewGroup grupo = (ViewGroup) view;
+            for (int i = 0; i < grupo.getChildCount(); i++) {
+                invalidarLayout(grupo.getChildAt(i));
+            }
+        }
+    }
+}
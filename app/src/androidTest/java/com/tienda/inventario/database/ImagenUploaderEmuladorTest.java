@@ -0,0 +1,175 @@
+package com.tienda.inventario.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Source;
+import com.tienda.inventario.BuildConfig;
+import com.tienda.inventario.database.entities.Producto;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Subida de imágenes contra el emulador local de Firebase: subida,
+ * parche de imagen_url y reanudación de una subida pendiente.
+ *
+ * Se omite si la app no apunta al emulador. Ejecutar con el emulador
+ * corriendo (firebase emulators:start --config firebase.emulador.json
+ * --project inventario-db-a6063) y:
+ *     ./gradlew :app:connectedDebugAndroidTest -PusarEmuladorFirebase=true
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.tienda.inventario.database.ImagenUploaderEmuladorTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImagenUploaderEmuladorTest {
+
+    private static final long ESPERA_MS = 30_000;
+
+    private Context contexto;
+    private SharedPreferences pendientes;
+    private String docId;
+    private File imagen;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("Requiere -PusarEmuladorFirebase=true", BuildConfig.USAR_EMULADOR_FIREBASE);
+        assumeTrue("Requiere -PfuenteDatos=firestore",
+                FuentesDatos.FIRESTORE.equals(BuildConfig.FUENTE_DATOS));
+
+        contexto = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        pendientes = contexto.getSharedPreferences(ImagenUploader.PREFS_SUBIDAS, Context.MODE_PRIVATE);
+
+        // Storage solo mira el tipo y el tamaño (storage.emulador.rules), no el contenido
+        imagen = new File(contexto.getFilesDir(), "prueba_" + System.nanoTime() + ".jpg");
+        try (FileOutputStream salida = new FileOutputStream(imagen)) {
+            salida.write(new byte[16 * 1024]);
+        }
+        docId = crearProducto(Uri.fromFile(imagen).toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (docId != null) {
+            pendientes.edit().remove(docId).commit();
+            Tasks.await(FirebaseFirestore.getInstance()
+                    .collection(FirestoreManager.COLLECTION_PRODUCTOS)
+                    .document(docId)
+                    .delete(), ESPERA_MS, TimeUnit.MILLISECONDS);
+        }
+        if (imagen != null) {
+            imagen.delete();
+        }
+    }
+
+    @Test
+    public void encolarSubeLaImagenYParcheaImagenUrl() throws Exception {
+        enHiloPrincipal(() -> ImagenUploader.getInstance(contexto).encolar(docId, imagen));
+
+        String url = esperarImagenSubida();
+        assertTrue(url, url.startsWith("http"));
+    }
+
+    @Test
+    public void reanudarPendientesSubeLaQueQuedoSinSubir() throws Exception {
+        // Como si la app se hubiera cerrado justo después de encolar
+        JSONObject pendiente = new JSONObject();
+        pendiente.put("ruta", imagen.getAbsolutePath());
+        pendientes.edit().putString(docId, pendiente.toString()).commit();
+
+        enHiloPrincipal(() -> ImagenUploader.getInstance(contexto).reanudarPendientes());
+
+        String url = esperarImagenSubida();
+        assertTrue(url, url.startsWith("http"));
+    }
+
+    @Test
+    public void reanudarPendientesDescartaLaQueYaNoTieneArchivo() throws Exception {
+        JSONObject pendiente = new JSONObject();
+        pendiente.put("ruta", new File(contexto.getFilesDir(), "no_existe.jpg").getAbsolutePath());
+        pendientes.edit().putString(docId, pendiente.toString()).commit();
+
+        enHiloPrincipal(() -> ImagenUploader.getInstance(contexto).reanudarPendientes());
+
+        assertFalse(pendientes.contains(docId));
+        assertEquals(Uri.fromFile(imagen).toString(), leerProducto().getString("imagen_url"));
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private String crearProducto(String imagenUrl) throws Exception {
+        Producto producto = new Producto();
+        producto.setNombreProducto("Prueba subida de imagen");
+        producto.setPrecioUnitario(1.0);
+        producto.setActivo(true);
+        producto.setImagenUrl(imagenUrl);
+
+        CountDownLatch listo = new CountDownLatch(1);
+        String[] resultado = new String[2];
+        enHiloPrincipal(() -> FirestoreManager.getInstance().agregarProducto(producto,
+                new InventoryDataSource.OnDocumentoListener() {
+                    @Override
+                    public void onSuccess(String docId) {
+                        resultado[0] = docId;
+                        listo.countDown();
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        resultado[1] = error;
+                        listo.countDown();
+                    }
+                }));
+        assertTrue("Sin respuesta del emulador", listo.await(ESPERA_MS, TimeUnit.MILLISECONDS));
+        assertNotNull(resultado[1], resultado[0]);
+        return resultado[0];
+    }
+
+    private DocumentSnapshot leerProducto() throws Exception {
+        return Tasks.await(FirebaseFirestore.getInstance()
+                .collection(FirestoreManager.COLLECTION_PRODUCTOS)
+                .document(docId)
+                .get(Source.SERVER), ESPERA_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Esperar a que imagen_url deje de ser la ruta local y la subida salga
+     * de pendientes; devuelve la URL publicada
+     */
+    private String esperarImagenSubida() throws Exception {
+        String local = Uri.fromFile(imagen).toString();
+        long limite = System.currentTimeMillis() + ESPERA_MS;
+        while (System.currentTimeMillis() < limite) {
+            String url = leerProducto().getString("imagen_url");
+            if (url != null && !url.equals(local) && !pendientes.contains(docId)) {
+                return url;
+            }
+            Thread.sleep(250);
+        }
+        throw new AssertionError("La imagen no se publicó en " + ESPERA_MS + " ms");
+    }
+
+    private static void enHiloPrincipal(Runnable accion) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(accion);
+    }
+}
@@ -0,0 +1,40 @@
+package com.tienda.inventario;
+
+import android.app.Application;
+import android.os.Process;
+import android.os.Trace;
+
+import com.tienda.inventario.database.FuentesDatos;
+
+/**
+ * Application de la app.
+ *
+ * Inicia la fuente de datos (con Firestore: FirebaseFirestore.getInstance(),
+ * settings y emulador) en un hilo propio mientras el sistema crea MainActivity: cuando
+ * el repositorio lo pide ya está listo, o solo espera lo que falte, en lugar
+ * de hacer todo ese trabajo en el hilo principal antes del primer frame.
+ */
+public class InventarioApp extends Application {
+
+    @Override
+    public void onCreate() {
+        Trace.beginSection("InventarioApp.onCreate");
+        try {
+            super.onCreate();
+            FuentesDatos.inicializar(this);
+
+            Thread inicio = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_FOREGROUND);
+                Trace.beginSection("FuentesDatos.init");
+                try {
+                    FuentesDatos.getInstance();
+                } finally {
+                    Trace.endSection();
+                }
+            }, "inicio-datos");
+            inicio.start();
+        } finally {
+            Trace.endSection();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.tienda.inventario;
+
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.module.AppGlideModule;
+
+/**
+ * Módulo de Glide de la app: genera la API de Glide (GeneratedAppGlideModuleImpl)
+ * y evita que Glide recorra el manifest buscando módulos al primer uso.
+ */
+@GlideModule
+public final class InventarioGlideModule extends AppGlideModule {
+
+    /**
+     * No hay módulos declarados en manifests (formato de Glide 3)
+     */
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -0,0 +1,235 @@
+package com.tienda.inventario.database;
+
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.tienda.inventario.diagnostico.Registro;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Asigna los IDs numéricos (id_producto, id_categoria, id_proveedor).
+ *
+ * - Cada entidad tiene NUM_SHARDS contadores en la colección "contadores";
+ *   el shard s solo entrega IDs con id % NUM_SHARDS == s, así dos shards
+ *   nunca chocan y los clientes no compiten por el mismo documento.
+ * - Una transacción reserva TAMANO_BLOQUE IDs de una vez; las siguientes
+ *   altas no hacen ningún viaje al servidor hasta agotar el bloque.
+ * - Los IDs que ya usa un documento antiguo (asignados con hashCode())
+ *   se saltan con el verificador registrado por el repositorio.
+ * - Un documento sin el campo (antiguo o creado sin conexión) recibe su ID
+ *   con rellenar(); nunca se deriva del docId.
+ *
+ * Solo hilo principal.
+ */
+public class AsignadorIds {
+
+    private static final String TAG = "AsignadorIds";
+    private static final String COLLECTION_CONTADORES = "contadores";
+    private static final String CAMPO_SIGUIENTE = "siguiente";
+
+    static final int NUM_SHARDS = 4;
+    private static final int TAMANO_BLOQUE = 20;
+
+    public interface OnIdListener {
+        void onId(int id);
+        void onError(String error);
+    }
+
+    public interface OnRellenoListener {
+        /**
+         * @param asignadoAqui false si otra terminal ya había escrito el ID
+         */
+        void onId(int id, boolean asignadoAqui);
+        void onError(String error);
+    }
+
+    /**
+     * Indica si un ID ya está en uso localmente
+     */
+    public interface VerificadorIds {
+        boolean estaOcupado(int id);
+    }
+
+    private final FirebaseFirestore db;
+
+    // Cada proceso usa siempre el mismo shard, elegido al azar
+    private final int shard = new Random().nextInt(NUM_SHARDS);
+
+    private final Map<String, Bloque> bloques = new HashMap<>();
+    private final Map<String, VerificadorIds> verificadores = new HashMap<>();
+
+    AsignadorIds(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public void registrarVerificador(String entidad, VerificadorIds verificador) {
+        verificadores.put(entidad, verificador);
+    }
+
+    /**
+     * Siguiente ID libre para la entidad (nombre de la colección)
+     */
+    public void siguiente(String entidad, OnIdListener listener) {
+        Bloque bloque = bloques.get(entidad);
+        if (bloque == null) {
+            bloque = new Bloque();
+            bloques.put(entidad, bloque);
+        }
+
+        int id = bloque.tomar(verificadores.get(entidad));
+        if (id != 0) {
+            listener.onId(id);
+            return;
+        }
+
+        bloque.esperando.add(listener);
+        if (!bloque.reservando) {
+            reservar(entidad, bloque);
+        }
+    }
+
+    /**
+     * Reservar de una vez hasta `cantidad` IDs para una carga masiva (ver
+     * ImportadorProductos), en una sola transacción. Puede devolver menos si
+     * alguno ya estaba ocupado; el llamador pide el resto.
+     *
+     * Devuelve la tarea para poder esperarla desde un hilo de fondo.
+     */
+    public Task<int[]> reservarIds(String entidad, int cantidad) {
+        DocumentReference contador = db.collection(COLLECTION_CONTADORES)
+                .document(entidad + "_" + shard);
+
+        return db.runTransaction(transaccion -> {
+            DocumentSnapshot snapshot = transaccion.get(contador);
+            Long siguiente = snapshot.getLong(CAMPO_SIGUIENTE);
+            long inicio = siguiente != null ? siguiente : 1;
+
+            Map<String, Object> datos = new HashMap<>();
+            datos.put(CAMPO_SIGUIENTE, inicio + cantidad);
+            transaccion.set(contador, datos);
+            return inicio;
+        }).continueWith(tarea -> {
+            // continueWith corre en el hilo principal, igual que los verificadores
+            long inicio = tarea.getResult();
+            VerificadorIds verificador = verificadores.get(entidad);
+            int[] ids = new int[cantidad];
+            int libres = 0;
+            for (long posicion = inicio; posicion < inicio + cantidad; posicion++) {
+                int id = (int) (posicion * NUM_SHARDS + shard);
+                if (verificador == null || !verificador.estaOcupado(id)) {
+                    ids[libres++] = id;
+                }
+            }
+            int reservados = libres;
+            Registro.d(TAG, () -> "✓ " + reservados + " IDs reservados para " + entidad + " (shard " + shard + ")");
+            return libres == cantidad ? ids : Arrays.copyOf(ids, libres);
+        });
+    }
+
+    /**
+     * Asignar ID a un documento que no tiene el campo (backfill). El ID sale
+     * del bloque de la entidad (la colección del documento) y se escribe en
+     * una transacción solo si el documento sigue sin ID: si otra terminal se
+     * adelantó, se devuelve el suyo y el tomado del bloque queda sin usar.
+     */
+    public void rellenar(DocumentReference doc, String campo, OnRellenoListener listener) {
+        siguiente(doc.getParent().getId(), new OnIdListener() {
+            @Override
+            public void onId(int id) {
+                db.runTransaction(transaccion -> {
+                    // null = el documento seguía sin ID y se escribió el nuevo
+                    Long existente = transaccion.get(doc).getLong(campo);
+                    if (existente == null) {
+                        transaccion.update(doc, campo, id);
+                    }
+                    return existente;
+                }).addOnSuccessListener(existente -> {
+                    if (existente == null) {
+                        listener.onId(id, true);
+                    } else {
+                        listener.onId(existente.intValue(), false);
+                    }
+                }).addOnFailureListener(e -> {
+                    Registro.e(TAG, () -> "❌ Error al rellenar " + campo + " de " + doc.getPath(), e);
+                    listener.onError(e.getMessage());
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                listener.onError(error);
+            }
+        });
+    }
+
+    private void reservar(String entidad, Bloque bloque) {
+        bloque.reservando = true;
+        DocumentReference contador = db.collection(COLLECTION_CONTADORES)
+                .document(entidad + "_" + shard);
+
+        db.runTransaction(transaccion -> {
+            DocumentSnapshot snapshot = transaccion.get(contador);
+            Long siguiente = snapshot.getLong(CAMPO_SIGUIENTE);
+            long inicio = siguiente != null ? siguiente : 1;
+
+            Map<String, Object> datos = new HashMap<>();
+            datos.put(CAMPO_SIGUIENTE, inicio + TAMANO_BLOQUE);
+            transaccion.set(contador, datos);
+            return inicio;
+        }).addOnSuccessListener(inicio -> {
+            Registro.d(TAG, () -> "✓ Bloque reservado para " + entidad + ": " + inicio + " (shard " + shard + ")");
+            bloque.reservando = false;
+            bloque.desde = inicio;
+            bloque.hasta = inicio + TAMANO_BLOQUE;
+            atenderEspera(entidad, bloque);
+        }).addOnFailureListener(e -> {
+            Registro.e(TAG, () -> "❌ Error al reservar IDs para " + entidad, e);
+            bloque.reservando = false;
+            while (!bloque.esperando.isEmpty()) {
+                bloque.esperando.poll().onError(e.getMessage());
+            }
+        });
+    }
+
+    private void atenderEspera(String entidad, Bloque bloque) {
+        while (!bloque.esperando.isEmpty()) {
+            int id = bloque.tomar(verificadores.get(entidad));
+            if (id == 0) {
+                // Todo el bloque estaba ocupado: pedir otro
+                reservar(entidad, bloque);
+                return;
+            }
+            bloque.esperando.poll().onId(id);
+        }
+    }
+
+    /**
+     * Rango reservado [desde, hasta) de posiciones dentro del shard
+     */
+    private final class Bloque {
+        long desde;
+        long hasta;
+        boolean reservando;
+        final ArrayDeque<OnIdListener> esperando = new ArrayDeque<>();
+
+        /**
+         * @return el siguiente ID libre del bloque, o 0 si se agotó
+         */
+        int tomar(VerificadorIds verificador) {
+            while (desde < hasta) {
+                int id = (int) (desde++ * NUM_SHARDS + shard);
+                if (verificador == null || !verificador.estaOcupado(id)) {
+                    return id;
+                }
+            }
+            return 0;
+        }
+    }
+}
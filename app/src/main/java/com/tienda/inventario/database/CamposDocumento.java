@@ -0,0 +1,24 @@
+package com.tienda.inventario.database;
+
+/**
+ * Vista mínima de un documento de Firestore para decodificarlo sin depender
+ * del SDK (ver DecodificadorProducto). En la app la implementa un
+ * QueryDocumentSnapshot; en benchmarks y backends locales, un Map (CamposMapa).
+ */
+public interface CamposDocumento {
+
+    String getId();
+
+    Object get(String campo);
+
+    String getString(String campo);
+
+    Long getLong(String campo);
+
+    Boolean getBoolean(String campo);
+
+    /**
+     * Fecha en milisegundos, o 0 si el campo no existe
+     */
+    long getFechaMillis(String campo);
+}
@@ -0,0 +1,65 @@
+package com.tienda.inventario.database;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * CamposDocumento sobre un Map con los mismos nombres y tipos que Firestore
+ * (números como Long o Double; fechas como Date o milisegundos en Long)
+ */
+public final class CamposMapa implements CamposDocumento {
+
+    private String id;
+    private Map<String, Object> campos;
+
+    public CamposMapa(String id, Map<String, Object> campos) {
+        this.id = id;
+        this.campos = campos;
+    }
+
+    /**
+     * Reutilizar la instancia para otro documento (recorridos largos sin asignar)
+     */
+    public CamposMapa apuntar(String id, Map<String, Object> campos) {
+        this.id = id;
+        this.campos = campos;
+        return this;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public Object get(String campo) {
+        return campos.get(campo);
+    }
+
+    @Override
+    public String getString(String campo) {
+        Object valor = campos.get(campo);
+        return valor instanceof String ? (String) valor : null;
+    }
+
+    @Override
+    public Long getLong(String campo) {
+        Object valor = campos.get(campo);
+        return valor instanceof Number ? ((Number) valor).longValue() : null;
+    }
+
+    @Override
+    public Boolean getBoolean(String campo) {
+        Object valor = campos.get(campo);
+        return valor instanceof Boolean ? (Boolean) valor : null;
+    }
+
+    @Override
+    public long getFechaMillis(String campo) {
+        Object valor = campos.get(campo);
+        if (valor instanceof Date) {
+            return ((Date) valor).getTime();
+        }
+        return valor instanceof Long ? (Long) valor : 0;
+    }
+}
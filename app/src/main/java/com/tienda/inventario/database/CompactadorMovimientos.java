@@ -0,0 +1,150 @@
+package com.tienda.inventario.database;
+
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.tienda.inventario.diagnostico.Registro;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pliega los movimientos pendientes en el stock_actual de cada producto.
+ *
+ * Registrar una venta solo agrega documentos al libro; el producto se
+ * escribe aquí, una vez por producto y por lote, justo después de cada
+ * registro (plegar) y en la pasada periódica (compactar), que recoge lo que
+ * no se pudo plegar en el momento. Así stock_actual es el stock de una sola
+ * lectura y un choque entre terminales solo reintenta el pliegue: la venta
+ * ya quedó registrada.
+ *
+ * Cada producto se compacta en su propia transacción, que vuelve a leer el
+ * producto y sus movimientos: si otra terminal ya compactó alguno, la
+ * transacción lo ve marcado y no lo suma dos veces. Los movimientos se
+ * conservan como historial con compactado = true.
+ *
+ * Plegar no toca ultima_actualizacion: los datos del producto no cambian y
+ * la recarga detecta el stock nuevo comparando stock_actual.
+ */
+final class CompactadorMovimientos {
+
+    private static final String TAG = "CompactadorMovimientos";
+
+    // Movimientos leídos por pasada; el resto queda para la siguiente
+    private static final int MAX_MOVIMIENTOS_POR_PASADA = 400;
+
+    // Una transacción admite 500 escrituras: el producto + sus movimientos
+    private static final int MAX_MOVIMIENTOS_POR_TRANSACCION = 200;
+
+    private final FirebaseFirestore db;
+    private boolean enCurso = false;
+
+    CompactadorMovimientos(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    void compactar(InventoryDataSource.OnSuccessListener listener) {
+        if (enCurso) {
+            listener.onSuccess();
+            return;
+        }
+        enCurso = true;
+
+        db.collection(FirestoreManager.COLLECTION_MOVIMIENTOS)
+                .whereEqualTo("compactado", false)
+                .limit(MAX_MOVIMIENTOS_POR_PASADA)
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    Map<String, List<DocumentReference>> porProducto = new HashMap<>();
+                    for (QueryDocumentSnapshot doc : snapshot) {
+                        String docIdProducto = doc.getString("producto_doc_id");
+                        if (docIdProducto == null) {
+                            continue;
+                        }
+                        List<DocumentReference> refs = porProducto.get(docIdProducto);
+                        if (refs == null) {
+                            refs = new ArrayList<>();
+                            porProducto.put(docIdProducto, refs);
+                        }
+                        refs.add(doc.getReference());
+                    }
+
+                    List<Task<Integer>> tareas = plegar(porProducto);
+                    Tasks.whenAllComplete(tareas).addOnCompleteListener(t -> {
+                        enCurso = false;
+                        int fallidas = 0;
+                        for (Task<Integer> tarea : tareas) {
+                            if (!tarea.isSuccessful()) {
+                                fallidas++;
+                            }
+                        }
+                        int totalFallidas = fallidas;
+                        Registro.d(TAG, () -> "✓ Compactación: " + snapshot.size() + " movimientos, "
+                                + porProducto.size() + " productos, " + totalFallidas + " transacciones fallidas");
+                        listener.onSuccess();
+                    });
+                })
+                .addOnFailureListener(e -> {
+                    enCurso = false;
+                    Registro.e(TAG, "❌ Error al leer movimientos pendientes", e);
+                    listener.onError(e.getMessage());
+                });
+    }
+
+    /**
+     * Plegar movimientos conocidos (docId del producto -> sus movimientos)
+     *
+     * @return una transacción por producto (o por tramo si son muchos)
+     */
+    List<Task<Integer>> plegar(Map<String, List<DocumentReference>> porProducto) {
+        List<Task<Integer>> tareas = new ArrayList<>();
+        for (Map.Entry<String, List<DocumentReference>> entrada : porProducto.entrySet()) {
+            List<DocumentReference> refs = entrada.getValue();
+            for (int i = 0; i < refs.size(); i += MAX_MOVIMIENTOS_POR_TRANSACCION) {
+                List<DocumentReference> tramo =
+                        refs.subList(i, Math.min(refs.size(), i + MAX_MOVIMIENTOS_POR_TRANSACCION));
+                tareas.add(compactarProducto(entrada.getKey(), tramo));
+            }
+        }
+        return tareas;
+    }
+
+    /**
+     * @return unidades sumadas al producto
+     */
+    private Task<Integer> compactarProducto(String docIdProducto, List<DocumentReference> movimientos) {
+        DocumentReference producto = db.collection(FirestoreManager.COLLECTION_PRODUCTOS)
+                .document(docIdProducto);
+
+        return db.runTransaction(transaccion -> {
+            // Firestore exige todas las lecturas antes de la primera escritura
+            DocumentSnapshot snapshotProducto = transaccion.get(producto);
+            List<DocumentReference> pendientes = new ArrayList<>();
+            int delta = 0;
+            for (DocumentReference ref : movimientos) {
+                DocumentSnapshot movimiento = transaccion.get(ref);
+                if (Boolean.FALSE.equals(movimiento.getBoolean("compactado"))) {
+                    Long cantidad = movimiento.getLong("cantidad");
+                    delta += cantidad != null ? cantidad.intValue() : 0;
+                    pendientes.add(ref);
+                }
+            }
+
+            for (DocumentReference ref : pendientes) {
+                transaccion.update(ref, "compactado", true);
+            }
+
+            if (snapshotProducto.exists() && delta != 0) {
+                Long stock = snapshotProducto.getLong("stock_actual");
+                transaccion.update(producto, "stock_actual", (stock != null ? stock : 0) + delta);
+            }
+            return delta;
+        });
+    }
+}
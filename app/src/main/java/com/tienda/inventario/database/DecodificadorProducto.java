@@ -0,0 +1,93 @@
+package com.tienda.inventario.database;
+
+import com.tienda.inventario.database.entities.Producto;
+
+/**
+ * Documento de la colección productos -> Producto.
+ * Compatible con estructura de desktop.
+ *
+ * No depende del SDK de Firestore (lee a través de CamposDocumento), así
+ * se puede medir y usar fuera de Android (ver :microbenchmark).
+ */
+public final class DecodificadorProducto {
+
+    // Documento sin ID numérico: FirestoreManager le asigna uno con
+    // AsignadorIds (nunca entrega 0); no se deriva del docId
+    public static final int SIN_ID = 0;
+
+    private final InternadorTextos textos;
+
+    public DecodificadorProducto() {
+        this(new InternadorTextos());
+    }
+
+    DecodificadorProducto(InternadorTextos textos) {
+        this.textos = textos;
+    }
+
+    public Producto decodificar(CamposDocumento doc) {
+        Producto producto = new Producto();
+
+        // Guardar el ID del documento de Firestore
+        producto.setDocId(doc.getId());
+
+        // ID numérico (compatible con Room)
+        Long idProductoLong = doc.getLong("id_producto");
+        producto.setIdProducto(idProductoLong != null ? idProductoLong.intValue() : SIN_ID);
+
+        // Datos del producto
+        producto.setNombreProducto(doc.getString("nombre_producto"));
+        producto.setDescripcion(textos.internar(doc.getString("descripcion")));
+
+        // Precio (manejar Double y Long)
+        Object precioObj = doc.get("precio_unitario");
+        if (precioObj instanceof Double) {
+            producto.setPrecioUnitario((Double) precioObj);
+        } else if (precioObj instanceof Long) {
+            producto.setPrecioUnitario(((Long) precioObj).doubleValue());
+        }
+
+        // Stock con los movimientos ya plegados (ver CompactadorMovimientos);
+        // los shards se suman aparte
+        Long stockActual = doc.getLong("stock_actual");
+        producto.setStockActual(stockActual != null ? stockActual.intValue() : 0);
+
+        // Stock mínimo
+        Long stockMinimo = doc.getLong("stock_minimo");
+        producto.setStockMinimo(stockMinimo != null ? stockMinimo.intValue() : 0);
+
+        // Código de barras
+        producto.setCodigoBarras(textos.internar(doc.getString("codigo_barras")));
+
+        // IDs de categoría y proveedor
+        Long idCategoria = doc.getLong("id_categoria");
+        producto.setIdCategoria(idCategoria != null ? idCategoria.intValue() : 0);
+
+        Long idProveedor = doc.getLong("id_proveedor");
+        producto.setIdProveedor(idProveedor != null ? idProveedor.intValue() : 0);
+
+        // Contador distribuido de stock (0 = desactivado)
+        Long stockShards = doc.getLong("stock_shards");
+        producto.setStockShards(stockShards != null ? stockShards.intValue() : 0);
+
+        // Estado activo
+        Boolean activo = doc.getBoolean("activo");
+        producto.setActivo(activo != null ? activo : true);
+
+        // URL de imagen
+        producto.setImagenUrl(textos.internar(doc.getString("imagen_url")));
+
+        // Timestamps
+        long fechaRegistro = doc.getFechaMillis("fecha_registro");
+        if (fechaRegistro != 0) {
+            producto.setFechaRegistro(fechaRegistro);
+        }
+
+        long ultimaAct = doc.getFechaMillis("ultima_actualizacion");
+        if (ultimaAct != 0) {
+            producto.setUltimaActualizacion(ultimaAct);
+        }
+
+        return producto;
+    }
+}
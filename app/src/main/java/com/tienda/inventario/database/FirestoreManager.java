@@ -1,35 +1,106 @@
 package com.tienda.inventario.database;
 
-import android.util.Log;
+import android.os.Trace;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.tienda.inventario.BuildConfig;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.WriteBatch;
+import com.tienda.inventario.database.entities.CambiosProducto;
 import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Movimiento;
 import com.tienda.inventario.database.entities.Producto;
 import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.diagnostico.Metricas;
+import com.tienda.inventario.diagnostico.MetricasOperacion;
+import com.tienda.inventario.diagnostico.Registro;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Manager para Firestore - Compatible con la app de escritorio (Java Swing)
  * Ambas apps comparten la misma estructura de datos en Firestore
  */
-public class FirestoreManager {
+public class FirestoreManager implements InventoryDataSource {
 
     private static final String TAG = "FirestoreManager";
+
+    // Errores por documento: un catálogo con un campo mal cargado los repite miles de veces
+    private static final Registro.Muestreo ERRORES_PRODUCTO = new Registro.Muestreo(100);
+    private static final Registro.Muestreo ERRORES_CATEGORIA = new Registro.Muestreo(100);
+    private static final Registro.Muestreo ERRORES_PROVEEDOR = new Registro.Muestreo(100);
     private static FirestoreManager instance;
     private final FirebaseFirestore db;
 
     // Nombres de colecciones (deben coincidir con desktop)
-    private static final String COLLECTION_PRODUCTOS = "productos";
-    private static final String COLLECTION_CATEGORIAS = "categorias";
-    private static final String COLLECTION_PROVEEDORES = "proveedores";
+    public static final String COLLECTION_PRODUCTOS = "productos";
+    public static final String COLLECTION_CATEGORIAS = "categorias";
+    public static final String COLLECTION_PROVEEDORES = "proveedores";
+    public static final String COLLECTION_MOVIMIENTOS = "movimientos";
+
+    // Shards de un producto al activar el stock distribuido (alta rotación)
+    public static final int SHARDS_STOCK_DISTRIBUIDO = StockDistribuido.SHARDS_POR_DEFECTO;
+
+    // Máximo de operaciones por WriteBatch
+    public static final int MAX_ESCRITURAS_LOTE = 500;
+
+    // Documentos sin ID numérico que se rellenan por carga; el resto, en la siguiente
+    private static final int MAX_RELLENOS_POR_CARGA = 50;
+
+    // Puerto del emulador de Firestore (ver firebase.emulador.json)
+    private static final int PUERTO_EMULADOR_FIRESTORE = 8080;
+
+    // IDs numéricos por contadores con shards (reemplaza docId.hashCode())
+    private final AsignadorIds asignadorIds;
+
+    // Pliega el libro de movimientos en stock_actual
+    private final CompactadorMovimientos compactador;
+
+    // Stock en shards para productos de alta rotación
+    private final StockDistribuido stockDistribuido;
+
+    // Cadenas repetidas entre documentos (descripciones, ciudades, URLs...)
+    private final InternadorTextos textos = new InternadorTextos();
+
+    // Documento -> Producto (sin dependencias de Firestore, ver :microbenchmark)
+    private final DecodificadorProducto decodificador = new DecodificadorProducto(textos);
+
+    // Productos de la última carga por docId: se reutilizan si no cambiaron
+    private Map<String, Producto> productosPrevios = new HashMap<>();
 
     private FirestoreManager() {
         this.db = FirebaseFirestore.getInstance();
+
+        // useEmulator() debe llamarse antes de cualquier otra operación sobre la instancia
+        if (BuildConfig.USAR_EMULADOR_FIREBASE) {
+            db.useEmulator(BuildConfig.HOST_EMULADOR_FIREBASE, PUERTO_EMULADOR_FIRESTORE);
+            Registro.d(TAG, () -> "Usando emulador de Firestore en " + BuildConfig.HOST_EMULADOR_FIREBASE);
+        }
+
+        this.asignadorIds = new AsignadorIds(db);
+        this.compactador = new CompactadorMovimientos(db);
+        this.stockDistribuido = new StockDistribuido(db);
+    }
+
+    @Override
+    public Task<int[]> reservarIds(String entidad, int cantidad) {
+        return asignadorIds.reservarIds(entidad, cantidad);
+    }
+
+    @Override
+    public void registrarVerificadorIds(String entidad, AsignadorIds.VerificadorIds verificador) {
+        asignadorIds.registrarVerificador(entidad, verificador);
     }
 
     public static synchronized FirestoreManager getInstance() {
@@ -41,39 +112,71 @@ public class FirestoreManager {
 
     // ==================== PRODUCTOS ====================
 
-    public interface OnProductosListener {
-        void onSuccess(List<Producto> productos);
-        void onError(String error);
-    }
-
     /**
      * Obtener todos los productos activos
      * Compatible con estructura de desktop
      */
+    @Override
     public void getProductos(OnProductosListener listener) {
         db.collection(COLLECTION_PRODUCTOS)
                 .whereEqualTo("activo", true)
                 .orderBy("nombre_producto")
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<Producto> productos = new ArrayList<>();
+                    MetricasOperacion metricas = Metricas.getInstance().operacion(Metricas.DECODIFICAR);
+                    long inicio = Metricas.ahora();
+                    Trace.beginSection("FirestoreManager.decodificar");
 
-                    for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
-                        try {
-                            Producto producto = documentToProducto(doc);
-                            if (producto != null) {
-                                productos.add(producto);
+                    List<Producto> productos = new ArrayList<>();
+                    List<Producto> sinId = new ArrayList<>();
+                    Map<String, Producto> vigentes = new HashMap<>(queryDocumentSnapshots.size() * 2);
+                    int reutilizados = 0;
+                    CamposSnapshot campos = new CamposSnapshot();
+
+                    try {
+                        for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
+                            try {
+                                Producto producto = productoSinCambios(doc);
+                                if (producto != null) {
+                                    reutilizados++;
+                                } else {
+                                    producto = decodificador.decodificar(campos.apuntar(doc));
+                                }
+                                if (producto != null) {
+                                    productos.add(producto);
+                                    vigentes.put(producto.getDocId(), producto);
+                                    if (producto.getIdProducto() == DecodificadorProducto.SIN_ID) {
+                                        sinId.add(producto);
+                                    }
+                                }
+                            } catch (Exception e) {
+                                ERRORES_PRODUCTO.e(TAG, () -> "Error al procesar producto " + doc.getId(), e);
                             }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error al procesar producto: " + e.getMessage(), e);
                         }
+                    } finally {
+                        Trace.endSection();
                     }
-
-                    Log.d(TAG, "✓ Productos cargados: " + productos.size());
+                    productosPrevios = vigentes;
+
+                    // Acierto = producto reutilizado de la carga anterior, sin decodificar
+                    metricas.exito(inicio, queryDocumentSnapshots.size());
+                    metricas.sumarBytes(campos.bytesLeidos);
+                    metricas.cache(reutilizados, queryDocumentSnapshots.size() - reutilizados);
+                    // Respuesta desde la caché local de Firestore (sin red)
+                    Metricas.getInstance().operacion(Metricas.PREFIJO_FUENTE + "getProductos")
+                            .cache(queryDocumentSnapshots.getMetadata().isFromCache());
+
+                    int sinCambios = reutilizados;
+                    Registro.d(TAG, () -> "✓ Productos cargados: " + productos.size()
+                            + " (" + sinCambios + " sin cambios)");
                     listener.onSuccess(productos);
+
+                    // Las instancias ya se publicaron: el ID se ve en la próxima carga
+                    rellenarIds(COLLECTION_PRODUCTOS, "id_producto", null, sinId,
+                            Producto::getDocId, (producto, id) -> { }, () -> { });
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Error al cargar productos: " + e.getMessage(), e);
+                    Registro.e(TAG, "❌ Error al cargar productos", e);
                     listener.onError(e.getMessage());
                 });
     }
@@ -83,6 +186,73 @@ public class FirestoreManager {
      * Usa la misma estructura que desktop
      */
     public void agregarProducto(Producto producto, OnSuccessListener listener) {
+        agregarProducto(producto, new OnDocumentoListener() {
+            @Override
+            public void onSuccess(String docId) {
+                listener.onSuccess();
+            }
+
+            @Override
+            public void onError(String error) {
+                listener.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Agregar nuevo producto devolviendo el ID del documento creado
+     * (necesario para tareas posteriores como la subida de la imagen)
+     */
+    @Override
+    public void agregarProducto(Producto producto, OnDocumentoListener listener) {
+        // El docId se genera localmente: el documento se escribe completo en un solo set()
+        DocumentReference documentReference = db.collection(COLLECTION_PRODUCTOS).document();
+        String docId = documentReference.getId();
+        Map<String, Object> data = datosProductoNuevo(producto, docId);
+
+        conIdNumerico(COLLECTION_PRODUCTOS, docId, id -> {
+            if (id != DecodificadorProducto.SIN_ID) {
+                data.put("id_producto", id);
+            }
+
+            documentReference.set(data)
+                    .addOnSuccessListener(aVoid -> {
+                        Registro.d(TAG, () -> "✓ Producto agregado: " + docId + " (id " + id + ")");
+                        // El llamador puede sumarlo en memoria sin volver a leerlo
+                        producto.setDocId(docId);
+                        producto.setIdProducto(id);
+                        listener.onSuccess(docId);
+                    })
+                    .addOnFailureListener(e -> {
+                        Registro.e(TAG, "❌ Error al agregar producto", e);
+                        listener.onError(e.getMessage());
+                    });
+        });
+    }
+
+    /**
+     * Escribir productos nuevos en lotes de hasta MAX_ESCRITURAS_LOTE.
+     * Cada producto trae ya su docId e id_producto (ver ImportadorProductos),
+     * así repetir un lote sobrescribe los mismos documentos sin duplicar.
+     *
+     * Devuelve la tarea para poder esperarla desde un hilo de fondo.
+     */
+    @Override
+    public Task<Void> escribirProductosNuevos(List<Producto> productos) {
+        List<Task<Void>> lotes = new ArrayList<>();
+        for (int i = 0; i < productos.size(); i += MAX_ESCRITURAS_LOTE) {
+            WriteBatch batch = db.batch();
+            for (Producto producto : productos.subList(i, Math.min(productos.size(), i + MAX_ESCRITURAS_LOTE))) {
+                Map<String, Object> data = datosProductoNuevo(producto, producto.getDocId());
+                data.put("id_producto", producto.getIdProducto());
+                batch.set(db.collection(COLLECTION_PRODUCTOS).document(producto.getDocId()), data);
+            }
+            lotes.add(batch.commit());
+        }
+        return Tasks.whenAll(lotes);
+    }
+
+    private Map<String, Object> datosProductoNuevo(Producto producto, String docId) {
         Map<String, Object> data = new HashMap<>();
 
         // Usar los mismos nombres de campos que desktop
@@ -100,57 +270,66 @@ public class FirestoreManager {
 
         // NUEVO: Agregar URL de imagen
         data.put("imagen_url", producto.getImagenUrl() != null ? producto.getImagenUrl() : "");
+        data.put("firestore_id", docId);
+        return data;
+    }
 
-        db.collection(COLLECTION_PRODUCTOS)
-                .add(data)
-                .addOnSuccessListener(documentReference -> {
-                    String docId = documentReference.getId();
-
-                    // Actualizar con id_producto para compatibilidad
-                    Map<String, Object> updates = new HashMap<>();
-                    updates.put("firestore_id", docId);
-                    updates.put("id_producto", docId.hashCode());
-
-                    documentReference.update(updates)
-                            .addOnSuccessListener(aVoid -> {
-                                Log.d(TAG, "✓ Producto agregado: " + docId);
-                                listener.onSuccess();
-                            })
-                            .addOnFailureListener(e -> listener.onError(e.getMessage()));
+    /**
+     * Enviar solo los campos cambiados (ver CambiosProducto) y los movimientos
+     * en una sola escritura. Sin cambios ni movimientos no se escribe nada.
+     *
+     * @param stockShards stock_shards del producto (0 si no está en modo distribuido)
+     */
+    @Override
+    public void actualizarProducto(String documentId, CambiosProducto cambios, int stockShards,
+                                   List<Movimiento> movimientos, OnSuccessListener listener) {
+        if (cambios.estaVacio() && movimientos.isEmpty()) {
+            Registro.d(TAG, () -> "✓ Producto sin cambios: " + documentId);
+            listener.onSuccess();
+            return;
+        }
+
+        WriteBatch batch = db.batch();
+        if (!cambios.estaVacio()) {
+            Map<String, Object> data = new HashMap<>(cambios.getCampos());
+            data.put("ultima_actualizacion", com.google.firebase.Timestamp.now());
+            batch.update(db.collection(COLLECTION_PRODUCTOS).document(documentId), data);
+        }
+        Map<String, List<DocumentReference>> porPlegar = new HashMap<>();
+        for (Movimiento movimiento : movimientos) {
+            agregarMovimiento(batch, movimiento, stockShards, porPlegar);
+        }
+
+        batch.commit()
+                .continueWithTask(commit -> plegarRegistrados(commit, porPlegar))
+                .addOnSuccessListener(aVoid -> {
+                    Registro.d(TAG, () -> "✓ Producto actualizado: " + documentId);
+                    listener.onSuccess();
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Error al agregar producto: " + e.getMessage(), e);
+                    Registro.e(TAG, "❌ Error al actualizar", e);
                     listener.onError(e.getMessage());
                 });
     }
 
     /**
-     * Actualizar producto existente
+     * Actualizar solo la URL de imagen (usado al terminar la subida a Storage)
      */
-    public void actualizarProducto(String documentId, Producto producto, OnSuccessListener listener) {
-        Map<String, Object> data = new HashMap<>();
-        data.put("nombre_producto", producto.getNombreProducto());
-        data.put("descripcion", producto.getDescripcion() != null ? producto.getDescripcion() : "");
-        data.put("precio_unitario", producto.getPrecioUnitario());
-        data.put("stock_actual", producto.getStockActual());
-        data.put("stock_minimo", producto.getStockMinimo());
-        data.put("codigo_barras", producto.getCodigoBarras() != null ? producto.getCodigoBarras() : "");
-        data.put("id_categoria", producto.getIdCategoria());
-        data.put("id_proveedor", producto.getIdProveedor());
-        data.put("ultima_actualizacion", com.google.firebase.Timestamp.now());
-
-        // NUEVO: Actualizar URL de imagen
-        data.put("imagen_url", producto.getImagenUrl() != null ? producto.getImagenUrl() : "");
+    @Override
+    public void actualizarImagenUrl(String documentId, String imagenUrl, OnSuccessListener listener) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("imagen_url", imagenUrl);
+        updates.put("ultima_actualizacion", com.google.firebase.Timestamp.now());
 
         db.collection(COLLECTION_PRODUCTOS)
                 .document(documentId)
-                .update(data)
+                .update(updates)
                 .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "✓ Producto actualizado: " + documentId);
+                    Registro.d(TAG, () -> "✓ Imagen actualizada: " + documentId);
                     listener.onSuccess();
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Error al actualizar: " + e.getMessage(), e);
+                    Registro.e(TAG, "❌ Error al actualizar imagen", e);
                     listener.onError(e.getMessage());
                 });
     }
@@ -158,14 +337,15 @@ public class FirestoreManager {
     /**
      * Eliminar producto (soft delete - marca como inactivo)
      */
+    @Override
     public void eliminarProducto(String documentId, OnSuccessListener listener) {
         if (documentId == null || documentId.isEmpty()) {
-            Log.e(TAG, "❌ Error: documentId es nulo o vacío");
+            Registro.e(TAG, "❌ Error: documentId es nulo o vacío");
             listener.onError("ID de documento inválido");
             return;
         }
 
-        Log.d(TAG, "Eliminando producto con docId: " + documentId);
+        Registro.d(TAG, () -> "Eliminando producto con docId: " + documentId);
 
         Map<String, Object> updates = new HashMap<>();
         updates.put("activo", false);
@@ -175,104 +355,112 @@ public class FirestoreManager {
                 .document(documentId)
                 .update(updates)
                 .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "✓ Producto marcado como inactivo: " + documentId);
+                    Registro.d(TAG, () -> "✓ Producto marcado como inactivo: " + documentId);
                     listener.onSuccess();
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Error al eliminar: " + e.getMessage(), e);
+                    Registro.e(TAG, "❌ Error al eliminar", e);
                     listener.onError(e.getMessage());
                 });
     }
 
     // ==================== CATEGORÍAS ====================
 
-    public interface OnCategoriasListener {
-        void onSuccess(List<Categoria> categorias);
-        void onError(String error);
-    }
-
+    @Override
     public void getCategorias(OnCategoriasListener listener) {
         db.collection(COLLECTION_CATEGORIAS)
                 .orderBy("nombre_categoria")
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     List<Categoria> categorias = new ArrayList<>();
+                    List<Categoria> sinId = new ArrayList<>();
 
                     for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
                         try {
                             Categoria categoria = documentToCategoria(doc);
                             if (categoria != null) {
                                 categorias.add(categoria);
+                                if (categoria.getIdCategoria() == DecodificadorProducto.SIN_ID) {
+                                    sinId.add(categoria);
+                                }
                             }
                         } catch (Exception e) {
-                            Log.e(TAG, "Error al procesar categoría: " + e.getMessage(), e);
+                            ERRORES_CATEGORIA.e(TAG, () -> "Error al procesar categoría " + doc.getId(), e);
                         }
                     }
 
-                    Log.d(TAG, "✓ Categorías cargadas: " + categorias.size());
-                    listener.onSuccess(categorias);
+                    // Los productos las referencian por ID: se entregan ya con el suyo
+                    rellenarIds(COLLECTION_CATEGORIAS, "id_categoria", "id_categoria", sinId,
+                            Categoria::getDocId, Categoria::setIdCategoria, () -> {
+                                Registro.d(TAG, () -> "✓ Categorías cargadas: " + categorias.size());
+                                listener.onSuccess(categorias);
+                            });
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Error al cargar categorías: " + e.getMessage(), e);
+                    Registro.e(TAG, "❌ Error al cargar categorías", e);
                     listener.onError(e.getMessage());
                 });
     }
 
+    @Override
     public void agregarCategoria(Categoria categoria, OnSuccessListener listener) {
         Map<String, Object> data = new HashMap<>();
         data.put("nombre_categoria", categoria.getNombreCategoria());
         data.put("descripcion", categoria.getDescripcion() != null ? categoria.getDescripcion() : "");
         data.put("fecha_creacion", com.google.firebase.Timestamp.now());
 
-        db.collection(COLLECTION_CATEGORIAS)
-                .add(data)
-                .addOnSuccessListener(documentReference -> {
-                    // Agregar id_categoria para compatibilidad
-                    Map<String, Object> updates = new HashMap<>();
-                    updates.put("id_categoria", documentReference.getId().hashCode());
-                    updates.put("firestore_id", documentReference.getId());
-
-                    documentReference.update(updates)
-                            .addOnSuccessListener(aVoid -> listener.onSuccess())
-                            .addOnFailureListener(e -> listener.onError(e.getMessage()));
-                })
-                .addOnFailureListener(e -> listener.onError(e.getMessage()));
-    }
+        DocumentReference documentReference = db.collection(COLLECTION_CATEGORIAS).document();
+        data.put("firestore_id", documentReference.getId());
 
-    // ==================== PROVEEDORES ====================
+        conIdNumerico(COLLECTION_CATEGORIAS, documentReference.getId(), id -> {
+            if (id != DecodificadorProducto.SIN_ID) {
+                data.put("id_categoria", id);
+            }
 
-    public interface OnProveedoresListener {
-        void onSuccess(List<Proveedor> proveedores);
-        void onError(String error);
+            documentReference.set(data)
+                    .addOnSuccessListener(aVoid -> listener.onSuccess())
+                    .addOnFailureListener(e -> listener.onError(e.getMessage()));
+        });
     }
 
+    // ==================== PROVEEDORES ====================
+
+    @Override
     public void getProveedores(OnProveedoresListener listener) {
         db.collection(COLLECTION_PROVEEDORES)
                 .orderBy("nombre_proveedor")
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     List<Proveedor> proveedores = new ArrayList<>();
+                    List<Proveedor> sinId = new ArrayList<>();
 
                     for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
                         try {
                             Proveedor proveedor = documentToProveedor(doc);
                             if (proveedor != null) {
                                 proveedores.add(proveedor);
+                                if (proveedor.getIdProveedor() == DecodificadorProducto.SIN_ID) {
+                                    sinId.add(proveedor);
+                                }
                             }
                         } catch (Exception e) {
-                            Log.e(TAG, "Error al procesar proveedor: " + e.getMessage(), e);
+                            ERRORES_PROVEEDOR.e(TAG, () -> "Error al procesar proveedor " + doc.getId(), e);
                         }
                     }
 
-                    Log.d(TAG, "✓ Proveedores cargados: " + proveedores.size());
-                    listener.onSuccess(proveedores);
+                    rellenarIds(COLLECTION_PROVEEDORES, "id_proveedor", "id_proveedor", sinId,
+                            Proveedor::getDocId, Proveedor::setIdProveedor, () -> {
+                                Registro.d(TAG, () -> "✓ Proveedores cargados: " + proveedores.size());
+                                listener.onSuccess(proveedores);
+                            });
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Error al cargar proveedores: " + e.getMessage(), e);
+                    Registro.e(TAG, "❌ Error al cargar proveedores", e);
                     listener.onError(e.getMessage());
                 });
     }
 
+    @Override
     public void agregarProveedor(Proveedor proveedor, OnSuccessListener listener) {
         Map<String, Object> data = new HashMap<>();
         data.put("nombre_proveedor", proveedor.getNombreProveedor());
@@ -283,86 +471,357 @@ public class FirestoreManager {
         data.put("pais", proveedor.getPais() != null ? proveedor.getPais() : "");
         data.put("fecha_registro", com.google.firebase.Timestamp.now());
 
-        db.collection(COLLECTION_PROVEEDORES)
-                .add(data)
-                .addOnSuccessListener(documentReference -> {
-                    // Agregar id_proveedor para compatibilidad
-                    Map<String, Object> updates = new HashMap<>();
-                    updates.put("id_proveedor", documentReference.getId().hashCode());
-                    updates.put("firestore_id", documentReference.getId());
-
-                    documentReference.update(updates)
-                            .addOnSuccessListener(aVoid -> listener.onSuccess())
-                            .addOnFailureListener(e -> listener.onError(e.getMessage()));
+        DocumentReference documentReference = db.collection(COLLECTION_PROVEEDORES).document();
+        data.put("firestore_id", documentReference.getId());
+
+        conIdNumerico(COLLECTION_PROVEEDORES, documentReference.getId(), id -> {
+            if (id != DecodificadorProducto.SIN_ID) {
+                data.put("id_proveedor", id);
+            }
+
+            documentReference.set(data)
+                    .addOnSuccessListener(aVoid -> listener.onSuccess())
+                    .addOnFailureListener(e -> listener.onError(e.getMessage()));
+        });
+    }
+
+    /**
+     * Documentos antiguos sin ID numérico: se les asigna uno con AsignadorIds
+     * y se escribe en el documento (ver AsignadorIds.rellenar). Hasta
+     * MAX_RELLENOS_POR_CARGA por carga; si falla, la entidad queda con SIN_ID
+     * y se reintenta en la próxima carga.
+     *
+     * @param campoEnProductos campo de productos que referencia a la entidad,
+     *                         o null; esas referencias se migran al ID nuevo
+     * @param alTerminar       cuando terminaron todos, con o sin éxito
+     */
+    private <T> void rellenarIds(String coleccion, String campo, String campoEnProductos, List<T> sinId,
+                                 Function<T, String> docId, ObjIntConsumer<T> asignar, Runnable alTerminar) {
+        int cantidad = Math.min(sinId.size(), MAX_RELLENOS_POR_CARGA);
+        if (cantidad == 0) {
+            alTerminar.run();
+            return;
+        }
+        Registro.w(TAG, () -> sinId.size() + " documentos de " + coleccion + " sin " + campo + ", rellenando " + cantidad);
+
+        int[] pendientes = {cantidad};
+        for (T entidad : sinId.subList(0, cantidad)) {
+            String id = docId.apply(entidad);
+            asignadorIds.rellenar(db.collection(coleccion).document(id), campo,
+                    new AsignadorIds.OnRellenoListener() {
+                        @Override
+                        public void onId(int nuevo, boolean asignadoAqui) {
+                            asignar.accept(entidad, nuevo);
+                            if (asignadoAqui && campoEnProductos != null) {
+                                migrarReferencias(campoEnProductos, id, nuevo);
+                            }
+                            terminar();
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            terminar();
+                        }
+
+                        private void terminar() {
+                            if (--pendientes[0] == 0) {
+                                alTerminar.run();
+                            }
+                        }
+                    });
+        }
+    }
+
+    /**
+     * La versión anterior de la app leía estos documentos con el ID
+     * docId.hashCode() y los productos pueden haberlo guardado al elegir la
+     * categoría o el proveedor. El hash solo se usa para encontrar esas
+     * referencias y pasarlas al ID asignado; nunca como ID.
+     * Los productos en memoria lo reflejan en su próxima carga.
+     */
+    private void migrarReferencias(String campo, String docId, int id) {
+        db.collection(COLLECTION_PRODUCTOS)
+                .whereEqualTo(campo, docId.hashCode())
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    List<DocumentSnapshot> docs = snapshot.getDocuments();
+                    for (int i = 0; i < docs.size(); i += MAX_ESCRITURAS_LOTE) {
+                        WriteBatch batch = db.batch();
+                        for (DocumentSnapshot doc : docs.subList(i, Math.min(docs.size(), i + MAX_ESCRITURAS_LOTE))) {
+                            Map<String, Object> updates = new HashMap<>();
+                            updates.put(campo, id);
+                            updates.put("ultima_actualizacion", com.google.firebase.Timestamp.now());
+                            batch.update(doc.getReference(), updates);
+                        }
+                        batch.commit().addOnFailureListener(e ->
+                                Registro.e(TAG, () -> "❌ Error al migrar " + campo + " de " + docId, e));
+                    }
+                    Registro.d(TAG, () -> "✓ " + docs.size() + " productos con " + campo + " migrado: " + docId);
                 })
-                .addOnFailureListener(e -> listener.onError(e.getMessage()));
+                .addOnFailureListener(e -> Registro.e(TAG, () -> "❌ Error al buscar referencias a " + docId, e));
     }
 
-    // ==================== CONVERSORES ====================
+    /**
+     * Obtener un ID numérico del asignador; sin conexión no se puede reservar
+     * un bloque y el documento se escribe sin ID (SIN_ID) para no bloquear el
+     * alta: la siguiente carga se lo asigna con rellenarIds()
+     */
+    private void conIdNumerico(String coleccion, String docId, IntConsumer accion) {
+        asignadorIds.siguiente(coleccion, new AsignadorIds.OnIdListener() {
+            @Override
+            public void onId(int id) {
+                accion.accept(id);
+            }
+
+            @Override
+            public void onError(String error) {
+                Registro.w(TAG, () -> "Sin bloque de IDs para " + coleccion + ", " + docId + " queda sin ID hasta la próxima carga");
+                accion.accept(DecodificadorProducto.SIN_ID);
+            }
+        });
+    }
+
+    // ==================== MOVIMIENTOS ====================
+
+    public void registrarMovimientos(List<Movimiento> movimientos, OnSuccessListener listener) {
+        registrarMovimientos(movimientos, new HashMap<>(), listener);
+    }
 
     /**
-     * Convertir documento de Firestore a objeto Producto
-     * Compatible con estructura de desktop
+     * Agregar movimientos al libro (una venta o recepción = un lote).
+     * Cada movimiento es un documento nuevo: el lote no escribe el producto
+     * (ver agregarMovimiento). Confirmado el lote, sus movimientos se pliegan
+     * en stock_actual antes de avisar al listener.
+     *
+     * @param shardsPorProducto docId -> stock_shards de los productos en modo distribuido
      */
-    private Producto documentToProducto(QueryDocumentSnapshot doc) {
-        Producto producto = new Producto();
-
-        // Guardar el ID del documento de Firestore
-        producto.setDocId(doc.getId());
-
-        // ID numérico (compatible con Room)
-        Long idProductoLong = doc.getLong("id_producto");
-        producto.setIdProducto(idProductoLong != null ? idProductoLong.intValue() : doc.getId().hashCode());
-
-        // Datos del producto
-        producto.setNombreProducto(doc.getString("nombre_producto"));
-        producto.setDescripcion(doc.getString("descripcion"));
-
-        // Precio (manejar Double y Long)
-        Object precioObj = doc.get("precio_unitario");
-        if (precioObj instanceof Double) {
-            producto.setPrecioUnitario((Double) precioObj);
-        } else if (precioObj instanceof Long) {
-            producto.setPrecioUnitario(((Long) precioObj).doubleValue());
+    @Override
+    public void registrarMovimientos(List<Movimiento> movimientos, Map<String, Integer> shardsPorProducto,
+                                     OnSuccessListener listener) {
+        if (movimientos.isEmpty()) {
+            listener.onSuccess();
+            return;
+        }
+
+        // Hasta dos escrituras por movimiento (libro + shard en modo distribuido)
+        int porLote = MAX_ESCRITURAS_LOTE / 2;
+        List<Task<Void>> lotes = new ArrayList<>();
+        Map<String, List<DocumentReference>> porPlegar = new HashMap<>();
+        for (int i = 0; i < movimientos.size(); i += porLote) {
+            WriteBatch batch = db.batch();
+            for (Movimiento movimiento : movimientos.subList(i, Math.min(movimientos.size(), i + porLote))) {
+                Integer shards = shardsPorProducto.get(movimiento.getDocIdProducto());
+                agregarMovimiento(batch, movimiento, shards != null ? shards : 0, porPlegar);
+            }
+            lotes.add(batch.commit());
         }
 
-        // Stock actual
-        Long stockActual = doc.getLong("stock_actual");
-        producto.setStockActual(stockActual != null ? stockActual.intValue() : 0);
+        Tasks.whenAll(lotes)
+                .continueWithTask(commit -> plegarRegistrados(commit, porPlegar))
+                .addOnSuccessListener(aVoid -> {
+                    Registro.d(TAG, () -> "✓ Movimientos registrados: " + movimientos.size());
+                    listener.onSuccess();
+                })
+                .addOnFailureListener(e -> {
+                    Registro.e(TAG, "❌ Error al registrar movimientos", e);
+                    listener.onError(e.getMessage());
+                });
+    }
 
-        // Stock mínimo
-        Long stockMinimo = doc.getLong("stock_minimo");
-        producto.setStockMinimo(stockMinimo != null ? stockMinimo.intValue() : 0);
+    /**
+     * Stock efectivo de los productos distribuidos: el documento y sus shards
+     * se leen en una transacción por producto, así un pliegue concurrente no
+     * se cuenta dos veces ni se pierde (ver StockDistribuido.leerStock)
+     */
+    @Override
+    public void getStockDistribuido(Set<String> docIds, OnStockDistribuidoListener listener) {
+        stockDistribuido.leerStock(docIds)
+                .addOnSuccessListener(listener::onSuccess)
+                .addOnFailureListener(e -> {
+                    Registro.e(TAG, "❌ Error al leer stock distribuido", e);
+                    listener.onError(e.getMessage());
+                });
+    }
 
-        // Código de barras
-        producto.setCodigoBarras(doc.getString("codigo_barras"));
+    /**
+     * Plegar movimientos pendientes y shards en stock_actual (ver CompactadorMovimientos)
+     */
+    @Override
+    public void compactarMovimientos(OnSuccessListener listener) {
+        compactador.compactar(new OnSuccessListener() {
+            @Override
+            public void onSuccess() {
+                stockDistribuido.plegarTodos().addOnCompleteListener(t -> {
+                    if (!t.isSuccessful() && t.getException() != null) {
+                        Registro.e(TAG, "❌ Error al plegar stock distribuido", t.getException());
+                    }
+                    listener.onSuccess();
+                });
+            }
 
-        // IDs de categoría y proveedor
-        Long idCategoria = doc.getLong("id_categoria");
-        producto.setIdCategoria(idCategoria != null ? idCategoria.intValue() : 0);
+            @Override
+            public void onError(String error) {
+                listener.onError(error);
+            }
+        });
+    }
 
-        Long idProveedor = doc.getLong("id_proveedor");
-        producto.setIdProveedor(idProveedor != null ? idProveedor.intValue() : 0);
+    /**
+     * Activar o desactivar el contador distribuido de stock de un producto.
+     * Al desactivar, los shards se suman en stock_actual y se borran.
+     *
+     * @param shardsActuales stock_shards actual del producto (0 si no está activo)
+     */
+    @Override
+    public void setStockDistribuido(String documentId, boolean activar, int shardsActuales,
+                                    OnSuccessListener listener) {
+        Task<?> tarea = activar
+                ? stockDistribuido.activar(documentId, StockDistribuido.SHARDS_POR_DEFECTO)
+                : stockDistribuido.plegar(documentId, shardsActuales, true);
+
+        tarea.addOnSuccessListener(resultado -> {
+                    Registro.d(TAG, () -> "✓ Stock distribuido " + (activar ? "activado" : "desactivado") + ": " + documentId);
+                    listener.onSuccess();
+                })
+                .addOnFailureListener(e -> {
+                    Registro.e(TAG, "❌ Error al cambiar modo de stock", e);
+                    listener.onError(e.getMessage());
+                });
+    }
 
-        // Estado activo
-        Boolean activo = doc.getBoolean("activo");
-        producto.setActivo(activo != null ? activo : true);
+    /**
+     * Agregar un movimiento al lote. En modo normal solo se crea su
+     * documento en el libro: el producto no se escribe, así las ventas de
+     * varias terminales nunca compiten por el mismo documento. El movimiento
+     * queda en porPlegar para sumarlo a stock_actual después del lote.
+     * En modo distribuido el valor va a un shard y el libro solo guarda el
+     * historial (ya compactado).
+     */
+    private void agregarMovimiento(WriteBatch batch, Movimiento movimiento, int shards,
+                                   Map<String, List<DocumentReference>> porPlegar) {
+        boolean distribuido = shards > 0;
+        if (distribuido) {
+            stockDistribuido.incrementar(batch, movimiento.getDocIdProducto(), shards, movimiento.getCantidad());
+        }
 
-        // NUEVO: URL de imagen
-        producto.setImagenUrl(doc.getString("imagen_url"));
+        Map<String, Object> data = new HashMap<>();
+        data.put("producto_doc_id", movimiento.getDocIdProducto());
+        data.put("cantidad", movimiento.getCantidad());
+        data.put("tipo", movimiento.getTipo());
+        data.put("fecha", com.google.firebase.Timestamp.now());
+        data.put("compactado", distribuido);
+        DocumentReference ref = db.collection(COLLECTION_MOVIMIENTOS).document();
+        batch.set(ref, data);
+
+        if (!distribuido) {
+            List<DocumentReference> refs = porPlegar.get(movimiento.getDocIdProducto());
+            if (refs == null) {
+                refs = new ArrayList<>();
+                porPlegar.put(movimiento.getDocIdProducto(), refs);
+            }
+            refs.add(ref);
+        }
+    }
 
-        // Timestamps
-        com.google.firebase.Timestamp fechaRegistro = doc.getTimestamp("fecha_registro");
-        if (fechaRegistro != null) {
-            producto.setFechaRegistro(fechaRegistro.toDate().getTime());
+    /**
+     * Plegar en stock_actual los movimientos recién confirmados, fuera del
+     * lote de la venta: una transacción por producto, que puede reintentarse
+     * sin afectar lo ya registrado. Si falla, el movimiento sigue en el libro
+     * y lo pliega la próxima compactación; el registro no se informa como error.
+     */
+    private Task<Void> plegarRegistrados(Task<Void> commit, Map<String, List<DocumentReference>> porPlegar) {
+        if (!commit.isSuccessful()) {
+            return commit;
         }
+        return Tasks.whenAllComplete(compactador.plegar(porPlegar)).continueWith(pliegues -> {
+            for (Task<?> pliegue : pliegues.getResult()) {
+                if (!pliegue.isSuccessful() && pliegue.getException() != null) {
+                    Registro.e(TAG, "❌ Movimientos sin plegar, quedan para la compactación", pliegue.getException());
+                }
+            }
+            return null;
+        });
+    }
 
+    // ==================== CONVERSORES ====================
+
+    /**
+     * Instancia de la carga anterior si el documento no cambió desde entonces
+     * (misma ultima_actualizacion y mismo stock_actual: plegar movimientos
+     * cambia el stock sin tocar ultima_actualizacion); evita decodificar y
+     * mantiene válidas las filas y claves ya calculadas
+     */
+    private Producto productoSinCambios(QueryDocumentSnapshot doc) {
+        Producto previo = productosPrevios.get(doc.getId());
+        if (previo == null || previo.getIdProducto() == DecodificadorProducto.SIN_ID) {
+            // Sin ID puede haberse rellenado sin cambiar ultima_actualizacion
+            return null;
+        }
         com.google.firebase.Timestamp ultimaAct = doc.getTimestamp("ultima_actualizacion");
-        if (ultimaAct != null) {
-            producto.setUltimaActualizacion(ultimaAct.toDate().getTime());
+        if (ultimaAct == null || ultimaAct.toDate().getTime() != previo.getUltimaActualizacion()) {
+            return null;
+        }
+        Long stock = doc.getLong("stock_actual");
+        if ((stock != null ? stock : 0) != previo.getStockActual()) {
+            return null;
+        }
+        return previo;
+    }
+
+    /**
+     * QueryDocumentSnapshot como CamposDocumento; se reutiliza en toda la carga
+     */
+    private static final class CamposSnapshot implements CamposDocumento {
+
+        private QueryDocumentSnapshot doc;
+
+        // Estimación de lo leído: 2 bytes por carácter, 8 por número o fecha
+        long bytesLeidos;
+
+        CamposSnapshot apuntar(QueryDocumentSnapshot doc) {
+            this.doc = doc;
+            return this;
+        }
+
+        @Override
+        public String getId() {
+            return doc.getId();
+        }
+
+        @Override
+        public Object get(String campo) {
+            Object valor = doc.get(campo);
+            bytesLeidos += valor instanceof String ? ((String) valor).length() * 2L : 8;
+            return valor;
+        }
+
+        @Override
+        public String getString(String campo) {
+            String valor = doc.getString(campo);
+            if (valor != null) {
+                bytesLeidos += valor.length() * 2L;
+            }
+            return valor;
         }
 
-        return producto;
+        @Override
+        public Long getLong(String campo) {
+            bytesLeidos += 8;
+            return doc.getLong(campo);
+        }
+
+        @Override
+        public Boolean getBoolean(String campo) {
+            bytesLeidos += 1;
+            return doc.getBoolean(campo);
+        }
+
+        @Override
+        public long getFechaMillis(String campo) {
+            bytesLeidos += 8;
+            com.google.firebase.Timestamp fecha = doc.getTimestamp(campo);
+            return fecha != null ? fecha.toDate().getTime() : 0;
+        }
     }
 
     /**
@@ -370,12 +829,13 @@ public class FirestoreManager {
      */
     private Categoria documentToCategoria(QueryDocumentSnapshot doc) {
         Categoria categoria = new Categoria();
+        categoria.setDocId(doc.getId());
 
         Long idCategoria = doc.getLong("id_categoria");
-        categoria.setIdCategoria(idCategoria != null ? idCategoria.intValue() : doc.getId().hashCode());
+        categoria.setIdCategoria(idCategoria != null ? idCategoria.intValue() : DecodificadorProducto.SIN_ID);
 
         categoria.setNombreCategoria(doc.getString("nombre_categoria"));
-        categoria.setDescripcion(doc.getString("descripcion"));
+        categoria.setDescripcion(textos.internar(doc.getString("descripcion")));
 
         com.google.firebase.Timestamp fechaCreacion = doc.getTimestamp("fecha_creacion");
         if (fechaCreacion != null) {
@@ -390,16 +850,17 @@ public class FirestoreManager {
      */
     private Proveedor documentToProveedor(QueryDocumentSnapshot doc) {
         Proveedor proveedor = new Proveedor();
+        proveedor.setDocId(doc.getId());
 
         Long idProveedor = doc.getLong("id_proveedor");
-        proveedor.setIdProveedor(idProveedor != null ? idProveedor.intValue() : doc.getId().hashCode());
+        proveedor.setIdProveedor(idProveedor != null ? idProveedor.intValue() : DecodificadorProducto.SIN_ID);
 
         proveedor.setNombreProveedor(doc.getString("nombre_proveedor"));
         proveedor.setTelefono(doc.getString("telefono"));
         proveedor.setEmail(doc.getString("email"));
         proveedor.setDireccion(doc.getString("direccion"));
-        proveedor.setCiudad(doc.getString("ciudad"));
-        proveedor.setPais(doc.getString("pais"));
+        proveedor.setCiudad(textos.internar(doc.getString("ciudad")));
+        proveedor.setPais(textos.internar(doc.getString("pais")));
 
         com.google.firebase.Timestamp fechaRegistro = doc.getTimestamp("fecha_registro");
         if (fechaRegistro != null) {
@@ -408,11 +869,4 @@ public class FirestoreManager {
 
         return proveedor;
     }
-
-    // ==================== INTERFACES ====================
-
-    public interface OnSuccessListener {
-        void onSuccess();
-        void onError(String error);
-    }
 }
\ No newline at end of file
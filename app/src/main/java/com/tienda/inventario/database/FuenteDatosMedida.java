@@ -0,0 +1,231 @@
+package com.tienda.inventario.database;
+
+import com.google.android.gms.tasks.Task;
+import com.tienda.inventario.database.entities.CambiosProducto;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Movimiento;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.diagnostico.Metricas;
+import com.tienda.inventario.diagnostico.MetricasOperacion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Envuelve una fuente de datos y mide cada llamada: latencia hasta la
+ * respuesta, errores y documentos leídos o escritos (ver Metricas).
+ *
+ * FuentesDatos la pone delante de cualquier fuente, así Firestore, SQLite
+ * y memoria se comparan con las mismas métricas.
+ */
+final class FuenteDatosMedida implements InventoryDataSource {
+
+    private final InventoryDataSource fuente;
+    private final Metricas metricas = Metricas.getInstance();
+
+    FuenteDatosMedida(InventoryDataSource fuente) {
+        this.fuente = fuente;
+    }
+
+    // ==================== PRODUCTOS ====================
+
+    @Override
+    public void getProductos(OnProductosListener listener) {
+        MetricasOperacion op = operacion("getProductos");
+        long inicio = Metricas.ahora();
+        fuente.getProductos(new OnProductosListener() {
+            @Override
+            public void onSuccess(List<Producto> productos) {
+                op.exito(inicio, productos.size());
+                listener.onSuccess(productos);
+            }
+
+            @Override
+            public void onError(String error) {
+                op.error(inicio);
+                listener.onError(error);
+            }
+        });
+    }
+
+    @Override
+    public void agregarProducto(Producto producto, OnDocumentoListener listener) {
+        MetricasOperacion op = operacion("agregarProducto");
+        long inicio = Metricas.ahora();
+        fuente.agregarProducto(producto, new OnDocumentoListener() {
+            @Override
+            public void onSuccess(String docId) {
+                op.exito(inicio, 1);
+                listener.onSuccess(docId);
+            }
+
+            @Override
+            public void onError(String error) {
+                op.error(inicio);
+                listener.onError(error);
+            }
+        });
+    }
+
+    @Override
+    public Task<Void> escribirProductosNuevos(List<Producto> productos) {
+        long inicio = Metricas.ahora();
+        return medir("escribirProductosNuevos", productos.size(), inicio, fuente.escribirProductosNuevos(productos));
+    }
+
+    @Override
+    public Task<int[]> reservarIds(String entidad, int cantidad) {
+        long inicio = Metricas.ahora();
+        return medir("reservarIds", 0, inicio, fuente.reservarIds(entidad, cantidad));
+    }
+
+    @Override
+    public void registrarVerificadorIds(String entidad, AsignadorIds.VerificadorIds verificador) {
+        fuente.registrarVerificadorIds(entidad, verificador);
+    }
+
+    @Override
+    public void actualizarProducto(String documentId, CambiosProducto cambios, int stockShards,
+                                   List<Movimiento> movimientos, OnSuccessListener listener) {
+        fuente.actualizarProducto(documentId, cambios, stockShards, movimientos,
+                medir("actualizarProducto", 1 + movimientos.size(), listener));
+    }
+
+    @Override
+    public void actualizarImagenUrl(String documentId, String imagenUrl, OnSuccessListener listener) {
+        fuente.actualizarImagenUrl(documentId, imagenUrl, medir("actualizarImagenUrl", 1, listener));
+    }
+
+    @Override
+    public void eliminarProducto(String documentId, OnSuccessListener listener) {
+        fuente.eliminarProducto(documentId, medir("eliminarProducto", 1, listener));
+    }
+
+    // ==================== CATEGORÍAS Y PROVEEDORES ====================
+
+    @Override
+    public void getCategorias(OnCategoriasListener listener) {
+        MetricasOperacion op = operacion("getCategorias");
+        long inicio = Metricas.ahora();
+        fuente.getCategorias(new OnCategoriasListener() {
+            @Override
+            public void onSuccess(List<Categoria> categorias) {
+                op.exito(inicio, categorias.size());
+                listener.onSuccess(categorias);
+            }
+
+            @Override
+            public void onError(String error) {
+                op.error(inicio);
+                listener.onError(error);
+            }
+        });
+    }
+
+    @Override
+    public void agregarCategoria(Categoria categoria, OnSuccessListener listener) {
+        fuente.agregarCategoria(categoria, medir("agregarCategoria", 1, listener));
+    }
+
+    @Override
+    public void getProveedores(OnProveedoresListener listener) {
+        MetricasOperacion op = operacion("getProveedores");
+        long inicio = Metricas.ahora();
+        fuente.getProveedores(new OnProveedoresListener() {
+            @Override
+            public void onSuccess(List<Proveedor> proveedores) {
+                op.exito(inicio, proveedores.size());
+                listener.onSuccess(proveedores);
+            }
+
+            @Override
+            public void onError(String error) {
+                op.error(inicio);
+                listener.onError(error);
+            }
+        });
+    }
+
+    @Override
+    public void agregarProveedor(Proveedor proveedor, OnSuccessListener listener) {
+        fuente.agregarProveedor(proveedor, medir("agregarProveedor", 1, listener));
+    }
+
+    // ==================== MOVIMIENTOS ====================
+
+    @Override
+    public void registrarMovimientos(List<Movimiento> movimientos, Map<String, Integer> shardsPorProducto,
+                                     OnSuccessListener listener) {
+        fuente.registrarMovimientos(movimientos, shardsPorProducto,
+                medir("registrarMovimientos", movimientos.size(), listener));
+    }
+
+    @Override
+    public void getStockDistribuido(Set<String> docIds, OnStockDistribuidoListener listener) {
+        MetricasOperacion op = operacion("getStockDistribuido");
+        long inicio = Metricas.ahora();
+        fuente.getStockDistribuido(docIds, new OnStockDistribuidoListener() {
+            @Override
+            public void onSuccess(Map<String, Integer> stock) {
+                op.exito(inicio, stock.size());
+                listener.onSuccess(stock);
+            }
+
+            @Override
+            public void onError(String error) {
+                op.error(inicio);
+                listener.onError(error);
+            }
+        });
+    }
+
+    @Override
+    public void compactarMovimientos(OnSuccessListener listener) {
+        fuente.compactarMovimientos(medir("compactarMovimientos", 0, listener));
+    }
+
+    @Override
+    public void setStockDistribuido(String documentId, boolean activar, int shardsActuales,
+                                    OnSuccessListener listener) {
+        fuente.setStockDistribuido(documentId, activar, shardsActuales,
+                medir("setStockDistribuido", 1, listener));
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private MetricasOperacion operacion(String metodo) {
+        return metricas.operacion(Metricas.PREFIJO_FUENTE + metodo);
+    }
+
+    private OnSuccessListener medir(String metodo, int documentos, OnSuccessListener listener) {
+        MetricasOperacion op = operacion(metodo);
+        long inicio = Metricas.ahora();
+        return new OnSuccessListener() {
+            @Override
+            public void onSuccess() {
+                op.exito(inicio, documentos);
+                listener.onSuccess();
+            }
+
+            @Override
+            public void onError(String error) {
+                op.error(inicio);
+                listener.onError(error);
+            }
+        };
+    }
+
+    private <T> Task<T> medir(String metodo, int documentos, long inicio, Task<T> tarea) {
+        MetricasOperacion op = operacion(metodo);
+        tarea.addOnCompleteListener(t -> {
+            if (t.isSuccessful()) {
+                op.exito(inicio, documentos);
+            } else {
+                op.error(inicio);
+            }
+        });
+        return tarea;
+    }
+}
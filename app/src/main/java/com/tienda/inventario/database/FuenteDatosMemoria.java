@@ -0,0 +1,282 @@
+package com.tienda.inventario.database;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.tienda.inventario.database.entities.CambiosProducto;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Movimiento;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Inventario en memoria, sin red ni disco: resultados deterministas para
+ * pruebas de rendimiento de la UI y del repositorio.
+ *
+ * - Los productos se guardan como documentos con los mismos campos que
+ *   Firestore y se decodifican con DecodificadorProducto en cada lectura,
+ *   igual que en FirestoreManager.
+ * - Los movimientos se aplican directo a stock_actual: no hay libro
+ *   pendiente ni shards que compactar.
+ * - Las respuestas se entregan en un post() al hilo principal, como las
+ *   de Firestore, nunca dentro de la llamada.
+ */
+public final class FuenteDatosMemoria implements InventoryDataSource {
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final DecodificadorProducto decodificador = new DecodificadorProducto();
+
+    // docId -> campos del documento
+    private final Map<String, Map<String, Object>> productos = new HashMap<>();
+    private final Map<String, Categoria> categorias = new HashMap<>();
+    private final Map<String, Proveedor> proveedores = new HashMap<>();
+
+    // Entidad -> siguiente ID numérico libre
+    private final Map<String, Integer> siguienteId = new HashMap<>();
+
+    // ==================== PRODUCTOS ====================
+
+    @Override
+    public void getProductos(OnProductosListener listener) {
+        List<Producto> lista = new ArrayList<>();
+        synchronized (this) {
+            CamposMapa campos = new CamposMapa(null, null);
+            for (Map.Entry<String, Map<String, Object>> entrada : productos.entrySet()) {
+                if (Boolean.TRUE.equals(entrada.getValue().get("activo"))) {
+                    lista.add(decodificador.decodificar(campos.apuntar(entrada.getKey(), entrada.getValue())));
+                }
+            }
+        }
+        Collections.sort(lista, Comparator.comparing(Producto::getNombreProducto,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        mainHandler.post(() -> listener.onSuccess(lista));
+    }
+
+    @Override
+    public void agregarProducto(Producto producto, OnDocumentoListener listener) {
+        String docId = UUID.randomUUID().toString();
+        int id;
+        synchronized (this) {
+            id = reservar(FirestoreManager.COLLECTION_PRODUCTOS, 1);
+            productos.put(docId, documento(producto, docId, id));
+        }
+        mainHandler.post(() -> {
+            producto.setDocId(docId);
+            producto.setIdProducto(id);
+            listener.onSuccess(docId);
+        });
+    }
+
+    @Override
+    public synchronized Task<Void> escribirProductosNuevos(List<Producto> lista) {
+        for (Producto producto : lista) {
+            productos.put(producto.getDocId(), documento(producto, producto.getDocId(), producto.getIdProducto()));
+        }
+        return Tasks.forResult(null);
+    }
+
+    @Override
+    public synchronized Task<int[]> reservarIds(String entidad, int cantidad) {
+        int inicio = reservar(entidad, cantidad);
+        int[] ids = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            ids[i] = inicio + i;
+        }
+        return Tasks.forResult(ids);
+    }
+
+    /**
+     * Los IDs se asignan en orden y nunca se repiten: no hace falta verificarlos
+     */
+    @Override
+    public void registrarVerificadorIds(String entidad, AsignadorIds.VerificadorIds verificador) {
+    }
+
+    @Override
+    public void actualizarProducto(String documentId, CambiosProducto cambios, int stockShards,
+                                   List<Movimiento> movimientos, OnSuccessListener listener) {
+        String error = null;
+        synchronized (this) {
+            Map<String, Object> documento = productos.get(documentId);
+            if (documento == null) {
+                error = "Producto no encontrado: " + documentId;
+            } else {
+                documento.putAll(cambios.getCampos());
+                documento.put("ultima_actualizacion", System.currentTimeMillis());
+                for (Movimiento movimiento : movimientos) {
+                    aplicar(movimiento);
+                }
+            }
+        }
+        responder(listener, error);
+    }
+
+    @Override
+    public void actualizarImagenUrl(String documentId, String imagenUrl, OnSuccessListener listener) {
+        Map<String, Object> cambios = new HashMap<>();
+        cambios.put("imagen_url", imagenUrl);
+        responder(listener, actualizarCampos(documentId, cambios));
+    }
+
+    @Override
+    public void eliminarProducto(String documentId, OnSuccessListener listener) {
+        Map<String, Object> cambios = new HashMap<>();
+        cambios.put("activo", false);
+        responder(listener, actualizarCampos(documentId, cambios));
+    }
+
+    private synchronized String actualizarCampos(String documentId, Map<String, Object> cambios) {
+        Map<String, Object> documento = productos.get(documentId);
+        if (documento == null) {
+            return "Producto no encontrado: " + documentId;
+        }
+        documento.putAll(cambios);
+        documento.put("ultima_actualizacion", System.currentTimeMillis());
+        return null;
+    }
+
+    // ==================== CATEGORÍAS Y PROVEEDORES ====================
+
+    @Override
+    public void getCategorias(OnCategoriasListener listener) {
+        List<Categoria> lista;
+        synchronized (this) {
+            lista = new ArrayList<>(categorias.values());
+        }
+        Collections.sort(lista, Comparator.comparing(Categoria::getNombreCategoria,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        mainHandler.post(() -> listener.onSuccess(lista));
+    }
+
+    @Override
+    public void agregarCategoria(Categoria categoria, OnSuccessListener listener) {
+        synchronized (this) {
+            categoria.setDocId(UUID.randomUUID().toString());
+            categoria.setIdCategoria(reservar(FirestoreManager.COLLECTION_CATEGORIAS, 1));
+            categoria.setFechaCreacion(System.currentTimeMillis());
+            categorias.put(categoria.getDocId(), categoria);
+        }
+        responder(listener, null);
+    }
+
+    @Override
+    public void getProveedores(OnProveedoresListener listener) {
+        List<Proveedor> lista;
+        synchronized (this) {
+            lista = new ArrayList<>(proveedores.values());
+        }
+        Collections.sort(lista, Comparator.comparing(Proveedor::getNombreProveedor,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        mainHandler.post(() -> listener.onSuccess(lista));
+    }
+
+    @Override
+    public void agregarProveedor(Proveedor proveedor, OnSuccessListener listener) {
+        synchronized (this) {
+            proveedor.setDocId(UUID.randomUUID().toString());
+            proveedor.setIdProveedor(reservar(FirestoreManager.COLLECTION_PROVEEDORES, 1));
+            proveedor.setFechaRegistro(System.currentTimeMillis());
+            proveedores.put(proveedor.getDocId(), proveedor);
+        }
+        responder(listener, null);
+    }
+
+    // ==================== MOVIMIENTOS ====================
+
+    @Override
+    public void registrarMovimientos(List<Movimiento> movimientos, Map<String, Integer> shardsPorProducto,
+                                     OnSuccessListener listener) {
+        synchronized (this) {
+            for (Movimiento movimiento : movimientos) {
+                aplicar(movimiento);
+            }
+        }
+        responder(listener, null);
+    }
+
+    @Override
+    public void getStockDistribuido(Set<String> docIds, OnStockDistribuidoListener listener) {
+        mainHandler.post(() -> listener.onSuccess(new HashMap<>()));
+    }
+
+    @Override
+    public void compactarMovimientos(OnSuccessListener listener) {
+        responder(listener, null);
+    }
+
+    /**
+     * Solo se guarda la marca: el stock se actualiza igual en un único valor
+     */
+    @Override
+    public void setStockDistribuido(String documentId, boolean activar, int shardsActuales,
+                                    OnSuccessListener listener) {
+        Map<String, Object> cambios = new HashMap<>();
+        cambios.put("stock_shards", (long) (activar ? FirestoreManager.SHARDS_STOCK_DISTRIBUIDO : 0));
+        responder(listener, actualizarCampos(documentId, cambios));
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private void aplicar(Movimiento movimiento) {
+        Map<String, Object> documento = productos.get(movimiento.getDocIdProducto());
+        if (documento == null) {
+            return;
+        }
+        Object stock = documento.get("stock_actual");
+        long actual = stock instanceof Number ? ((Number) stock).longValue() : 0;
+        documento.put("stock_actual", actual + movimiento.getCantidad());
+        documento.put("ultima_actualizacion", System.currentTimeMillis());
+    }
+
+    /**
+     * @return el primero de `cantidad` IDs consecutivos
+     */
+    private int reservar(String entidad, int cantidad) {
+        Integer siguiente = siguienteId.get(entidad);
+        int inicio = siguiente != null ? siguiente : 1;
+        siguienteId.put(entidad, inicio + cantidad);
+        return inicio;
+    }
+
+    private void responder(OnSuccessListener listener, String error) {
+        mainHandler.post(() -> {
+            if (error == null) {
+                listener.onSuccess();
+            } else {
+                listener.onError(error);
+            }
+        });
+    }
+
+    private static Map<String, Object> documento(Producto producto, String docId, int id) {
+        long ahora = System.currentTimeMillis();
+        Map<String, Object> data = new HashMap<>();
+        data.put("id_producto", (long) id);
+        data.put("nombre_producto", producto.getNombreProducto());
+        data.put("descripcion", producto.getDescripcion() != null ? producto.getDescripcion() : "");
+        data.put("precio_unitario", producto.getPrecioUnitario());
+        data.put("stock_actual", (long) producto.getStockActual());
+        data.put("stock_minimo", (long) producto.getStockMinimo());
+        data.put("codigo_barras", producto.getCodigoBarras() != null ? producto.getCodigoBarras() : "");
+        data.put("id_categoria", (long) producto.getIdCategoria());
+        data.put("id_proveedor", (long) producto.getIdProveedor());
+        data.put("stock_shards", (long) producto.getStockShards());
+        data.put("activo", true);
+        data.put("imagen_url", producto.getImagenUrl() != null ? producto.getImagenUrl() : "");
+        data.put("fecha_registro", ahora);
+        data.put("ultima_actualizacion", ahora);
+        data.put("firestore_id", docId);
+        return data;
+    }
+}
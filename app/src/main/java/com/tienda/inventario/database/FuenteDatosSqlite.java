@@ -0,0 +1,533 @@
+package com.tienda.inventario.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.tienda.inventario.database.entities.CambiosProducto;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Movimiento;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.diagnostico.Registro;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Inventario en una base SQLite del dispositivo: modo autónomo para tiendas
+ * sin conexión (no sincroniza con Firestore ni con la app de escritorio).
+ *
+ * - Tablas y columnas con los nombres de los campos de Firestore; los
+ *   productos se leen con DecodificadorProducto, igual que en FirestoreManager.
+ * - Toda la E/S corre en un único hilo de fondo; los listeners responden
+ *   en el hilo principal.
+ * - Los movimientos se suman a stock_actual en la misma transacción que
+ *   los guarda en el historial: no hay libro pendiente ni shards.
+ */
+public final class FuenteDatosSqlite implements InventoryDataSource {
+
+    private static final String TAG = "FuenteDatosSqlite";
+
+    private static final String NOMBRE_BASE = "inventario_local.db";
+    private static final int VERSION_BASE = 1;
+
+    private final BaseDatos base;
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final DecodificadorProducto decodificador = new DecodificadorProducto();
+
+    // Entidad -> siguiente ID numérico libre (solo en el hilo de la base)
+    private final Map<String, Integer> siguienteId = new HashMap<>();
+
+    public FuenteDatosSqlite(Context context) {
+        this.base = new BaseDatos(context.getApplicationContext());
+    }
+
+    // ==================== PRODUCTOS ====================
+
+    @Override
+    public void getProductos(OnProductosListener listener) {
+        leer(() -> {
+            List<Producto> productos = new ArrayList<>();
+            try (Cursor cursor = base.getReadableDatabase().query(FirestoreManager.COLLECTION_PRODUCTOS,
+                    null, "activo = 1", null, null, null, "nombre_producto")) {
+                CamposCursor campos = new CamposCursor(cursor);
+                while (cursor.moveToNext()) {
+                    productos.add(decodificador.decodificar(campos));
+                }
+            }
+            Registro.d(TAG, () -> "✓ Productos cargados: " + productos.size());
+            return productos;
+        }, listener::onSuccess, listener::onError);
+    }
+
+    @Override
+    public void agregarProducto(Producto producto, OnDocumentoListener listener) {
+        String docId = UUID.randomUUID().toString();
+        leer(() -> {
+            int id = reservar(FirestoreManager.COLLECTION_PRODUCTOS, 1);
+            base.getWritableDatabase().insertOrThrow(FirestoreManager.COLLECTION_PRODUCTOS, null,
+                    fila(producto, docId, id));
+            return id;
+        }, id -> {
+            producto.setDocId(docId);
+            producto.setIdProducto(id);
+            listener.onSuccess(docId);
+        }, listener::onError);
+    }
+
+    @Override
+    public Task<Void> escribirProductosNuevos(List<Producto> productos) {
+        return Tasks.call(ejecutor, () -> {
+            SQLiteDatabase db = base.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (Producto producto : productos) {
+                    db.insertWithOnConflict(FirestoreManager.COLLECTION_PRODUCTOS, null,
+                            fila(producto, producto.getDocId(), producto.getIdProducto()),
+                            SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Task<int[]> reservarIds(String entidad, int cantidad) {
+        return Tasks.call(ejecutor, () -> {
+            int inicio = reservar(entidad, cantidad);
+            int[] ids = new int[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                ids[i] = inicio + i;
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Los IDs siguen al mayor de la tabla y nunca se repiten: no hace falta verificarlos
+     */
+    @Override
+    public void registrarVerificadorIds(String entidad, AsignadorIds.VerificadorIds verificador) {
+    }
+
+    @Override
+    public void actualizarProducto(String documentId, CambiosProducto cambios, int stockShards,
+                                   List<Movimiento> movimientos, OnSuccessListener listener) {
+        if (cambios.estaVacio() && movimientos.isEmpty()) {
+            listener.onSuccess();
+            return;
+        }
+        escribir(db -> {
+            ContentValues valores = new ContentValues();
+            for (Map.Entry<String, Object> campo : cambios.getCampos().entrySet()) {
+                poner(valores, campo.getKey(), campo.getValue());
+            }
+            actualizarFila(db, documentId, valores);
+            for (Movimiento movimiento : movimientos) {
+                aplicar(db, movimiento);
+            }
+        }, listener);
+    }
+
+    @Override
+    public void actualizarImagenUrl(String documentId, String imagenUrl, OnSuccessListener listener) {
+        escribir(db -> {
+            ContentValues valores = new ContentValues();
+            valores.put("imagen_url", imagenUrl);
+            actualizarFila(db, documentId, valores);
+        }, listener);
+    }
+
+    @Override
+    public void eliminarProducto(String documentId, OnSuccessListener listener) {
+        escribir(db -> {
+            ContentValues valores = new ContentValues();
+            valores.put("activo", 0);
+            actualizarFila(db, documentId, valores);
+        }, listener);
+    }
+
+    // ==================== CATEGORÍAS Y PROVEEDORES ====================
+
+    @Override
+    public void getCategorias(OnCategoriasListener listener) {
+        leer(() -> {
+            List<Categoria> categorias = new ArrayList<>();
+            try (Cursor cursor = base.getReadableDatabase().query(FirestoreManager.COLLECTION_CATEGORIAS,
+                    null, null, null, null, null, "nombre_categoria")) {
+                while (cursor.moveToNext()) {
+                    Categoria categoria = new Categoria();
+                    categoria.setDocId(texto(cursor, "firestore_id"));
+                    categoria.setIdCategoria(cursor.getInt(cursor.getColumnIndexOrThrow("id_categoria")));
+                    categoria.setNombreCategoria(texto(cursor, "nombre_categoria"));
+                    categoria.setDescripcion(texto(cursor, "descripcion"));
+                    categoria.setFechaCreacion(cursor.getLong(cursor.getColumnIndexOrThrow("fecha_creacion")));
+                    categorias.add(categoria);
+                }
+            }
+            return categorias;
+        }, listener::onSuccess, listener::onError);
+    }
+
+    @Override
+    public void agregarCategoria(Categoria categoria, OnSuccessListener listener) {
+        String docId = UUID.randomUUID().toString();
+        escribir(db -> {
+            ContentValues valores = new ContentValues();
+            valores.put("firestore_id", docId);
+            valores.put("id_categoria", reservar(FirestoreManager.COLLECTION_CATEGORIAS, 1));
+            valores.put("nombre_categoria", categoria.getNombreCategoria());
+            valores.put("descripcion", categoria.getDescripcion() != null ? categoria.getDescripcion() : "");
+            valores.put("fecha_creacion", System.currentTimeMillis());
+            db.insertOrThrow(FirestoreManager.COLLECTION_CATEGORIAS, null, valores);
+        }, listener);
+    }
+
+    @Override
+    public void getProveedores(OnProveedoresListener listener) {
+        leer(() -> {
+            List<Proveedor> proveedores = new ArrayList<>();
+            try (Cursor cursor = base.getReadableDatabase().query(FirestoreManager.COLLECTION_PROVEEDORES,
+                    null, null, null, null, null, "nombre_proveedor")) {
+                while (cursor.moveToNext()) {
+                    Proveedor proveedor = new Proveedor();
+                    proveedor.setDocId(texto(cursor, "firestore_id"));
+                    proveedor.setIdProveedor(cursor.getInt(cursor.getColumnIndexOrThrow("id_proveedor")));
+                    proveedor.setNombreProveedor(texto(cursor, "nombre_proveedor"));
+                    proveedor.setTelefono(texto(cursor, "telefono"));
+                    proveedor.setEmail(texto(cursor, "email"));
+                    proveedor.setDireccion(texto(cursor, "direccion"));
+                    proveedor.setCiudad(texto(cursor, "ciudad"));
+                    proveedor.setPais(texto(cursor, "pais"));
+                    proveedor.setFechaRegistro(cursor.getLong(cursor.getColumnIndexOrThrow("fecha_registro")));
+                    proveedores.add(proveedor);
+                }
+            }
+            return proveedores;
+        }, listener::onSuccess, listener::onError);
+    }
+
+    @Override
+    public void agregarProveedor(Proveedor proveedor, OnSuccessListener listener) {
+        String docId = UUID.randomUUID().toString();
+        escribir(db -> {
+            ContentValues valores = new ContentValues();
+            valores.put("firestore_id", docId);
+            valores.put("id_proveedor", reservar(FirestoreManager.COLLECTION_PROVEEDORES, 1));
+            valores.put("nombre_proveedor", proveedor.getNombreProveedor());
+            valores.put("telefono", proveedor.getTelefono() != null ? proveedor.getTelefono() : "");
+            valores.put("email", proveedor.getEmail() != null ? proveedor.getEmail() : "");
+            valores.put("direccion", proveedor.getDireccion() != null ? proveedor.getDireccion() : "");
+            valores.put("ciudad", proveedor.getCiudad() != null ? proveedor.getCiudad() : "");
+            valores.put("pais", proveedor.getPais() != null ? proveedor.getPais() : "");
+            valores.put("fecha_registro", System.currentTimeMillis());
+            db.insertOrThrow(FirestoreManager.COLLECTION_PROVEEDORES, null, valores);
+        }, listener);
+    }
+
+    // ==================== MOVIMIENTOS ====================
+
+    @Override
+    public void registrarMovimientos(List<Movimiento> movimientos, Map<String, Integer> shardsPorProducto,
+                                     OnSuccessListener listener) {
+        if (movimientos.isEmpty()) {
+            listener.onSuccess();
+            return;
+        }
+        escribir(db -> {
+            for (Movimiento movimiento : movimientos) {
+                aplicar(db, movimiento);
+            }
+        }, listener);
+    }
+
+    @Override
+    public void getStockDistribuido(Set<String> docIds, OnStockDistribuidoListener listener) {
+        mainHandler.post(() -> listener.onSuccess(new HashMap<>()));
+    }
+
+    @Override
+    public void compactarMovimientos(OnSuccessListener listener) {
+        mainHandler.post(listener::onSuccess);
+    }
+
+    /**
+     * Solo se guarda la marca: el stock se actualiza igual en una única fila
+     */
+    @Override
+    public void setStockDistribuido(String documentId, boolean activar, int shardsActuales,
+                                    OnSuccessListener listener) {
+        escribir(db -> {
+            ContentValues valores = new ContentValues();
+            valores.put("stock_shards", activar ? FirestoreManager.SHARDS_STOCK_DISTRIBUIDO : 0);
+            actualizarFila(db, documentId, valores);
+        }, listener);
+    }
+
+    // ==================== EJECUCIÓN ====================
+
+    private interface Consulta<T> {
+        T ejecutar() throws Exception;
+    }
+
+    private interface Escritura {
+        void ejecutar(SQLiteDatabase db) throws Exception;
+    }
+
+    private interface Resultado<T> {
+        void entregar(T valor);
+    }
+
+    private interface Fallo {
+        void entregar(String mensaje);
+    }
+
+    private <T> void leer(Consulta<T> consulta, Resultado<T> resultado, Fallo fallo) {
+        ejecutor.execute(() -> {
+            try {
+                T valor = consulta.ejecutar();
+                mainHandler.post(() -> resultado.entregar(valor));
+            } catch (Exception e) {
+                Registro.e(TAG, "❌ Error en la base local", e);
+                mainHandler.post(() -> fallo.entregar(e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Ejecutar la escritura en una transacción
+     */
+    private void escribir(Escritura escritura, OnSuccessListener listener) {
+        leer(() -> {
+            SQLiteDatabase db = base.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                escritura.ejecutar(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            return Boolean.TRUE;
+        }, valor -> listener.onSuccess(), listener::onError);
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private static void actualizarFila(SQLiteDatabase db, String documentId, ContentValues valores) {
+        valores.put("ultima_actualizacion", System.currentTimeMillis());
+        int filas = db.update(FirestoreManager.COLLECTION_PRODUCTOS, valores, "firestore_id = ?",
+                new String[]{documentId});
+        if (filas == 0) {
+            throw new IllegalArgumentException("Producto no encontrado: " + documentId);
+        }
+    }
+
+    private static void aplicar(SQLiteDatabase db, Movimiento movimiento) {
+        db.execSQL("UPDATE " + FirestoreManager.COLLECTION_PRODUCTOS
+                        + " SET stock_actual = stock_actual + ?, ultima_actualizacion = ? WHERE firestore_id = ?",
+                new Object[]{movimiento.getCantidad(), System.currentTimeMillis(), movimiento.getDocIdProducto()});
+
+        ContentValues valores = new ContentValues();
+        valores.put("producto_doc_id", movimiento.getDocIdProducto());
+        valores.put("cantidad", movimiento.getCantidad());
+        valores.put("tipo", movimiento.getTipo());
+        valores.put("fecha", System.currentTimeMillis());
+        db.insertOrThrow(FirestoreManager.COLLECTION_MOVIMIENTOS, null, valores);
+    }
+
+    /**
+     * @return el primero de `cantidad` IDs consecutivos; solo en el hilo de la base
+     */
+    private int reservar(String entidad, int cantidad) {
+        Integer siguiente = siguienteId.get(entidad);
+        if (siguiente == null) {
+            String columna = FirestoreManager.COLLECTION_PRODUCTOS.equals(entidad) ? "id_producto"
+                    : FirestoreManager.COLLECTION_CATEGORIAS.equals(entidad) ? "id_categoria"
+                    : "id_proveedor";
+            try (Cursor cursor = base.getReadableDatabase().rawQuery(
+                    "SELECT MAX(" + columna + ") FROM " + entidad, null)) {
+                siguiente = cursor.moveToFirst() ? cursor.getInt(0) + 1 : 1;
+            }
+        }
+        siguienteId.put(entidad, siguiente + cantidad);
+        return siguiente;
+    }
+
+    private static ContentValues fila(Producto producto, String docId, int id) {
+        long ahora = System.currentTimeMillis();
+        ContentValues valores = new ContentValues();
+        valores.put("firestore_id", docId);
+        valores.put("id_producto", id);
+        valores.put("nombre_producto", producto.getNombreProducto());
+        valores.put("descripcion", producto.getDescripcion() != null ? producto.getDescripcion() : "");
+        valores.put("precio_unitario", producto.getPrecioUnitario());
+        valores.put("stock_actual", producto.getStockActual());
+        valores.put("stock_minimo", producto.getStockMinimo());
+        valores.put("codigo_barras", producto.getCodigoBarras() != null ? producto.getCodigoBarras() : "");
+        valores.put("id_categoria", producto.getIdCategoria());
+        valores.put("id_proveedor", producto.getIdProveedor());
+        valores.put("stock_shards", producto.getStockShards());
+        valores.put("activo", 1);
+        valores.put("imagen_url", producto.getImagenUrl() != null ? producto.getImagenUrl() : "");
+        valores.put("fecha_registro", ahora);
+        valores.put("ultima_actualizacion", ahora);
+        return valores;
+    }
+
+    /**
+     * Valor de CambiosProducto -> columna (los campos son texto, enteros o precio)
+     */
+    private static void poner(ContentValues valores, String columna, Object valor) {
+        if (valor instanceof Double) {
+            valores.put(columna, (Double) valor);
+        } else if (valor instanceof Number) {
+            valores.put(columna, ((Number) valor).longValue());
+        } else {
+            valores.put(columna, valor != null ? valor.toString() : null);
+        }
+    }
+
+    private static String texto(Cursor cursor, String columna) {
+        return cursor.getString(cursor.getColumnIndexOrThrow(columna));
+    }
+
+    /**
+     * Fila actual del cursor como CamposDocumento; los índices de columna se
+     * buscan una vez por consulta
+     */
+    private static final class CamposCursor implements CamposDocumento {
+
+        private final Cursor cursor;
+        private final Map<String, Integer> columnas = new HashMap<>();
+
+        CamposCursor(Cursor cursor) {
+            this.cursor = cursor;
+            String[] nombres = cursor.getColumnNames();
+            for (int i = 0; i < nombres.length; i++) {
+                columnas.put(nombres[i], i);
+            }
+        }
+
+        private int indice(String campo) {
+            Integer indice = columnas.get(campo);
+            return indice != null && !cursor.isNull(indice) ? indice : -1;
+        }
+
+        @Override
+        public String getId() {
+            return cursor.getString(columnas.get("firestore_id"));
+        }
+
+        @Override
+        public Object get(String campo) {
+            int i = indice(campo);
+            if (i < 0) {
+                return null;
+            }
+            return cursor.getType(i) == Cursor.FIELD_TYPE_FLOAT ? (Object) cursor.getDouble(i) : (Object) cursor.getLong(i);
+        }
+
+        @Override
+        public String getString(String campo) {
+            int i = indice(campo);
+            return i >= 0 ? cursor.getString(i) : null;
+        }
+
+        @Override
+        public Long getLong(String campo) {
+            int i = indice(campo);
+            return i >= 0 ? cursor.getLong(i) : null;
+        }
+
+        @Override
+        public Boolean getBoolean(String campo) {
+            int i = indice(campo);
+            return i >= 0 ? cursor.getInt(i) != 0 : null;
+        }
+
+        @Override
+        public long getFechaMillis(String campo) {
+            int i = indice(campo);
+            return i >= 0 ? cursor.getLong(i) : 0;
+        }
+    }
+
+    /**
+     * Esquema local: mismas colecciones y campos que Firestore
+     */
+    private static final class BaseDatos extends SQLiteOpenHelper {
+
+        BaseDatos(Context context) {
+            super(context, NOMBRE_BASE, null, VERSION_BASE);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE productos ("
+                    + "firestore_id TEXT PRIMARY KEY, "
+                    + "id_producto INTEGER NOT NULL, "
+                    + "nombre_producto TEXT, "
+                    + "descripcion TEXT, "
+                    + "precio_unitario REAL NOT NULL DEFAULT 0, "
+                    + "stock_actual INTEGER NOT NULL DEFAULT 0, "
+                    + "stock_minimo INTEGER NOT NULL DEFAULT 0, "
+                    + "codigo_barras TEXT, "
+                    + "id_categoria INTEGER NOT NULL DEFAULT 0, "
+                    + "id_proveedor INTEGER NOT NULL DEFAULT 0, "
+                    + "stock_shards INTEGER NOT NULL DEFAULT 0, "
+                    + "activo INTEGER NOT NULL DEFAULT 1, "
+                    + "imagen_url TEXT, "
+                    + "fecha_registro INTEGER NOT NULL DEFAULT 0, "
+                    + "ultima_actualizacion INTEGER NOT NULL DEFAULT 0)");
+            // getProductos(): activos ordenados por nombre, sin ordenar en memoria
+            db.execSQL("CREATE INDEX productos_activos ON productos (activo, nombre_producto)");
+
+            db.execSQL("CREATE TABLE categorias ("
+                    + "firestore_id TEXT PRIMARY KEY, "
+                    + "id_categoria INTEGER NOT NULL, "
+                    + "nombre_categoria TEXT, "
+                    + "descripcion TEXT, "
+                    + "fecha_creacion INTEGER NOT NULL DEFAULT 0)");
+
+            db.execSQL("CREATE TABLE proveedores ("
+                    + "firestore_id TEXT PRIMARY KEY, "
+                    + "id_proveedor INTEGER NOT NULL, "
+                    + "nombre_proveedor TEXT, "
+                    + "telefono TEXT, "
+                    + "email TEXT, "
+                    + "direccion TEXT, "
+                    + "ciudad TEXT, "
+                    + "pais TEXT, "
+                    + "fecha_registro INTEGER NOT NULL DEFAULT 0)");
+
+            // Historial; el stock ya se sumó en productos.stock_actual
+            db.execSQL("CREATE TABLE movimientos ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + "producto_doc_id TEXT NOT NULL, "
+                    + "cantidad INTEGER NOT NULL, "
+                    + "tipo TEXT, "
+                    + "fecha INTEGER NOT NULL)");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int versionAnterior, int versionNueva) {
+        }
+    }
+}
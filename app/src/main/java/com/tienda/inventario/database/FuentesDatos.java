@@ -0,0 +1,56 @@
+package com.tienda.inventario.database;
+
+import android.content.Context;
+
+import com.tienda.inventario.BuildConfig;
+import com.tienda.inventario.diagnostico.Registro;
+
+/**
+ * Elige la fuente de datos de la app según BuildConfig.FUENTE_DATOS
+ * (se compila con -PfuenteDatos=firestore|sqlite|memoria).
+ * Cualquiera de ellas se entrega medida (ver FuenteDatosMedida).
+ */
+public final class FuentesDatos {
+
+    private static final String TAG = "FuentesDatos";
+
+    public static final String FIRESTORE = "firestore";
+    public static final String SQLITE = "sqlite";
+    public static final String MEMORIA = "memoria";
+
+    private static Context contexto;
+    private static InventoryDataSource instance;
+
+    private FuentesDatos() {
+    }
+
+    /**
+     * Llamar desde Application.onCreate(), antes del primer getInstance()
+     */
+    public static synchronized void inicializar(Context context) {
+        contexto = context.getApplicationContext();
+    }
+
+    public static synchronized InventoryDataSource getInstance() {
+        if (instance == null) {
+            InventoryDataSource fuente;
+            switch (BuildConfig.FUENTE_DATOS) {
+                case SQLITE:
+                    if (contexto == null) {
+                        throw new IllegalStateException("FuentesDatos.inicializar() no fue llamado");
+                    }
+                    fuente = new FuenteDatosSqlite(contexto);
+                    break;
+                case MEMORIA:
+                    fuente = new FuenteDatosMemoria();
+                    break;
+                default:
+                    fuente = FirestoreManager.getInstance();
+                    break;
+            }
+            instance = new FuenteDatosMedida(fuente);
+            Registro.d(TAG, () -> "✓ Fuente de datos: " + BuildConfig.FUENTE_DATOS);
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,265 @@
+package com.tienda.inventario.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+import com.tienda.inventario.BuildConfig;
+import com.tienda.inventario.diagnostico.Registro;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Subida de imágenes de productos a Firebase Storage en segundo plano.
+ *
+ * El producto se guarda primero con la ruta local (file://) y la imagen se
+ * encola aquí. Al terminar la subida se reemplaza imagen_url por la URL de
+ * descarga para que otras terminales y la app de escritorio puedan verla.
+ *
+ * - Sesiones reanudables: la URI de sesión se guarda en SharedPreferences y
+ *   las subidas pendientes se reanudan al volver a abrir la app.
+ * - Concurrencia limitada a MAX_SUBIDAS_CONCURRENTES; el resto espera en cola.
+ * - Una imagen nueva para el mismo producto cancela la subida anterior; solo
+ *   la imagen guardada en pendientes puede parchear imagen_url.
+ */
+public class ImagenUploader {
+
+    private static final String TAG = "ImagenUploader";
+    private static ImagenUploader instance;
+
+    private static final int MAX_SUBIDAS_CONCURRENTES = 2;
+    private static final String CARPETA_STORAGE = "productos";
+    static final String PREFS_SUBIDAS = "subidas_pendientes";
+
+    // Puerto del emulador de Storage (ver firebase.emulador.json)
+    private static final int PUERTO_EMULADOR_STORAGE = 9199;
+
+    private final FirebaseStorage storage;
+    private final SharedPreferences prefs;
+
+    // Solo se accede desde el hilo principal (callbacks de Firebase)
+    private final ArrayDeque<Subida> cola = new ArrayDeque<>();
+    private final Map<String, Subida> enCurso = new HashMap<>();
+
+    private ImagenUploader(Context context) {
+        this.storage = FirebaseStorage.getInstance();
+        this.prefs = context.getApplicationContext()
+                .getSharedPreferences(PREFS_SUBIDAS, Context.MODE_PRIVATE);
+
+        if (BuildConfig.USAR_EMULADOR_FIREBASE) {
+            storage.useEmulator(BuildConfig.HOST_EMULADOR_FIREBASE, PUERTO_EMULADOR_STORAGE);
+            Registro.d(TAG, () -> "Usando emulador de Storage en " + BuildConfig.HOST_EMULADOR_FIREBASE);
+        }
+    }
+
+    public static synchronized ImagenUploader getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImagenUploader(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Encolar la subida de la imagen ya procesada de un producto.
+     * No bloquea: el guardado del producto continúa de inmediato.
+     *
+     * @param docId       documento del producto a actualizar al terminar
+     * @param archivoLocal imagen comprimida en el almacenamiento interno
+     */
+    public void encolar(String docId, File archivoLocal) {
+        if (docId == null || archivoLocal == null || !archivoLocal.exists()) {
+            Registro.e(TAG, () -> "❌ Subida inválida para docId: " + docId);
+            return;
+        }
+
+        Subida subida = new Subida(docId, archivoLocal.getAbsolutePath(), null);
+        guardarPendiente(subida);
+        agregarACola(subida);
+    }
+
+    /**
+     * Reanudar las subidas que quedaron pendientes (app cerrada, sin red, etc.)
+     */
+    public void reanudarPendientes() {
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            Subida subida = leerPendiente(entry.getKey(), String.valueOf(entry.getValue()));
+            if (subida == null || !new File(subida.rutaLocal).exists()) {
+                prefs.edit().remove(entry.getKey()).apply();
+                continue;
+            }
+            agregarACola(subida);
+        }
+    }
+
+    private void agregarACola(Subida subida) {
+        Subida actual = enCurso.get(subida.docId);
+        if (actual != null) {
+            if (actual.rutaLocal.equals(subida.rutaLocal)) {
+                return;
+            }
+            // Imagen más nueva: la anterior ya no se publica, se cancela para liberar el cupo
+            enCurso.remove(subida.docId);
+            actual.tarea.cancel();
+        }
+        // Una imagen nueva para el mismo producto reemplaza a la que esperaba en cola
+        cola.removeIf(s -> s.docId.equals(subida.docId));
+        cola.add(subida);
+        procesarCola();
+    }
+
+    private void procesarCola() {
+        while (enCurso.size() < MAX_SUBIDAS_CONCURRENTES && !cola.isEmpty()) {
+            iniciarSubida(cola.poll());
+        }
+    }
+
+    private void iniciarSubida(Subida subida) {
+        enCurso.put(subida.docId, subida);
+
+        File archivo = new File(subida.rutaLocal);
+        StorageReference ref = storage.getReference()
+                .child(CARPETA_STORAGE)
+                .child(subida.docId)
+                .child(archivo.getName());
+
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType("image/jpeg")
+                .build();
+
+        Uri archivoUri = Uri.fromFile(archivo);
+        final boolean reanudada = subida.sesionUri != null;
+        UploadTask task = reanudada
+                ? ref.putFile(archivoUri, metadata, Uri.parse(subida.sesionUri))
+                : ref.putFile(archivoUri, metadata);
+        subida.tarea = task;
+
+        Registro.d(TAG, () -> (reanudada ? "Reanudando" : "Iniciando") + " subida: " + subida.docId);
+
+        task.addOnProgressListener(snapshot -> {
+                    // Guardar la sesión en cuanto exista para poder reanudarla
+                    Uri sesion = snapshot.getUploadSessionUri();
+                    if (sesion != null && subida.sesionUri == null && esVigente(subida)) {
+                        subida.sesionUri = sesion.toString();
+                        guardarPendiente(subida);
+                    }
+                })
+                .continueWithTask(t -> {
+                    if (t.isCanceled()) {
+                        return Tasks.forCanceled();
+                    }
+                    if (!t.isSuccessful()) {
+                        throw t.getException();
+                    }
+                    return ref.getDownloadUrl();
+                })
+                .addOnSuccessListener(downloadUri -> {
+                    Registro.d(TAG, () -> "✓ Imagen subida: " + subida.docId);
+                    actualizarProducto(subida, downloadUri.toString());
+                })
+                .addOnFailureListener(e -> {
+                    // Se mantiene en pendientes; se reintenta en el próximo reanudarPendientes().
+                    // Si falló al reanudar, la sesión puede haber vencido: el reintento empieza de cero
+                    Registro.e(TAG, "❌ Error al subir imagen", e);
+                    if (reanudada && esVigente(subida)) {
+                        subida.sesionUri = null;
+                        guardarPendiente(subida);
+                    }
+                    terminar(subida);
+                })
+                .addOnCanceledListener(() -> {
+                    Registro.d(TAG, () -> "Subida reemplazada: " + subida.docId);
+                    terminar(subida);
+                });
+    }
+
+    private void actualizarProducto(Subida subida, String url) {
+        // Llegó otra imagen mientras se subía esta: la publica la subida nueva
+        if (!esVigente(subida)) {
+            terminar(subida);
+            return;
+        }
+        FuentesDatos.getInstance().actualizarImagenUrl(subida.docId, url,
+                new InventoryDataSource.OnSuccessListener() {
+                    @Override
+                    public void onSuccess() {
+                        if (esVigente(subida)) {
+                            prefs.edit().remove(subida.docId).apply();
+                        }
+                        terminar(subida);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        // La imagen ya está en Storage: al reanudar se vuelve a parchear el documento
+                        Registro.e(TAG, () -> "❌ Error al actualizar imagen_url: " + error);
+                        terminar(subida);
+                    }
+                });
+    }
+
+    private void terminar(Subida subida) {
+        // Si fue reemplazada, el cupo de docId ya es de la subida nueva
+        enCurso.remove(subida.docId, subida);
+        procesarCola();
+    }
+
+    // ==================== PERSISTENCIA ====================
+
+    /**
+     * La subida sigue siendo la última imagen pedida para su producto
+     */
+    private boolean esVigente(Subida subida) {
+        Subida pendiente = leerPendiente(subida.docId, prefs.getString(subida.docId, null));
+        return pendiente != null && pendiente.rutaLocal.equals(subida.rutaLocal);
+    }
+
+    private void guardarPendiente(Subida subida) {
+        try {
+            JSONObject json = new JSONObject();
+            json.put("ruta", subida.rutaLocal);
+            if (subida.sesionUri != null) {
+                json.put("sesion", subida.sesionUri);
+            }
+            prefs.edit().putString(subida.docId, json.toString()).apply();
+        } catch (JSONException e) {
+            Registro.e(TAG, "Error al guardar subida pendiente", e);
+        }
+    }
+
+    private Subida leerPendiente(String docId, String valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject(valor);
+            return new Subida(docId, json.getString("ruta"), json.optString("sesion", null));
+        } catch (JSONException e) {
+            Registro.e(TAG, () -> "Subida pendiente corrupta: " + docId);
+            return null;
+        }
+    }
+
+    private static class Subida {
+        final String docId;
+        final String rutaLocal;
+        String sesionUri;
+        UploadTask tarea;
+
+        Subida(String docId, String rutaLocal, String sesionUri) {
+            this.docId = docId;
+            this.rutaLocal = rutaLocal;
+            this.sesionUri = sesionUri;
+        }
+    }
+}
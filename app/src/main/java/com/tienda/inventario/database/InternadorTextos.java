@@ -0,0 +1,34 @@
+package com.tienda.inventario.database;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Pool de cadenas para los campos que se repiten mucho entre documentos
+ * (descripción, ciudad, país, URLs vacías...).
+ *
+ * Cada recarga decodifica cadenas nuevas con el mismo contenido; internarlas
+ * deja una sola instancia viva por valor y las copias recién leídas mueren
+ * jóvenes. Las referencias son débiles: un valor que ya ningún producto usa
+ * desaparece del pool con el siguiente GC, a diferencia de String.intern().
+ */
+final class InternadorTextos {
+
+    // Textos más largos casi nunca se repiten: no vale la pena buscarlos
+    private static final int LONGITUD_MAXIMA = 256;
+
+    private final WeakHashMap<String, WeakReference<String>> pool = new WeakHashMap<>();
+
+    synchronized String internar(String texto) {
+        if (texto == null || texto.length() > LONGITUD_MAXIMA) {
+            return texto;
+        }
+        WeakReference<String> referencia = pool.get(texto);
+        String existente = referencia != null ? referencia.get() : null;
+        if (existente != null) {
+            return existente;
+        }
+        pool.put(texto, new WeakReference<>(texto));
+        return texto;
+    }
+}
@@ -0,0 +1,139 @@
+package com.tienda.inventario.database;
+
+import com.google.android.gms.tasks.Task;
+import com.tienda.inventario.database.entities.CambiosProducto;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Movimiento;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Origen de los datos del inventario.
+ *
+ * - FirestoreManager: Firestore, compartido con la app de escritorio.
+ * - FuenteDatosSqlite: base local en el dispositivo, para tiendas sin conexión.
+ * - FuenteDatosMemoria: en memoria, sin red ni disco, para pruebas de rendimiento.
+ *
+ * Se elige al compilar (ver FuentesDatos). Los métodos se llaman desde el
+ * hilo principal y todos los listeners responden en el hilo principal.
+ */
+public interface InventoryDataSource {
+
+    // ==================== LISTENERS ====================
+
+    interface OnSuccessListener {
+        void onSuccess();
+        void onError(String error);
+    }
+
+    interface OnDocumentoListener {
+        void onSuccess(String docId);
+        void onError(String error);
+    }
+
+    interface OnProductosListener {
+        void onSuccess(List<Producto> productos);
+        void onError(String error);
+    }
+
+    interface OnCategoriasListener {
+        void onSuccess(List<Categoria> categorias);
+        void onError(String error);
+    }
+
+    interface OnProveedoresListener {
+        void onSuccess(List<Proveedor> proveedores);
+        void onError(String error);
+    }
+
+    interface OnStockDistribuidoListener {
+        /**
+         * @param stock stock efectivo (incluidos los shards) por docId de producto
+         */
+        void onSuccess(Map<String, Integer> stock);
+        void onError(String error);
+    }
+
+    // ==================== PRODUCTOS ====================
+
+    /**
+     * Productos activos ordenados por nombre
+     */
+    void getProductos(OnProductosListener listener);
+
+    /**
+     * Alta con docId e ID numérico nuevos; al confirmar quedan asignados
+     * en el mismo `producto`
+     */
+    void agregarProducto(Producto producto, OnDocumentoListener listener);
+
+    /**
+     * Escribir productos que ya traen docId e id_producto (ver ImportadorProductos);
+     * repetir la escritura sobrescribe los mismos productos sin duplicar.
+     * Devuelve la tarea para poder esperarla desde un hilo de fondo.
+     */
+    Task<Void> escribirProductosNuevos(List<Producto> productos);
+
+    /**
+     * Reservar `cantidad` IDs numéricos de una vez; puede devolver menos
+     */
+    Task<int[]> reservarIds(String entidad, int cantidad);
+
+    /**
+     * Indicar qué IDs ya usa un documento cargado, para no volver a asignarlos
+     */
+    void registrarVerificadorIds(String entidad, AsignadorIds.VerificadorIds verificador);
+
+    /**
+     * Escribir solo los campos cambiados y los movimientos, juntos
+     *
+     * @param stockShards stock_shards del producto (0 si no está en modo distribuido)
+     */
+    void actualizarProducto(String documentId, CambiosProducto cambios, int stockShards,
+                            List<Movimiento> movimientos, OnSuccessListener listener);
+
+    void actualizarImagenUrl(String documentId, String imagenUrl, OnSuccessListener listener);
+
+    /**
+     * Baja lógica (activo = false)
+     */
+    void eliminarProducto(String documentId, OnSuccessListener listener);
+
+    // ==================== CATEGORÍAS Y PROVEEDORES ====================
+
+    void getCategorias(OnCategoriasListener listener);
+
+    void agregarCategoria(Categoria categoria, OnSuccessListener listener);
+
+    void getProveedores(OnProveedoresListener listener);
+
+    void agregarProveedor(Proveedor proveedor, OnSuccessListener listener);
+
+    // ==================== MOVIMIENTOS ====================
+
+    /**
+     * @param shardsPorProducto docId -> stock_shards de los productos en modo distribuido
+     */
+    void registrarMovimientos(List<Movimiento> movimientos, Map<String, Integer> shardsPorProducto,
+                              OnSuccessListener listener);
+
+    /**
+     * Stock efectivo de productos con contador distribuido. El de los demás
+     * ya llega completo en getProductos() (stock_actual).
+     */
+    void getStockDistribuido(Set<String> docIds, OnStockDistribuidoListener listener);
+
+    void compactarMovimientos(OnSuccessListener listener);
+
+    /**
+     * Activar o desactivar el contador distribuido de stock de un producto
+     *
+     * @param shardsActuales stock_shards actual del producto (0 si no está activo)
+     */
+    void setStockDistribuido(String documentId, boolean activar, int shardsActuales,
+                             OnSuccessListener listener);
+}
@@ -0,0 +1,190 @@
+package com.tienda.inventario.database;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Contador distribuido de stock para productos de alta rotación.
+ *
+ * Firestore limita las escrituras sostenidas sobre un mismo documento; con
+ * el modo activado (campo stock_shards = N) cada movimiento incrementa uno
+ * de N subdocumentos productos/{docId}/stock_shards/{0..N-1} elegido al
+ * azar, así varias cajas escriben en paralelo sin chocar.
+ *
+ * stock_actual sigue siendo el total que leen las demás apps: plegar()
+ * suma los shards en él y los deja en cero dentro de una transacción.
+ * El stock efectivo (stock_actual + shards) no cambia al plegar, por eso
+ * el pliegue no toca ultima_actualizacion.
+ */
+final class StockDistribuido {
+
+    static final String SUBCOLECCION = "stock_shards";
+    private static final String CAMPO_DELTA = "delta";
+
+    static final int SHARDS_POR_DEFECTO = 10;
+
+    private final FirebaseFirestore db;
+    private final Random random = new Random();
+
+    StockDistribuido(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    private DocumentReference producto(String docId) {
+        return db.collection(FirestoreManager.COLLECTION_PRODUCTOS).document(docId);
+    }
+
+    private DocumentReference shard(String docId, int indice) {
+        return producto(docId).collection(SUBCOLECCION).document(String.valueOf(indice));
+    }
+
+    /**
+     * Agregar al lote el incremento de un shard al azar
+     */
+    void incrementar(WriteBatch batch, String docId, int shards, int cantidad) {
+        Map<String, Object> data = new HashMap<>();
+        data.put(CAMPO_DELTA, FieldValue.increment(cantidad));
+        batch.set(shard(docId, random.nextInt(shards)), data, SetOptions.merge());
+    }
+
+    /**
+     * Stock efectivo por producto (docId -> stock_actual + shards)
+     */
+    Task<Map<String, Integer>> leerStock(Collection<String> docIds) {
+        if (docIds.isEmpty()) {
+            return Tasks.forResult(Collections.<String, Integer>emptyMap());
+        }
+
+        List<String> duenos = new ArrayList<>(docIds);
+        List<Task<Integer>> lecturas = new ArrayList<>(duenos.size());
+        for (String docId : duenos) {
+            lecturas.add(leerStock(docId));
+        }
+
+        return Tasks.<Integer>whenAllSuccess(lecturas).continueWith(tarea -> {
+            List<Integer> stocks = tarea.getResult();
+            Map<String, Integer> resultado = new HashMap<>(stocks.size() * 2);
+            for (int i = 0; i < stocks.size(); i++) {
+                resultado.put(duenos.get(i), stocks.get(i));
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Producto y shards en la misma transacción (solo lecturas): un pliegue
+     * concurrente queda entero antes o entero después de la lectura
+     */
+    private Task<Integer> leerStock(String docId) {
+        DocumentReference ref = producto(docId);
+        return db.runTransaction(transaccion -> {
+            DocumentSnapshot snapshotProducto = transaccion.get(ref);
+            long stock = valor(snapshotProducto.getLong("stock_actual"));
+            long shards = valor(snapshotProducto.getLong("stock_shards"));
+            for (int i = 0; i < shards; i++) {
+                stock += valor(transaccion.get(shard(docId, i)).getLong(CAMPO_DELTA));
+            }
+            return (int) stock;
+        });
+    }
+
+    private static long valor(Long numero) {
+        return numero != null ? numero : 0;
+    }
+
+    /**
+     * Sumar los shards en stock_actual y dejarlos en cero, atómicamente
+     *
+     * @param desactivar además borrar los shards y volver al modo normal
+     */
+    Task<Integer> plegar(String docId, int shards, boolean desactivar) {
+        DocumentReference ref = producto(docId);
+        return db.runTransaction(transaccion -> {
+            DocumentSnapshot snapshotProducto = transaccion.get(ref);
+            List<DocumentReference> refsShards = new ArrayList<>();
+            int suma = 0;
+            for (int i = 0; i < shards; i++) {
+                DocumentReference refShard = shard(docId, i);
+                Long delta = transaccion.get(refShard).getLong(CAMPO_DELTA);
+                suma += delta != null ? delta.intValue() : 0;
+                refsShards.add(refShard);
+            }
+
+            for (DocumentReference refShard : refsShards) {
+                if (desactivar) {
+                    transaccion.delete(refShard);
+                } else {
+                    Map<String, Object> cero = new HashMap<>();
+                    cero.put(CAMPO_DELTA, 0);
+                    transaccion.set(refShard, cero);
+                }
+            }
+
+            if (snapshotProducto.exists()) {
+                Map<String, Object> updates = new HashMap<>();
+                if (suma != 0) {
+                    updates.put("stock_actual", valor(snapshotProducto.getLong("stock_actual")) + suma);
+                }
+                if (desactivar) {
+                    // Cambia el modo del producto; el stock efectivo sigue igual
+                    updates.put("stock_shards", 0);
+                    updates.put("ultima_actualizacion", com.google.firebase.Timestamp.now());
+                }
+                if (!updates.isEmpty()) {
+                    transaccion.update(ref, updates);
+                }
+            }
+            return suma;
+        });
+    }
+
+    /**
+     * Plegar todos los productos en modo distribuido (parte de la compactación)
+     */
+    Task<Void> plegarTodos() {
+        return db.collection(FirestoreManager.COLLECTION_PRODUCTOS)
+                .whereGreaterThan("stock_shards", 0)
+                .get()
+                .continueWithTask(consulta -> {
+                    List<Task<Integer>> pliegues = new ArrayList<>();
+                    for (DocumentSnapshot doc : consulta.getResult()) {
+                        Long shards = doc.getLong("stock_shards");
+                        if (shards != null && shards > 0) {
+                            pliegues.add(plegar(doc.getId(), shards.intValue(), false));
+                        }
+                    }
+                    return Tasks.whenAll(pliegues);
+                });
+    }
+
+    /**
+     * Pasar el producto a modo distribuido con shards en cero
+     */
+    Task<Void> activar(String docId, int shards) {
+        WriteBatch batch = db.batch();
+        for (int i = 0; i < shards; i++) {
+            Map<String, Object> cero = new HashMap<>();
+            cero.put(CAMPO_DELTA, 0);
+            batch.set(shard(docId, i), cero);
+        }
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("stock_shards", shards);
+        updates.put("ultima_actualizacion", com.google.firebase.Timestamp.now());
+        batch.update(producto(docId), updates);
+        return batch.commit();
+    }
+}
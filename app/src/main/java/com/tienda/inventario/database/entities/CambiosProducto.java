@@ -0,0 +1,114 @@
+package com.tienda.inventario.database.entities;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Campos de un producto que cambiaron respecto de la versión cargada,
+ * con los nombres de campo de Firestore (los mismos que desktop).
+ *
+ * actualizarProducto() envía solo estos campos con update(): la escritura
+ * es más chica y no pisa lo que otra terminal cambió en los demás.
+ * stock_actual no se incluye: el stock cambia solo por movimientos.
+ */
+public final class CambiosProducto {
+
+    public static final String NOMBRE = "nombre_producto";
+    public static final String DESCRIPCION = "descripcion";
+    public static final String PRECIO = "precio_unitario";
+    public static final String STOCK_MINIMO = "stock_minimo";
+    public static final String CODIGO_BARRAS = "codigo_barras";
+    public static final String CATEGORIA = "id_categoria";
+    public static final String PROVEEDOR = "id_proveedor";
+    public static final String IMAGEN_URL = "imagen_url";
+
+    private final Producto nuevo;
+    private final Map<String, Object> campos = new HashMap<>();
+
+    private CambiosProducto(Producto nuevo) {
+        this.nuevo = nuevo;
+    }
+
+    /**
+     * Diferencia entre la versión cargada y la editada
+     */
+    public static CambiosProducto entre(Producto anterior, Producto nuevo) {
+        CambiosProducto cambios = new CambiosProducto(nuevo);
+        if (!texto(anterior.getNombreProducto()).equals(texto(nuevo.getNombreProducto()))) {
+            cambios.campos.put(NOMBRE, nuevo.getNombreProducto());
+        }
+        if (!texto(anterior.getDescripcion()).equals(texto(nuevo.getDescripcion()))) {
+            cambios.campos.put(DESCRIPCION, texto(nuevo.getDescripcion()));
+        }
+        if (Double.compare(anterior.getPrecioUnitario(), nuevo.getPrecioUnitario()) != 0) {
+            cambios.campos.put(PRECIO, nuevo.getPrecioUnitario());
+        }
+        if (anterior.getStockMinimo() != nuevo.getStockMinimo()) {
+            cambios.campos.put(STOCK_MINIMO, nuevo.getStockMinimo());
+        }
+        if (!texto(anterior.getCodigoBarras()).equals(texto(nuevo.getCodigoBarras()))) {
+            cambios.campos.put(CODIGO_BARRAS, texto(nuevo.getCodigoBarras()));
+        }
+        if (anterior.getIdCategoria() != nuevo.getIdCategoria()) {
+            cambios.campos.put(CATEGORIA, nuevo.getIdCategoria());
+        }
+        if (anterior.getIdProveedor() != nuevo.getIdProveedor()) {
+            cambios.campos.put(PROVEEDOR, nuevo.getIdProveedor());
+        }
+        if (!texto(anterior.getImagenUrl()).equals(texto(nuevo.getImagenUrl()))) {
+            cambios.campos.put(IMAGEN_URL, texto(nuevo.getImagenUrl()));
+        }
+        return cambios;
+    }
+
+    public boolean estaVacio() {
+        return campos.isEmpty();
+    }
+
+    public boolean contiene(String campo) {
+        return campos.containsKey(campo);
+    }
+
+    /**
+     * Campo de Firestore -> valor nuevo
+     */
+    public Map<String, Object> getCampos() {
+        return Collections.unmodifiableMap(campos);
+    }
+
+    /**
+     * Copiar solo los campos cambiados sobre otra instancia (p. ej. una copia
+     * de la versión cargada, para reflejar la escritura en memoria)
+     */
+    public void aplicarA(Producto destino) {
+        if (contiene(NOMBRE)) {
+            destino.setNombreProducto(nuevo.getNombreProducto());
+        }
+        if (contiene(DESCRIPCION)) {
+            destino.setDescripcion(nuevo.getDescripcion());
+        }
+        if (contiene(PRECIO)) {
+            destino.setPrecioUnitario(nuevo.getPrecioUnitario());
+        }
+        if (contiene(STOCK_MINIMO)) {
+            destino.setStockMinimo(nuevo.getStockMinimo());
+        }
+        if (contiene(CODIGO_BARRAS)) {
+            destino.setCodigoBarras(nuevo.getCodigoBarras());
+        }
+        if (contiene(CATEGORIA)) {
+            destino.setIdCategoria(nuevo.getIdCategoria());
+        }
+        if (contiene(PROVEEDOR)) {
+            destino.setIdProveedor(nuevo.getIdProveedor());
+        }
+        if (contiene(IMAGEN_URL)) {
+            destino.setImagenUrl(nuevo.getImagenUrl());
+        }
+    }
+
+    private static String texto(String valor) {
+        return valor != null ? valor : "";
+    }
+}
@@ -0,0 +1,94 @@
+package com.tienda.inventario.database.entities;
+
+/**
+ * Movimiento de inventario (colección "movimientos").
+ *
+ * Los movimientos solo se agregan, nunca se modifican: registrar uno no
+ * escribe el producto. Después se pliegan en su stock_actual (ver
+ * CompactadorMovimientos), que es el stock que leen todas las apps.
+ */
+public class Movimiento {
+
+    public static final String TIPO_VENTA = "venta";
+    public static final String TIPO_ENTRADA = "entrada";
+    public static final String TIPO_AJUSTE = "ajuste";
+
+    private String docId;
+    private String docIdProducto;
+    private int cantidad; // positiva = entra stock, negativa = sale
+    private String tipo;
+    private long fecha;
+    private boolean compactado;
+
+    public Movimiento() {
+        this.fecha = System.currentTimeMillis();
+    }
+
+    public Movimiento(String docIdProducto, int cantidad, String tipo) {
+        this.docIdProducto = docIdProducto;
+        this.cantidad = cantidad;
+        this.tipo = tipo;
+        this.fecha = System.currentTimeMillis();
+    }
+
+    public static Movimiento venta(String docIdProducto, int unidades) {
+        return new Movimiento(docIdProducto, -unidades, TIPO_VENTA);
+    }
+
+    public static Movimiento entrada(String docIdProducto, int unidades) {
+        return new Movimiento(docIdProducto, unidades, TIPO_ENTRADA);
+    }
+
+    public static Movimiento ajuste(String docIdProducto, int diferencia) {
+        return new Movimiento(docIdProducto, diferencia, TIPO_AJUSTE);
+    }
+
+    // Getters y Setters
+    public String getDocId() {
+        return docId;
+    }
+
+    public void setDocId(String docId) {
+        this.docId = docId;
+    }
+
+    public String getDocIdProducto() {
+        return docIdProducto;
+    }
+
+    public void setDocIdProducto(String docIdProducto) {
+        this.docIdProducto = docIdProducto;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(int cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public long getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(long fecha) {
+        this.fecha = fecha;
+    }
+
+    public boolean isCompactado() {
+        return compactado;
+    }
+
+    public void setCompactado(boolean compactado) {
+        this.compactado = compactado;
+    }
+}
@@ -1,5 +1,10 @@
 package com.tienda.inventario.database.entities;
 
+import com.tienda.inventario.search.ColacionTexto;
+import com.tienda.inventario.search.NormalizadorTexto;
+
+import java.text.CollationKey;
+
 /**
  * Modelo de Producto - Solo POJO (sin Room)
  * Compatible con Firestore y la app de escritorio
@@ -19,12 +24,19 @@ public class Producto {
     private long ultimaActualizacion;
     private boolean activo;
 
+    // > 0: stock en modo contador distribuido con esa cantidad de shards
+    private int stockShards;
+
     // NUEVO: URL de la imagen del producto
     private String imagenUrl;
 
     // ID del documento de Firestore
     private String docId;
 
+    // Derivados del nombre, calculados una vez (prepararClaves) y no persistidos
+    private transient CollationKey claveNombre;
+    private transient String nombreBusqueda;
+
     // Constructor vacío (requerido por Firestore)
     public Producto() {
         this.activo = true;
@@ -64,6 +76,41 @@ public class Producto {
 
     public void setNombreProducto(String nombreProducto) {
         this.nombreProducto = nombreProducto;
+        this.claveNombre = null;
+        this.nombreBusqueda = null;
+    }
+
+    /**
+     * Calcular las claves derivadas del nombre; se llama en segundo plano al
+     * recibir el catálogo para que ordenar y buscar no normalicen cadenas
+     */
+    public void prepararClaves() {
+        getClaveNombre();
+        getNombreBusqueda();
+    }
+
+    /**
+     * Clave de ordenamiento según reglas del español (ñ, acentos)
+     */
+    public CollationKey getClaveNombre() {
+        CollationKey clave = claveNombre;
+        if (clave == null) {
+            clave = ColacionTexto.claveDe(nombreProducto);
+            claveNombre = clave;
+        }
+        return clave;
+    }
+
+    /**
+     * Nombre en minúsculas y sin acentos para búsqueda
+     */
+    public String getNombreBusqueda() {
+        String normalizado = nombreBusqueda;
+        if (normalizado == null) {
+            normalizado = NormalizadorTexto.normalizar(nombreProducto);
+            nombreBusqueda = normalizado;
+        }
+        return normalizado;
     }
 
     public String getDescripcion() {
@@ -138,6 +185,14 @@ public class Producto {
         this.ultimaActualizacion = ultimaActualizacion;
     }
 
+    public int getStockShards() {
+        return stockShards;
+    }
+
+    public void setStockShards(int stockShards) {
+        this.stockShards = stockShards;
+    }
+
     public boolean isActivo() {
         return activo;
     }
@@ -163,6 +218,25 @@ public class Producto {
         this.imagenUrl = imagenUrl;
     }
 
+    /**
+     * Copia para modificar sin tocar la instancia compartida del repositorio
+     * (las instancias sin cambios se reutilizan entre recargas)
+     */
+    public Producto copiar() {
+        Producto copia = new Producto(nombreProducto, descripcion, precioUnitario, stockActual,
+                stockMinimo, idCategoria, idProveedor, codigoBarras);
+        copia.idProducto = idProducto;
+        copia.fechaRegistro = fechaRegistro;
+        copia.ultimaActualizacion = ultimaActualizacion;
+        copia.activo = activo;
+        copia.stockShards = stockShards;
+        copia.imagenUrl = imagenUrl;
+        copia.docId = docId;
+        copia.claveNombre = claveNombre;
+        copia.nombreBusqueda = nombreBusqueda;
+        return copia;
+    }
+
     // Método útil para verificar stock bajo
     public boolean isBajoStock() {
         return stockActual <= stockMinimo;
@@ -12,6 +12,7 @@ public class Proveedor {
     private String ciudad;
     private String pais;
     private long fechaRegistro;
+    private String docId; // ID del documento en Firestore
 
     // Constructor vacío
     public Proveedor() {
@@ -95,6 +96,14 @@ public class Proveedor {
         this.fechaRegistro = fechaRegistro;
     }
 
+    public String getDocId() {
+        return docId;
+    }
+
+    public void setDocId(String docId) {
+        this.docId = docId;
+    }
+
     @Override
     public String toString() {
         return nombreProveedor; // Para mostrar en Spinners
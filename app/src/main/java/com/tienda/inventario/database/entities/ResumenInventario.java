@@ -0,0 +1,29 @@
+package com.tienda.inventario.database.entities;
+
+/**
+ * Cifras del panel: cantidad de productos activos y valor del inventario.
+ *
+ * Se calculan con el catálogo en memoria: ya está descargado para la lista,
+ * así que no cuestan lecturas extra a la fuente.
+ */
+public final class ResumenInventario {
+
+    private final long productos;
+    private final long valorCentavos;
+
+    public ResumenInventario(long productos, long valorCentavos) {
+        this.productos = productos;
+        this.valorCentavos = valorCentavos;
+    }
+
+    public long getProductos() {
+        return productos;
+    }
+
+    /**
+     * Precio × stock en centavos
+     */
+    public long getValorCentavos() {
+        return valorCentavos;
+    }
+}
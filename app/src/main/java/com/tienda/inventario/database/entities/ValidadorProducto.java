@@ -0,0 +1,68 @@
+package com.tienda.inventario.database.entities;
+
+/**
+ * Reglas de validación de un producto, compartidas por el formulario
+ * (FormProductoActivity) y el importador masivo.
+ *
+ * Cada método devuelve el mensaje de error del campo, o null si es válido.
+ */
+public final class ValidadorProducto {
+
+    public static final String CAMPO_OBLIGATORIO = "Campo obligatorio";
+
+    private ValidadorProducto() {
+    }
+
+    public static String errorNombre(String nombre) {
+        return estaVacio(nombre) ? CAMPO_OBLIGATORIO : null;
+    }
+
+    public static String errorPrecio(String precio) {
+        if (estaVacio(precio)) {
+            return CAMPO_OBLIGATORIO;
+        }
+        try {
+            if (Double.parseDouble(precio.trim()) <= 0) {
+                return "El precio debe ser mayor a 0";
+            }
+        } catch (NumberFormatException e) {
+            return "Precio inválido";
+        }
+        return null;
+    }
+
+    /**
+     * Stock actual o mínimo: entero no negativo
+     */
+    public static String errorStock(String stock) {
+        if (estaVacio(stock)) {
+            return CAMPO_OBLIGATORIO;
+        }
+        try {
+            if (Integer.parseInt(stock.trim()) < 0) {
+                return "El stock no puede ser negativo";
+            }
+        } catch (NumberFormatException e) {
+            return "Stock inválido";
+        }
+        return null;
+    }
+
+    /**
+     * @param idCategoria -1 si no se eligió o no se encontró
+     */
+    public static String errorCategoria(int idCategoria) {
+        return idCategoria == -1 ? "Seleccione una categoría" : null;
+    }
+
+    /**
+     * @param idProveedor -1 si no se eligió o no se encontró
+     */
+    public static String errorProveedor(int idProveedor) {
+        return idProveedor == -1 ? "Seleccione un proveedor" : null;
+    }
+
+    private static boolean estaVacio(String texto) {
+        return texto == null || texto.trim().isEmpty();
+    }
+}
@@ -0,0 +1,89 @@
+package com.tienda.inventario.diagnostico;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias con cubetas en potencias de dos de microsegundos.
+ *
+ * registrar() no toma locks (se llama desde el bind de cada fila); los
+ * percentiles se estiman con el límite superior de la cubeta, así que el
+ * error es como mucho el doble del valor real.
+ */
+public final class HistogramaLatencia {
+
+    // Cubeta i: [2^(i-1), 2^i) µs; la 0 es < 1 µs y la última junta el resto (> 30 min)
+    private static final int CUBETAS = 32;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final AtomicLong cantidad = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maximoNanos = new AtomicLong();
+
+    public void registrar(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        long micros = nanos / 1_000;
+        int cubeta = Math.min(CUBETAS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        cubetas.incrementAndGet(cubeta);
+        cantidad.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+
+        long maximo;
+        while (nanos > (maximo = maximoNanos.get())) {
+            if (maximoNanos.compareAndSet(maximo, nanos)) {
+                break;
+            }
+        }
+    }
+
+    public long getCantidad() {
+        return cantidad.get();
+    }
+
+    public double getPromedioMs() {
+        long n = cantidad.get();
+        return n == 0 ? 0 : totalNanos.get() / 1e6 / n;
+    }
+
+    public double getMaximoMs() {
+        return maximoNanos.get() / 1e6;
+    }
+
+    /**
+     * @param fraccion entre 0 y 1 (0.5 = mediana)
+     * @return límite superior de la cubeta que contiene el percentil, en ms
+     */
+    public double getPercentilMs(double fraccion) {
+        long[] copia = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long objetivo = Math.max(1, (long) Math.ceil(total * fraccion));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                // Nunca por encima del máximo visto
+                return Math.min((1L << i) / 1e3, getMaximoMs());
+            }
+        }
+        return getMaximoMs();
+    }
+
+    void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cubetas.set(i, 0);
+        }
+        cantidad.set(0);
+        totalNanos.set(0);
+        maximoNanos.set(0);
+    }
+}
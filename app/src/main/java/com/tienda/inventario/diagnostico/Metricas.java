@@ -0,0 +1,151 @@
+package com.tienda.inventario.diagnostico;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de métricas de rendimiento del proceso.
+ *
+ * - Una MetricasOperacion por nombre (ver constantes); se crean al primer uso.
+ * - Las mediciones son contadores atómicos: se pueden dejar activas en
+ *   release sin costo visible.
+ * - La foto se ve en DiagnosticoActivity y se vuelca en texto o JSON con
+ *   adb shell dumpsys activity com.tienda.inventario/.ui.MainActivity [--json].
+ */
+public final class Metricas {
+
+    // ==================== OPERACIONES ====================
+
+    // Fuente de datos (una por método de InventoryDataSource, ver FuenteDatosMedida)
+    public static final String PREFIJO_FUENTE = "datos.";
+
+    // Documentos de productos -> Producto (bytes y productos reutilizados)
+    public static final String DECODIFICAR = "productos.decodificar";
+
+    // Búsqueda de texto e índice de búsqueda
+    public static final String BUSCAR = "busqueda.buscar";
+    public static final String INDEXAR = "busqueda.indexar";
+    public static final String ACTUALIZAR_INDICE = "busqueda.actualizar";
+
+    // Filtros y orden sobre el catálogo en memoria
+    public static final String FILTRAR = "catalogo.filtrar";
+
+    // Filas de la lista: cálculo (con caché por docId) y bind en el hilo principal
+    public static final String FILAS = "lista.filas";
+    public static final String BIND = "lista.bind";
+
+    private static final Metricas instance = new Metricas();
+
+    private final ConcurrentHashMap<String, MetricasOperacion> operaciones = new ConcurrentHashMap<>();
+    private volatile long desdeMillis = System.currentTimeMillis();
+
+    private Metricas() {
+    }
+
+    public static Metricas getInstance() {
+        return instance;
+    }
+
+    /**
+     * Reloj de las mediciones (monotónico, en nanosegundos)
+     */
+    public static long ahora() {
+        return System.nanoTime();
+    }
+
+    public MetricasOperacion operacion(String nombre) {
+        MetricasOperacion operacion = operaciones.get(nombre);
+        if (operacion == null) {
+            MetricasOperacion nueva = new MetricasOperacion(nombre);
+            operacion = operaciones.putIfAbsent(nombre, nueva);
+            if (operacion == null) {
+                operacion = nueva;
+            }
+        }
+        return operacion;
+    }
+
+    /**
+     * Operaciones con datos, ordenadas por nombre
+     */
+    public List<MetricasOperacion> getOperaciones() {
+        List<MetricasOperacion> lista = new ArrayList<>(operaciones.values());
+        Collections.sort(lista, (a, b) -> a.getNombre().compareTo(b.getNombre()));
+        return lista;
+    }
+
+    public void reiniciar() {
+        for (MetricasOperacion operacion : operaciones.values()) {
+            operacion.reiniciar();
+        }
+        desdeMillis = System.currentTimeMillis();
+    }
+
+    // ==================== VOLCADO ====================
+
+    /**
+     * Tabla legible: una línea por operación
+     */
+    public String comoTexto() {
+        StringBuilder sb = new StringBuilder();
+        long segundos = (System.currentTimeMillis() - desdeMillis) / 1000;
+        sb.append("Métricas de los últimos ").append(segundos).append(" s\n\n");
+
+        for (MetricasOperacion op : getOperaciones()) {
+            HistogramaLatencia latencia = op.getLatencia();
+            sb.append(op.getNombre()).append('\n');
+            sb.append(String.format(Locale.US,
+                    "  llamadas %d  errores %d (%.1f%%)%n",
+                    op.getLlamadas(), op.getErrores(), op.getTasaErrores() * 100));
+            sb.append(String.format(Locale.US,
+                    "  ms  prom %.2f  p50 %.2f  p90 %.2f  p99 %.2f  máx %.2f%n",
+                    latencia.getPromedioMs(), latencia.getPercentilMs(0.5), latencia.getPercentilMs(0.9),
+                    latencia.getPercentilMs(0.99), latencia.getMaximoMs()));
+            if (op.getDocumentos() > 0 || op.getBytes() > 0) {
+                sb.append(String.format(Locale.US, "  documentos %d  bytes %d%n",
+                        op.getDocumentos(), op.getBytes()));
+            }
+            if (op.getTasaAciertosCache() >= 0) {
+                sb.append(String.format(Locale.US, "  caché %d/%d (%.1f%% aciertos)%n",
+                        op.getAciertosCache(), op.getAciertosCache() + op.getFallosCache(),
+                        op.getTasaAciertosCache() * 100));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Misma foto en JSON, para comparar entre dispositivos o versiones
+     */
+    public String comoJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"desde\":").append(desdeMillis)
+                .append(",\"hasta\":").append(System.currentTimeMillis())
+                .append(",\"operaciones\":[");
+
+        boolean primera = true;
+        for (MetricasOperacion op : getOperaciones()) {
+            HistogramaLatencia latencia = op.getLatencia();
+            if (!primera) {
+                sb.append(',');
+            }
+            primera = false;
+            sb.append("{\"nombre\":\"").append(op.getNombre()).append('"')
+                    .append(",\"llamadas\":").append(op.getLlamadas())
+                    .append(",\"errores\":").append(op.getErrores())
+                    .append(",\"documentos\":").append(op.getDocumentos())
+                    .append(",\"bytes\":").append(op.getBytes())
+                    .append(",\"aciertosCache\":").append(op.getAciertosCache())
+                    .append(",\"fallosCache\":").append(op.getFallosCache())
+                    .append(String.format(Locale.US,
+                            ",\"ms\":{\"prom\":%.3f,\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"max\":%.3f}}",
+                            latencia.getPromedioMs(), latencia.getPercentilMs(0.5),
+                            latencia.getPercentilMs(0.9), latencia.getPercentilMs(0.99),
+                            latencia.getMaximoMs()));
+        }
+        return sb.append("]}").toString();
+    }
+}
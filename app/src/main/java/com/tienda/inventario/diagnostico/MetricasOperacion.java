@@ -0,0 +1,116 @@
+package com.tienda.inventario.diagnostico;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de una operación: latencia, errores, documentos, bytes
+ * decodificados y aciertos de caché. Seguro desde cualquier hilo.
+ */
+public final class MetricasOperacion {
+
+    private final String nombre;
+    private final HistogramaLatencia latencia = new HistogramaLatencia();
+    private final AtomicLong errores = new AtomicLong();
+    private final AtomicLong documentos = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong aciertosCache = new AtomicLong();
+    private final AtomicLong fallosCache = new AtomicLong();
+
+    MetricasOperacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * @param inicioNanos valor de Metricas.ahora() al empezar la operación
+     */
+    public void exito(long inicioNanos) {
+        latencia.registrar(Metricas.ahora() - inicioNanos);
+    }
+
+    public void exito(long inicioNanos, int documentos) {
+        registrar(Metricas.ahora() - inicioNanos, documentos);
+    }
+
+    /**
+     * Para quien ya midió la duración con su propio reloj
+     */
+    public void registrar(long duracionNanos, int documentos) {
+        latencia.registrar(duracionNanos);
+        this.documentos.addAndGet(documentos);
+    }
+
+    /**
+     * Los errores cuentan también en la latencia: un timeout es tiempo perdido
+     */
+    public void error(long inicioNanos) {
+        latencia.registrar(Metricas.ahora() - inicioNanos);
+        errores.incrementAndGet();
+    }
+
+    public void sumarBytes(long cantidad) {
+        bytes.addAndGet(cantidad);
+    }
+
+    public void cache(boolean acierto) {
+        (acierto ? aciertosCache : fallosCache).incrementAndGet();
+    }
+
+    public void cache(int aciertos, int fallos) {
+        aciertosCache.addAndGet(aciertos);
+        fallosCache.addAndGet(fallos);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public HistogramaLatencia getLatencia() {
+        return latencia;
+    }
+
+    public long getLlamadas() {
+        return latencia.getCantidad();
+    }
+
+    public long getErrores() {
+        return errores.get();
+    }
+
+    public double getTasaErrores() {
+        long llamadas = getLlamadas();
+        return llamadas == 0 ? 0 : (double) errores.get() / llamadas;
+    }
+
+    public long getDocumentos() {
+        return documentos.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getAciertosCache() {
+        return aciertosCache.get();
+    }
+
+    public long getFallosCache() {
+        return fallosCache.get();
+    }
+
+    /**
+     * @return -1 si la operación no usa caché
+     */
+    public double getTasaAciertosCache() {
+        long total = aciertosCache.get() + fallosCache.get();
+        return total == 0 ? -1 : (double) aciertosCache.get() / total;
+    }
+
+    void reiniciar() {
+        latencia.reiniciar();
+        errores.set(0);
+        documentos.set(0);
+        bytes.set(0);
+        aciertosCache.set(0);
+        fallosCache.set(0);
+    }
+}
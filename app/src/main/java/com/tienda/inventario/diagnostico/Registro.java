@@ -0,0 +1,138 @@
+package com.tienda.inventario.diagnostico;
+
+import android.util.Log;
+
+import com.tienda.inventario.BuildConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fachada de logging de la app (reemplaza las llamadas directas a Log).
+ *
+ * - Niveles: d solo existe en debug. DEBUG es constante de compilación
+ *   y en release R8 borra las llamadas (ver proguard-rules.pro); w y e
+ *   quedan, sujetos al nivel mínimo.
+ * - Mensajes perezosos: las variantes con Mensaje no arman el texto si el
+ *   nivel está apagado; usarlas siempre que el mensaje concatene algo.
+ * - Muestreo: para mensajes por documento dentro de bucles (ver Muestreo).
+ * - Los errores con Throwable no repiten getMessage(): Log ya lo imprime
+ *   con la traza.
+ */
+public final class Registro {
+
+    public static final boolean DEBUG = BuildConfig.DEBUG;
+
+    // Nivel mínimo que se escribe (constantes de android.util.Log)
+    private static volatile int nivelMinimo = DEBUG ? Log.DEBUG : Log.INFO;
+
+    /**
+     * Texto del mensaje, armado solo si se va a escribir
+     */
+    public interface Mensaje {
+        String crear();
+    }
+
+    private Registro() {
+    }
+
+    public static void setNivelMinimo(int nivel) {
+        nivelMinimo = nivel;
+    }
+
+    public static boolean activo(int nivel) {
+        return nivel >= nivelMinimo;
+    }
+
+    // ==================== DEBUG ====================
+
+    public static void d(String tag, String mensaje) {
+        if (DEBUG && activo(Log.DEBUG)) {
+            Log.d(tag, mensaje);
+        }
+    }
+
+    public static void d(String tag, Mensaje mensaje) {
+        if (DEBUG && activo(Log.DEBUG)) {
+            Log.d(tag, mensaje.crear());
+        }
+    }
+
+    // ==================== ADVERTENCIAS Y ERRORES ====================
+
+    public static void w(String tag, String mensaje) {
+        if (activo(Log.WARN)) {
+            Log.w(tag, mensaje);
+        }
+    }
+
+    public static void w(String tag, Mensaje mensaje) {
+        if (activo(Log.WARN)) {
+            Log.w(tag, mensaje.crear());
+        }
+    }
+
+    public static void e(String tag, String mensaje) {
+        if (activo(Log.ERROR)) {
+            Log.e(tag, mensaje);
+        }
+    }
+
+    public static void e(String tag, Mensaje mensaje) {
+        if (activo(Log.ERROR)) {
+            Log.e(tag, mensaje.crear());
+        }
+    }
+
+    public static void e(String tag, String mensaje, Throwable error) {
+        if (activo(Log.ERROR)) {
+            Log.e(tag, mensaje, error);
+        }
+    }
+
+    public static void e(String tag, Mensaje mensaje, Throwable error) {
+        if (activo(Log.ERROR)) {
+            Log.e(tag, mensaje.crear(), error);
+        }
+    }
+
+    // ==================== MUESTREO ====================
+
+    /**
+     * Escribe la primera ocurrencia y después una de cada `cada`, con la
+     * cantidad omitida; un campo estático por lugar de la llamada:
+     *
+     *   private static final Registro.Muestreo ERRORES_DOC = new Registro.Muestreo(100);
+     *   ERRORES_DOC.e(TAG, () -> "Error en " + doc.getId(), e);
+     */
+    public static final class Muestreo {
+
+        private final int cada;
+        private final AtomicLong ocurrencias = new AtomicLong();
+
+        public Muestreo(int cada) {
+            this.cada = Math.max(1, cada);
+        }
+
+        public void d(String tag, Mensaje mensaje) {
+            if (DEBUG && activo(Log.DEBUG)) {
+                long n = ocurrencias.getAndIncrement();
+                if (n % cada == 0) {
+                    Log.d(tag, mensaje.crear() + sufijo(n));
+                }
+            }
+        }
+
+        public void e(String tag, Mensaje mensaje, Throwable error) {
+            if (activo(Log.ERROR)) {
+                long n = ocurrencias.getAndIncrement();
+                if (n % cada == 0) {
+                    Log.e(tag, mensaje.crear() + sufijo(n), error);
+                }
+            }
+        }
+
+        private String sufijo(long n) {
+            return n == 0 ? "" : " (" + (cada - 1) + " similares omitidos, " + (n + 1) + " en total)";
+        }
+    }
+}
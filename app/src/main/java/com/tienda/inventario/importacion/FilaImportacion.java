@@ -0,0 +1,79 @@
+package com.tienda.inventario.importacion;
+
+import com.tienda.inventario.search.NormalizadorTexto;
+
+/**
+ * Una fila del archivo de importación, con los valores aún como texto.
+ *
+ * Las columnas (CSV) o claves (JSON) se reconocen por nombre, sin importar
+ * mayúsculas, acentos, espacios o guiones bajos: "Precio unitario",
+ * "precio_unitario" y "precio" van al mismo campo.
+ */
+final class FilaImportacion {
+
+    static final int NOMBRE = 0;
+    static final int DESCRIPCION = 1;
+    static final int PRECIO = 2;
+    static final int STOCK_ACTUAL = 3;
+    static final int STOCK_MINIMO = 4;
+    static final int CODIGO_BARRAS = 5;
+    static final int CATEGORIA = 6;
+    static final int PROVEEDOR = 7;
+    static final int IMAGEN_URL = 8;
+    static final int NUM_CAMPOS = 9;
+
+    // Campo desconocido: se ignora
+    static final int NINGUNO = -1;
+
+    private final String[] valores = new String[NUM_CAMPOS];
+
+    void set(int campo, String valor) {
+        if (campo != NINGUNO) {
+            valores[campo] = valor;
+        }
+    }
+
+    /**
+     * @return el valor sin espacios al borde, o null si falta
+     */
+    String get(int campo) {
+        String valor = valores[campo];
+        return valor != null ? valor.trim() : null;
+    }
+
+    static int campoDe(String encabezado) {
+        String clave = NormalizadorTexto.normalizar(encabezado).replaceAll("[\\s_\\-]", "");
+        switch (clave) {
+            case "nombre":
+            case "nombreproducto":
+            case "producto":
+                return NOMBRE;
+            case "descripcion":
+                return DESCRIPCION;
+            case "precio":
+            case "preciounitario":
+                return PRECIO;
+            case "stock":
+            case "stockactual":
+                return STOCK_ACTUAL;
+            case "stockminimo":
+            case "minimo":
+                return STOCK_MINIMO;
+            case "codigobarras":
+            case "codigo":
+            case "ean":
+                return CODIGO_BARRAS;
+            case "categoria":
+            case "idcategoria":
+                return CATEGORIA;
+            case "proveedor":
+            case "idproveedor":
+                return PROVEEDOR;
+            case "imagen":
+            case "imagenurl":
+                return IMAGEN_URL;
+            default:
+                return NINGUNO;
+        }
+    }
+}
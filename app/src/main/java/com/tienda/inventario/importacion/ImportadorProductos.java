@@ -0,0 +1,576 @@
+package com.tienda.inventario.importacion;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.OpenableColumns;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.android.gms.tasks.Tasks;
+import com.tienda.inventario.database.FirestoreManager;
+import com.tienda.inventario.database.FuentesDatos;
+import com.tienda.inventario.database.InventoryDataSource;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.database.entities.ValidadorProducto;
+import com.tienda.inventario.repository.InventoryRepository;
+import com.tienda.inventario.search.NormalizadorTexto;
+import com.tienda.inventario.diagnostico.Registro;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Importación masiva del catálogo desde un archivo CSV o JSON del dispositivo.
+ *
+ * - El archivo se lee fila a fila en un hilo de fondo (LectorFilas): la
+ *   memoria no depende de su tamaño.
+ * - Cada fila se valida con las mismas reglas del formulario
+ *   (ValidadorProducto); categoría y proveedor se resuelven por nombre o ID
+ *   con mapas armados una vez al empezar.
+ * - Las filas válidas se escriben en WriteBatch de hasta 500 productos, con
+ *   a lo sumo MAX_LOTES_EN_VUELO lotes pendientes a la vez. Los IDs
+ *   numéricos se reservan de a un lote por transacción (AsignadorIds).
+ * - Punto de control: la última fila hasta la que todos los lotes están
+ *   confirmados se guarda en SharedPreferences. Si un lote falla tras
+ *   MAX_REINTENTOS la importación se detiene y puede reanudarse desde ahí.
+ *   El docId de cada producto se deriva de la importación y el número de
+ *   fila, así repetir un lote sobrescribe en lugar de duplicar.
+ */
+public class ImportadorProductos {
+
+    private static final String TAG = "ImportadorProductos";
+    private static ImportadorProductos instance;
+
+    private static final int TAMANO_LOTE = FirestoreManager.MAX_ESCRITURAS_LOTE;
+    private static final int MAX_LOTES_EN_VUELO = 4;
+    private static final int MAX_REINTENTOS = 3;
+    private static final long RETRASO_REINTENTO_MS = 1000;
+    private static final int MAX_ERRORES_GUARDADOS = 20;
+    private static final int FILAS_POR_AVISO = 250;
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final String PREFS_IMPORTACIONES = "importaciones";
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final InventoryDataSource fuenteDatos;
+    private final InventoryRepository repository;
+
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MutableLiveData<ProgresoImportacion> progreso = new MutableLiveData<>();
+
+    // Importación activa; solo hilo principal
+    private Sesion sesion;
+
+    private ImportadorProductos(Context context) {
+        this.context = context.getApplicationContext();
+        this.prefs = this.context.getSharedPreferences(PREFS_IMPORTACIONES, Context.MODE_PRIVATE);
+        this.fuenteDatos = FuentesDatos.getInstance();
+        this.repository = InventoryRepository.getInstance();
+    }
+
+    public static synchronized ImportadorProductos getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImportadorProductos(context);
+        }
+        return instance;
+    }
+
+    public LiveData<ProgresoImportacion> getProgreso() {
+        return progreso;
+    }
+
+    public boolean isEnCurso() {
+        return sesion != null;
+    }
+
+    /**
+     * @return la fila desde la que se puede reanudar una importación previa
+     * del mismo archivo, o 0 si no hay ninguna pendiente
+     */
+    public int getFilaReanudable(Uri uri) {
+        JSONObject punto = leerPunto(uri.toString(), tamanoDe(uri));
+        return punto != null ? punto.optInt("fila", 0) : 0;
+    }
+
+    /**
+     * Empezar (o reanudar) la importación del archivo.
+     * Las categorías y proveedores deben estar cargados en el repositorio.
+     *
+     * @return false si ya hay una importación en curso
+     */
+    public boolean importar(Uri uri, boolean reanudar) {
+        if (sesion != null) {
+            return false;
+        }
+
+        String clave = uri.toString();
+        long tamano = tamanoDe(uri);
+        JSONObject punto = reanudar ? leerPunto(clave, tamano) : null;
+
+        Map<String, Integer> categorias = new HashMap<>();
+        for (Categoria categoria : repository.getCategoriasActuales()) {
+            categorias.put(claveNombre(categoria.getNombreCategoria()), categoria.getIdCategoria());
+        }
+        Map<String, Integer> proveedores = new HashMap<>();
+        for (Proveedor proveedor : repository.getProveedoresActuales()) {
+            proveedores.put(claveNombre(proveedor.getNombreProveedor()), proveedor.getIdProveedor());
+        }
+
+        Sesion nueva = new Sesion(clave, tamano,
+                punto != null ? punto.optString("id") : UUID.randomUUID().toString(),
+                punto != null ? punto.optInt("fila", 0) : 0,
+                new Resolutor(categorias), new Resolutor(proveedores));
+        sesion = nueva;
+        guardarPunto(nueva);
+
+        Registro.d(TAG, () -> "Importando " + clave + " desde la fila " + nueva.desdeFila);
+        publicar(nueva, ProgresoImportacion.Estado.EN_CURSO);
+        ejecutor.execute(() -> leer(nueva, uri));
+        return true;
+    }
+
+    /**
+     * Detener la importación; lo confirmado queda guardado para reanudar
+     */
+    public void cancelar() {
+        if (sesion != null) {
+            sesion.cancelado = true;
+        }
+    }
+
+    // ==================== HILO DE LECTURA ====================
+
+    private void leer(Sesion s, Uri uri) {
+        try (InputStream entrada = context.getContentResolver().openInputStream(uri)) {
+            if (entrada == null) {
+                throw new IOException("No se pudo abrir el archivo");
+            }
+            EntradaContada contada = new EntradaContada(entrada);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(contada, StandardCharsets.UTF_8), TAMANO_BUFFER);
+            try (LectorFilas lector = LectorFilas.abrir(reader)) {
+                procesar(s, lector, contada);
+            }
+        } catch (Exception e) {
+            // JsonReader también lanza IllegalStateException ante JSON mal formado
+            Registro.e(TAG, "❌ Error al leer el archivo", e);
+            if (s.mensajeError == null) {
+                s.mensajeError = "Error al leer el archivo: " + e.getMessage();
+            }
+        }
+
+        // Esperar los lotes que siguen escribiéndose
+        s.permisos.acquireUninterruptibly(MAX_LOTES_EN_VUELO);
+        mainHandler.post(() -> terminar(s));
+    }
+
+    private void procesar(Sesion s, LectorFilas lector, EntradaContada contada) throws Exception {
+        List<Producto> lote = new ArrayList<>(TAMANO_LOTE);
+        int inicioLote = s.desdeFila;
+        int fila = 0;
+
+        FilaImportacion datos;
+        while (!s.cancelado && s.mensajeError == null && (datos = lector.siguiente()) != null) {
+            int numero = fila++;
+            if (numero < s.desdeFila) {
+                continue; // ya importada en una sesión anterior
+            }
+
+            Producto producto = construir(s, datos, numero);
+            if (producto != null) {
+                lote.add(producto);
+            }
+            s.filasLeidas = fila;
+            s.bytesLeidos = contada.leidos;
+
+            if (lote.size() == TAMANO_LOTE) {
+                enviar(s, lote, fila);
+                lote = new ArrayList<>(TAMANO_LOTE);
+                inicioLote = fila;
+            }
+            if (fila % FILAS_POR_AVISO == 0) {
+                mainHandler.post(() -> publicar(s, ProgresoImportacion.Estado.EN_CURSO));
+            }
+        }
+
+        // Último lote; puede estar vacío si sus filas eran todas inválidas
+        if (!s.cancelado && s.mensajeError == null && inicioLote < fila) {
+            enviar(s, lote, fila);
+        }
+        s.bytesLeidos = contada.leidos;
+    }
+
+    /**
+     * @return el producto listo para escribir, o null si la fila no es válida
+     */
+    private Producto construir(Sesion s, FilaImportacion datos, int numero) {
+        String nombre = datos.get(FilaImportacion.NOMBRE);
+        String precio = decimal(datos.get(FilaImportacion.PRECIO));
+        String stockActual = datos.get(FilaImportacion.STOCK_ACTUAL);
+        String stockMinimo = datos.get(FilaImportacion.STOCK_MINIMO);
+        String categoria = datos.get(FilaImportacion.CATEGORIA);
+        String proveedor = datos.get(FilaImportacion.PROVEEDOR);
+        int idCategoria = s.categorias.resolver(categoria);
+        int idProveedor = s.proveedores.resolver(proveedor);
+
+        String error;
+        if ((error = conCampo("nombre", ValidadorProducto.errorNombre(nombre))) == null
+                && (error = conCampo("precio", ValidadorProducto.errorPrecio(precio))) == null
+                && (error = conCampo("stock", ValidadorProducto.errorStock(stockActual))) == null
+                && (error = conCampo("stock mínimo", ValidadorProducto.errorStock(stockMinimo))) == null
+                && (error = errorReferencia("Categoría desconocida", categoria,
+                        ValidadorProducto.errorCategoria(idCategoria))) == null) {
+            error = errorReferencia("Proveedor desconocido", proveedor,
+                    ValidadorProducto.errorProveedor(idProveedor));
+        }
+
+        if (error != null) {
+            s.invalidas++;
+            if (s.errores.size() < MAX_ERRORES_GUARDADOS) {
+                s.errores.add("Fila " + (numero + 1) + ": " + error);
+            }
+            return null;
+        }
+
+        Producto producto = new Producto();
+        producto.setDocId(docIdDeFila(s.id, numero));
+        producto.setNombreProducto(nombre);
+        producto.setDescripcion(vacioSiNulo(datos.get(FilaImportacion.DESCRIPCION)));
+        producto.setPrecioUnitario(Double.parseDouble(precio));
+        producto.setStockActual(Integer.parseInt(stockActual));
+        producto.setStockMinimo(Integer.parseInt(stockMinimo));
+        producto.setCodigoBarras(vacioSiNulo(datos.get(FilaImportacion.CODIGO_BARRAS)));
+        producto.setIdCategoria(idCategoria);
+        producto.setIdProveedor(idProveedor);
+        producto.setImagenUrl(vacioSiNulo(datos.get(FilaImportacion.IMAGEN_URL)));
+        return producto;
+    }
+
+    /**
+     * Reservar los IDs del lote y pasarlo al hilo principal para escribirlo.
+     * Se bloquea mientras haya MAX_LOTES_EN_VUELO lotes sin confirmar.
+     */
+    private void enviar(Sesion s, List<Producto> productos, int hastaFila) throws Exception {
+        s.permisos.acquire();
+        try {
+            int asignados = 0;
+            while (asignados < productos.size()) {
+                int[] ids = Tasks.await(fuenteDatos.reservarIds(
+                        FirestoreManager.COLLECTION_PRODUCTOS, productos.size() - asignados));
+                for (int id : ids) {
+                    productos.get(asignados++).setIdProducto(id);
+                }
+            }
+        } catch (Exception e) {
+            s.permisos.release();
+            throw e;
+        }
+
+        Lote lote = new Lote(s.siguienteLote++, hastaFila, productos);
+        mainHandler.post(() -> escribir(s, lote, 0));
+    }
+
+    // ==================== HILO PRINCIPAL ====================
+
+    private void escribir(Sesion s, Lote lote, int intento) {
+        if (lote.productos.isEmpty()) {
+            confirmar(s, lote);
+            s.permisos.release();
+            return;
+        }
+
+        fuenteDatos.escribirProductosNuevos(lote.productos).addOnCompleteListener(tarea -> {
+            if (tarea.isSuccessful()) {
+                s.importadas += lote.productos.size();
+                confirmar(s, lote);
+                s.permisos.release();
+            } else if (intento < MAX_REINTENTOS && !s.cancelado) {
+                Registro.e(TAG, () -> "❌ Lote " + lote.numero + " falló (intento " + (intento + 1) + "), reintentando");
+                mainHandler.postDelayed(() -> escribir(s, lote, intento + 1), RETRASO_REINTENTO_MS << intento);
+                return;
+            } else {
+                String mensaje = tarea.getException() != null ? tarea.getException().getMessage() : "desconocido";
+                Registro.e(TAG, () -> "❌ Lote " + lote.numero + " no se pudo escribir: " + mensaje);
+                if (!s.cancelado && s.mensajeError == null) {
+                    s.mensajeError = "Error al escribir productos: " + mensaje;
+                }
+                s.permisos.release();
+            }
+            publicar(s, ProgresoImportacion.Estado.EN_CURSO);
+        });
+    }
+
+    /**
+     * Avanzar el punto de control hasta el último lote contiguo confirmado
+     * (los lotes pueden terminar en otro orden)
+     */
+    private void confirmar(Sesion s, Lote lote) {
+        s.terminados.put(lote.numero, lote.hastaFila);
+        Integer hasta;
+        while ((hasta = s.terminados.remove(s.siguienteConfirmar)) != null) {
+            s.filaConfirmada = hasta;
+            s.siguienteConfirmar++;
+        }
+        guardarPunto(s);
+    }
+
+    private void terminar(Sesion s) {
+        ProgresoImportacion.Estado estado;
+        if (s.mensajeError != null) {
+            estado = ProgresoImportacion.Estado.FALLIDA;
+        } else if (s.cancelado) {
+            estado = ProgresoImportacion.Estado.CANCELADA;
+        } else {
+            estado = ProgresoImportacion.Estado.TERMINADA;
+        }
+
+        if (estado == ProgresoImportacion.Estado.TERMINADA) {
+            prefs.edit().remove(s.clave).apply();
+        }
+        if (s.importadas > 0) {
+            repository.cargarProductos(true);
+        }
+
+        Registro.d(TAG, () -> "✓ Importación " + estado + ": " + s.importadas + " productos, "
+                + s.invalidas + " filas inválidas, reanudable desde la fila " + s.filaConfirmada);
+        sesion = null;
+        publicar(s, estado);
+    }
+
+    private void publicar(Sesion s, ProgresoImportacion.Estado estado) {
+        if (estado == ProgresoImportacion.Estado.EN_CURSO && sesion != s) {
+            return; // aviso atrasado de una importación ya terminada
+        }
+        List<String> errores;
+        synchronized (s.errores) {
+            errores = new ArrayList<>(s.errores);
+        }
+        progreso.setValue(new ProgresoImportacion(estado, s.filasLeidas, s.importadas, s.invalidas,
+                s.bytesLeidos, s.tamano, errores, s.mensajeError));
+    }
+
+    // ==================== PUNTO DE CONTROL ====================
+
+    private void guardarPunto(Sesion s) {
+        try {
+            JSONObject punto = new JSONObject();
+            punto.put("id", s.id);
+            punto.put("fila", s.filaConfirmada);
+            punto.put("tamano", s.tamano);
+            prefs.edit().putString(s.clave, punto.toString()).apply();
+        } catch (JSONException e) {
+            Registro.e(TAG, "❌ Error al guardar punto de control", e);
+        }
+    }
+
+    /**
+     * @return el punto guardado, o null si no hay o el archivo cambió de tamaño
+     */
+    private JSONObject leerPunto(String clave, long tamano) {
+        String guardado = prefs.getString(clave, null);
+        if (guardado == null) {
+            return null;
+        }
+        try {
+            JSONObject punto = new JSONObject(guardado);
+            return punto.optLong("tamano", -1) == tamano ? punto : null;
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private long tamanoDe(Uri uri) {
+        try (Cursor cursor = context.getContentResolver().query(uri,
+                new String[]{OpenableColumns.SIZE}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getLong(0);
+            }
+        } catch (RuntimeException e) {
+            Registro.e(TAG, () -> "❌ No se pudo leer el tamaño de " + uri, e);
+        }
+        return -1;
+    }
+
+    // ==================== UTILIDADES ====================
+
+    /**
+     * Mismo docId para la misma fila de la misma importación; se ve aleatorio
+     * para no concentrar las escrituras en un rango de claves
+     */
+    private static String docIdDeFila(String idImportacion, int fila) {
+        return UUID.nameUUIDFromBytes((idImportacion + ":" + fila).getBytes(StandardCharsets.UTF_8))
+                .toString().replace("-", "");
+    }
+
+    private static String conCampo(String campo, String error) {
+        return error != null ? campo + ": " + error : null;
+    }
+
+    private static String errorReferencia(String desconocida, String valor, String error) {
+        if (error == null) {
+            return null;
+        }
+        return valor == null || valor.isEmpty() ? error : desconocida + ": " + valor;
+    }
+
+    /**
+     * "12,50" -> "12.50" (coma decimal de las planillas en español)
+     */
+    private static String decimal(String valor) {
+        if (valor != null && valor.indexOf('.') < 0) {
+            return valor.replace(',', '.');
+        }
+        return valor;
+    }
+
+    private static String vacioSiNulo(String valor) {
+        return valor != null ? valor : "";
+    }
+
+    private static String claveNombre(String nombre) {
+        return NormalizadorTexto.normalizar(nombre).trim();
+    }
+
+    /**
+     * Nombre (sin mayúsculas ni acentos) o ID numérico -> ID
+     */
+    private static final class Resolutor {
+        private final Map<String, Integer> porNombre;
+        private final Set<Integer> ids;
+
+        Resolutor(Map<String, Integer> porNombre) {
+            this.porNombre = porNombre;
+            this.ids = new HashSet<>(porNombre.values());
+        }
+
+        /**
+         * @return el ID, o -1 si el valor está vacío o no corresponde a ninguno
+         */
+        int resolver(String valor) {
+            if (valor == null || valor.isEmpty()) {
+                return -1;
+            }
+            Integer id = porNombre.get(claveNombre(valor));
+            if (id != null) {
+                return id;
+            }
+            try {
+                int numero = Integer.parseInt(valor);
+                return ids.contains(numero) ? numero : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    private static final class Lote {
+        final int numero;
+        final int hastaFila;
+        final List<Producto> productos;
+
+        Lote(int numero, int hastaFila, List<Producto> productos) {
+            this.numero = numero;
+            this.hastaFila = hastaFila;
+            this.productos = productos;
+        }
+    }
+
+    private static final class Sesion {
+        final String clave;
+        final long tamano;
+        final String id;
+        final int desdeFila;
+        final Resolutor categorias;
+        final Resolutor proveedores;
+        final Semaphore permisos = new Semaphore(MAX_LOTES_EN_VUELO);
+        final List<String> errores = Collections.synchronizedList(new ArrayList<>());
+
+        // Escritos por el hilo de lectura
+        volatile int filasLeidas;
+        volatile int invalidas;
+        volatile long bytesLeidos;
+        int siguienteLote;
+
+        // Escritos por el hilo principal
+        volatile boolean cancelado;
+        volatile String mensajeError;
+        int importadas;
+        int filaConfirmada;
+        int siguienteConfirmar;
+        final TreeMap<Integer, Integer> terminados = new TreeMap<>();
+
+        Sesion(String clave, long tamano, String id, int desdeFila,
+               Resolutor categorias, Resolutor proveedores) {
+            this.clave = clave;
+            this.tamano = tamano;
+            this.id = id;
+            this.desdeFila = desdeFila;
+            this.filaConfirmada = desdeFila;
+            this.categorias = categorias;
+            this.proveedores = proveedores;
+        }
+    }
+
+    /**
+     * Cuenta los bytes leídos para estimar el avance
+     */
+    private static final class EntradaContada extends FilterInputStream {
+        volatile long leidos;
+
+        EntradaContada(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                leidos++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                leidos += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long saltados = super.skip(n);
+            leidos += saltados;
+            return saltados;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.tienda.inventario.importacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV (RFC 4180) carácter a carácter.
+ *
+ * - La primera fila es el encabezado; las columnas se asignan por nombre.
+ * - Separador detectado en el encabezado: ',' o ';' (Excel en español
+ *   exporta con ';') o tabulador.
+ * - Campos entre comillas con separadores, saltos de línea y "" escapadas.
+ */
+final class LectorCsv implements LectorFilas {
+
+    private final BufferedReader reader;
+    private final List<String> campos = new ArrayList<>();
+    private final StringBuilder campo = new StringBuilder();
+
+    private char separador;
+    private int[] columnas;
+
+    LectorCsv(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public FilaImportacion siguiente() throws IOException {
+        if (columnas == null && !leerEncabezado()) {
+            return null;
+        }
+
+        while (leerRegistro()) {
+            if (campos.size() == 1 && campos.get(0).trim().isEmpty()) {
+                continue; // línea en blanco
+            }
+            FilaImportacion fila = new FilaImportacion();
+            for (int i = 0; i < campos.size() && i < columnas.length; i++) {
+                fila.set(columnas[i], campos.get(i));
+            }
+            return fila;
+        }
+        return null;
+    }
+
+    private boolean leerEncabezado() throws IOException {
+        separador = detectarSeparador();
+        if (!leerRegistro()) {
+            return false;
+        }
+        columnas = new int[campos.size()];
+        for (int i = 0; i < campos.size(); i++) {
+            columnas[i] = FilaImportacion.campoDe(campos.get(i));
+        }
+        return true;
+    }
+
+    private char detectarSeparador() throws IOException {
+        reader.mark(8192);
+        String linea = reader.readLine();
+        reader.reset();
+        if (linea == null) {
+            return ',';
+        }
+
+        int comas = 0;
+        int puntoYComa = 0;
+        int tabs = 0;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == ',') {
+                comas++;
+            } else if (c == ';') {
+                puntoYComa++;
+            } else if (c == '\t') {
+                tabs++;
+            }
+        }
+        if (tabs > comas && tabs > puntoYComa) {
+            return '\t';
+        }
+        return puntoYComa > comas ? ';' : ',';
+    }
+
+    /**
+     * Leer un registro completo en `campos`
+     *
+     * @return false al final del archivo
+     */
+    private boolean leerRegistro() throws IOException {
+        campos.clear();
+        campo.setLength(0);
+
+        boolean entreComillas = false;
+        boolean leyoAlgo = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            leyoAlgo = true;
+            if (entreComillas) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        campo.append('"');
+                    } else {
+                        reader.reset();
+                        entreComillas = false;
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                campo.append((char) c);
+            }
+        }
+
+        if (!leyoAlgo) {
+            return false;
+        }
+        campos.add(campo.toString());
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,38 @@
+package com.tienda.inventario.importacion;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Lee las filas de un archivo de importación de a una, sin cargarlo entero:
+ * la memoria usada no depende del tamaño del archivo.
+ */
+interface LectorFilas extends Closeable {
+
+    /**
+     * @return la siguiente fila, o null al llegar al final
+     */
+    FilaImportacion siguiente() throws IOException;
+
+    /**
+     * Elegir el lector según el primer carácter útil: '[' o '{' es JSON,
+     * cualquier otro se trata como CSV
+     */
+    static LectorFilas abrir(BufferedReader reader) throws IOException {
+        reader.mark(1024);
+        int c;
+        do {
+            c = reader.read();
+        } while (c == '\uFEFF' || (c != -1 && Character.isWhitespace(c)));
+        reader.reset();
+
+        // Saltar la marca de orden de bytes (Excel la agrega en UTF-8)
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+
+        return c == '[' || c == '{' ? new LectorJson(reader) : new LectorCsv(reader);
+    }
+}
@@ -0,0 +1,93 @@
+package com.tienda.inventario.importacion;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lector JSON por streaming (android.util.JsonReader).
+ *
+ * Acepta un arreglo de objetos o un objeto con el arreglo en la clave
+ * "productos". Los valores numéricos o de texto se leen igual; los
+ * objetos o arreglos anidados se ignoran.
+ */
+final class LectorJson implements LectorFilas {
+
+    private final JsonReader reader;
+    private boolean dentroDelArreglo;
+
+    LectorJson(Reader reader) {
+        this.reader = new JsonReader(reader);
+        this.reader.setLenient(true);
+    }
+
+    @Override
+    public FilaImportacion siguiente() throws IOException {
+        if (!dentroDelArreglo && !entrarAlArreglo()) {
+            return null;
+        }
+
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            FilaImportacion fila = new FilaImportacion();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                int campo = FilaImportacion.campoDe(reader.nextName());
+                fila.set(campo, leerValor());
+            }
+            reader.endObject();
+            return fila;
+        }
+        return null;
+    }
+
+    private boolean entrarAlArreglo() throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            dentroDelArreglo = true;
+            return true;
+        }
+        if (token != JsonToken.BEGIN_OBJECT) {
+            return false;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("productos".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                dentroDelArreglo = true;
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    private String leerValor() throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,82 @@
+package com.tienda.inventario.importacion;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Foto inmutable del avance de una importación (ver ImportadorProductos)
+ */
+public final class ProgresoImportacion {
+
+    public enum Estado {
+        EN_CURSO,
+        TERMINADA,
+        CANCELADA,
+        FALLIDA
+    }
+
+    private final Estado estado;
+    private final int filasLeidas;
+    private final int importadas;
+    private final int invalidas;
+    private final long bytesLeidos;
+    private final long bytesTotales;
+    private final List<String> errores;
+    private final String mensajeError;
+
+    ProgresoImportacion(Estado estado, int filasLeidas, int importadas, int invalidas,
+                        long bytesLeidos, long bytesTotales, List<String> errores, String mensajeError) {
+        this.estado = estado;
+        this.filasLeidas = filasLeidas;
+        this.importadas = importadas;
+        this.invalidas = invalidas;
+        this.bytesLeidos = bytesLeidos;
+        this.bytesTotales = bytesTotales;
+        this.errores = Collections.unmodifiableList(errores);
+        this.mensajeError = mensajeError;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public boolean isEnCurso() {
+        return estado == Estado.EN_CURSO;
+    }
+
+    public int getFilasLeidas() {
+        return filasLeidas;
+    }
+
+    /**
+     * Productos con escritura confirmada por Firestore
+     */
+    public int getImportadas() {
+        return importadas;
+    }
+
+    public int getInvalidas() {
+        return invalidas;
+    }
+
+    /**
+     * Avance de 0 a 100 según los bytes leídos del archivo, o -1 si no se conoce su tamaño
+     */
+    public int getPorcentaje() {
+        if (bytesTotales <= 0) {
+            return -1;
+        }
+        return (int) Math.min(100, bytesLeidos * 100 / bytesTotales);
+    }
+
+    /**
+     * Primeras filas rechazadas ("Fila 12: Precio inválido")
+     */
+    public List<String> getErrores() {
+        return errores;
+    }
+
+    public String getMensajeError() {
+        return mensajeError;
+    }
+}
@@ -0,0 +1,107 @@
+package com.tienda.inventario.repository;
+
+/**
+ * Criterios combinables para filtrar el catálogo (todos se aplican con AND).
+ *
+ * Inmutable: cada método con...() devuelve una copia con un criterio
+ * cambiado, así la UI puede modificar un filtro sin perder los demás.
+ * Un criterio en null (o false para stock bajo) no filtra.
+ *
+ * El orden no filtra: null = por relevancia si hay texto, si no por nombre.
+ */
+public final class ConsultaProductos {
+
+    public static final ConsultaProductos TODOS =
+            new ConsultaProductos(null, null, false, null, null, null, null);
+
+    private final Integer idCategoria;
+    private final Integer idProveedor;
+    private final boolean soloStockBajo;
+    private final String texto;
+    private final Long precioMinCentavos;
+    private final Long precioMaxCentavos;
+    private final OrdenProductos orden;
+
+    private ConsultaProductos(Integer idCategoria, Integer idProveedor, boolean soloStockBajo,
+                              String texto, Long precioMinCentavos, Long precioMaxCentavos,
+                              OrdenProductos orden) {
+        this.idCategoria = idCategoria;
+        this.idProveedor = idProveedor;
+        this.soloStockBajo = soloStockBajo;
+        this.texto = texto;
+        this.precioMinCentavos = precioMinCentavos;
+        this.precioMaxCentavos = precioMaxCentavos;
+        this.orden = orden;
+    }
+
+    public ConsultaProductos conCategoria(Integer idCategoria) {
+        return new ConsultaProductos(idCategoria, idProveedor, soloStockBajo, texto,
+                precioMinCentavos, precioMaxCentavos, orden);
+    }
+
+    public ConsultaProductos conProveedor(Integer idProveedor) {
+        return new ConsultaProductos(idCategoria, idProveedor, soloStockBajo, texto,
+                precioMinCentavos, precioMaxCentavos, orden);
+    }
+
+    public ConsultaProductos conSoloStockBajo(boolean soloStockBajo) {
+        return new ConsultaProductos(idCategoria, idProveedor, soloStockBajo, texto,
+                precioMinCentavos, precioMaxCentavos, orden);
+    }
+
+    public ConsultaProductos conTexto(String texto) {
+        String limpio = texto != null && !texto.trim().isEmpty() ? texto.trim() : null;
+        return new ConsultaProductos(idCategoria, idProveedor, soloStockBajo, limpio,
+                precioMinCentavos, precioMaxCentavos, orden);
+    }
+
+    /**
+     * Rango de precio inclusivo en centavos; null en un extremo = sin límite
+     */
+    public ConsultaProductos conRangoPrecio(Long minCentavos, Long maxCentavos) {
+        return new ConsultaProductos(idCategoria, idProveedor, soloStockBajo, texto,
+                minCentavos, maxCentavos, orden);
+    }
+
+    public ConsultaProductos conOrden(OrdenProductos orden) {
+        return new ConsultaProductos(idCategoria, idProveedor, soloStockBajo, texto,
+                precioMinCentavos, precioMaxCentavos, orden);
+    }
+
+    public Integer getIdCategoria() {
+        return idCategoria;
+    }
+
+    public Integer getIdProveedor() {
+        return idProveedor;
+    }
+
+    public boolean isSoloStockBajo() {
+        return soloStockBajo;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    public Long getPrecioMinCentavos() {
+        return precioMinCentavos;
+    }
+
+    public Long getPrecioMaxCentavos() {
+        return precioMaxCentavos;
+    }
+
+    public OrdenProductos getOrden() {
+        return orden;
+    }
+
+    public boolean tieneRangoPrecio() {
+        return precioMinCentavos != null || precioMaxCentavos != null;
+    }
+
+    public boolean esVacia() {
+        return idCategoria == null && idProveedor == null && !soloStockBajo
+                && texto == null && !tieneRangoPrecio() && orden == null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.tienda.inventario.repository;
+
+/**
+ * Valor que se consume una sola vez (errores, avisos).
+ * Evita que un Toast se repita al recrear la Activity por rotación.
+ */
+public class Evento<T> {
+
+    private final T contenido;
+    private boolean manejado = false;
+
+    public Evento(T contenido) {
+        this.contenido = contenido;
+    }
+
+    /**
+     * Devuelve el contenido solo la primera vez
+     */
+    public T getContenidoSiNoManejado() {
+        if (manejado) {
+            return null;
+        }
+        manejado = true;
+        return contenido;
+    }
+
+    public T peekContenido() {
+        return contenido;
+    }
+}
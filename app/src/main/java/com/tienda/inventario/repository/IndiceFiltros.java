@@ -0,0 +1,172 @@
+package com.tienda.inventario.repository;
+
+import com.tienda.inventario.database.entities.Producto;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índices de bits sobre TablaProductos para combinar filtros.
+ *
+ * Cada valor de categoría y proveedor tiene un BitSet con sus filas, y
+ * stock bajo tiene el suyo; una consulta con varios criterios se resuelve
+ * intersectando bitsets (64 filas por operación) en lugar de recorrer el
+ * catálogo una vez por filtro. El rango de precio se comprueba solo sobre
+ * las filas que sobreviven a la intersección. El resultado se entrega
+ * recorriendo la permutación del orden pedido (IndicesOrden), sin ordenar.
+ *
+ * Se construye junto con la tabla y se mantiene fila por fila cuando cambia
+ * un producto (actualizar), sin reconstruir nada. Las altas y bajas cambian
+ * las filas y reconstruyen tabla e índice (ver InventoryRepository). Solo
+ * hilo principal después de publicarse.
+ */
+public final class IndiceFiltros {
+
+    public static final IndiceFiltros VACIO = construir(TablaProductos.VACIA);
+
+    private final TablaProductos tabla;
+    private final IndicesOrden orden;
+    private final Map<Integer, BitSet> porCategoria = new HashMap<>();
+    private final Map<Integer, BitSet> porProveedor = new HashMap<>();
+    private final BitSet stockBajo;
+
+    private IndiceFiltros(TablaProductos tabla) {
+        this.tabla = tabla;
+        this.orden = IndicesOrden.construir(tabla);
+        this.stockBajo = new BitSet(tabla.getTamano());
+    }
+
+    public static IndiceFiltros construir(TablaProductos tabla) {
+        IndiceFiltros indice = new IndiceFiltros(tabla);
+        for (int fila = 0; fila < tabla.getTamano(); fila++) {
+            indice.indexarFila(fila);
+        }
+        return indice;
+    }
+
+    public TablaProductos getTabla() {
+        return tabla;
+    }
+
+    // ==================== EVALUACIÓN ====================
+
+    /**
+     * Filas que cumplen todos los criterios de la consulta.
+     *
+     * @param rankingTexto resultados de la búsqueda de texto, ya ordenados por
+     *                     relevancia; se ignora si la consulta no tiene texto
+     * @return productos en el orden de la consulta; sin orden explícito, por
+     *         relevancia si hay texto y si no por nombre
+     */
+    public List<Producto> evaluar(ConsultaProductos consulta, List<Producto> rankingTexto) {
+        BitSet candidatas = new BitSet(tabla.getTamano());
+        candidatas.set(0, tabla.getTamano());
+
+        if (consulta.getIdCategoria() != null) {
+            intersectar(candidatas, porCategoria.get(consulta.getIdCategoria()));
+        }
+        if (consulta.getIdProveedor() != null) {
+            intersectar(candidatas, porProveedor.get(consulta.getIdProveedor()));
+        }
+        if (consulta.isSoloStockBajo()) {
+            candidatas.and(stockBajo);
+        }
+        if (consulta.tieneRangoPrecio()) {
+            filtrarPrecio(candidatas, consulta.getPrecioMinCentavos(), consulta.getPrecioMaxCentavos());
+        }
+
+        if (consulta.getTexto() != null && rankingTexto != null) {
+            BitSet coincidencias = new BitSet(tabla.getTamano());
+            List<Producto> resultado = new ArrayList<>(Math.min(rankingTexto.size(), candidatas.cardinality()));
+            for (Producto p : rankingTexto) {
+                int fila = tabla.getFila(p.getDocId());
+                if (fila >= 0 && candidatas.get(fila)) {
+                    coincidencias.set(fila);
+                    resultado.add(tabla.getProducto(fila));
+                }
+            }
+            if (consulta.getOrden() == null) {
+                return resultado;
+            }
+            candidatas = coincidencias;
+        }
+
+        OrdenProductos criterio = consulta.getOrden() != null ? consulta.getOrden() : OrdenProductos.NOMBRE;
+        List<Producto> resultado = new ArrayList<>(candidatas.cardinality());
+        for (int fila : orden.filas(criterio)) {
+            if (candidatas.get(fila)) {
+                resultado.add(tabla.getProducto(fila));
+            }
+        }
+        return resultado;
+    }
+
+    private static void intersectar(BitSet candidatas, BitSet filtro) {
+        if (filtro == null) {
+            candidatas.clear();
+        } else {
+            candidatas.and(filtro);
+        }
+    }
+
+    private void filtrarPrecio(BitSet candidatas, Long minimo, Long maximo) {
+        long min = minimo != null ? minimo : Long.MIN_VALUE;
+        long max = maximo != null ? maximo : Long.MAX_VALUE;
+        for (int fila = candidatas.nextSetBit(0); fila >= 0; fila = candidatas.nextSetBit(fila + 1)) {
+            long precio = tabla.getPrecioCentavos(fila);
+            if (precio < min || precio > max) {
+                candidatas.clear(fila);
+            }
+        }
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    /**
+     * Aplicar un producto modificado a la tabla y a los índices.
+     *
+     * @return false si el producto no está en la tabla (hay que recargar)
+     */
+    public boolean actualizar(Producto producto) {
+        int fila = tabla.getFila(producto.getDocId());
+        if (fila < 0) {
+            return false;
+        }
+        desindexarFila(fila);
+        orden.quitar(fila);
+        tabla.actualizarFila(fila, producto);
+        orden.insertar(fila);
+        indexarFila(fila);
+        return true;
+    }
+
+    private void indexarFila(int fila) {
+        bitsetDe(porCategoria, tabla.getIdCategoria(fila)).set(fila);
+        bitsetDe(porProveedor, tabla.getIdProveedor(fila)).set(fila);
+        stockBajo.set(fila, tabla.getStock(fila) <= tabla.getStockMinimo(fila));
+    }
+
+    private void desindexarFila(int fila) {
+        BitSet categoria = porCategoria.get(tabla.getIdCategoria(fila));
+        if (categoria != null) {
+            categoria.clear(fila);
+        }
+        BitSet proveedor = porProveedor.get(tabla.getIdProveedor(fila));
+        if (proveedor != null) {
+            proveedor.clear(fila);
+        }
+        stockBajo.clear(fila);
+    }
+
+    private static BitSet bitsetDe(Map<Integer, BitSet> mapa, int clave) {
+        BitSet bits = mapa.get(clave);
+        if (bits == null) {
+            bits = new BitSet();
+            mapa.put(clave, bits);
+        }
+        return bits;
+    }
+}
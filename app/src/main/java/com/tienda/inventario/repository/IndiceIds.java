@@ -0,0 +1,86 @@
+package com.tienda.inventario.repository;
+
+import com.tienda.inventario.database.DecodificadorProducto;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice bidireccional docId ↔ ID numérico para categorías y proveedores.
+ *
+ * Los productos referencian categoría y proveedor por ID numérico; con este
+ * índice resolver esa referencia (o la inversa, para escribir) es una
+ * búsqueda en un mapa en lugar de recorrer la lista.
+ *
+ * Inmutable: se reconstruye cuando se recarga la colección.
+ */
+final class IndiceIds<T> {
+
+    interface ExtractorId<T> {
+        int id(T entidad);
+    }
+
+    interface ExtractorDocId<T> {
+        String docId(T entidad);
+    }
+
+    private final Map<Integer, T> porId;
+    private final Map<Integer, String> docIdPorId;
+    private final Map<String, Integer> idPorDocId;
+
+    private IndiceIds(Map<Integer, T> porId, Map<Integer, String> docIdPorId,
+                      Map<String, Integer> idPorDocId) {
+        this.porId = porId;
+        this.docIdPorId = docIdPorId;
+        this.idPorDocId = idPorDocId;
+    }
+
+    static <T> IndiceIds<T> vacio() {
+        return new IndiceIds<>(Collections.<Integer, T>emptyMap(),
+                Collections.<Integer, String>emptyMap(), Collections.<String, Integer>emptyMap());
+    }
+
+    static <T> IndiceIds<T> construir(List<T> entidades, ExtractorId<T> extractorId,
+                                      ExtractorDocId<T> extractorDocId) {
+        int capacidad = entidades.size() * 2;
+        Map<Integer, T> porId = new HashMap<>(capacidad);
+        Map<Integer, String> docIdPorId = new HashMap<>(capacidad);
+        Map<String, Integer> idPorDocId = new HashMap<>(capacidad);
+
+        for (T entidad : entidades) {
+            int id = extractorId.id(entidad);
+            if (id == DecodificadorProducto.SIN_ID) {
+                // Todavía sin ID (ver FirestoreManager.rellenarIds): nada puede referenciarla
+                continue;
+            }
+            porId.put(id, entidad);
+            String docId = extractorDocId.docId(entidad);
+            if (docId != null) {
+                docIdPorId.put(id, docId);
+                idPorDocId.put(docId, id);
+            }
+        }
+        return new IndiceIds<>(porId, docIdPorId, idPorDocId);
+    }
+
+    T getPorId(int id) {
+        return porId.get(id);
+    }
+
+    String getDocId(int id) {
+        return docIdPorId.get(id);
+    }
+
+    /**
+     * @return el ID numérico del documento, o null si no está cargado
+     */
+    Integer getId(String docId) {
+        return idPorDocId.get(docId);
+    }
+
+    boolean contiene(int id) {
+        return porId.containsKey(id);
+    }
+}
@@ -0,0 +1,135 @@
+package com.tienda.inventario.repository;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Permutaciones de filas de TablaProductos ya ordenadas por cada criterio.
+ *
+ * Se ordenan una vez al construir la tabla (en segundo plano). Cuando cambia
+ * un producto, su fila se saca de cada permutación y se vuelve a insertar en
+ * la posición que indica una búsqueda binaria: O(log n) comparaciones y un
+ * System.arraycopy, en lugar de reordenar las n filas.
+ *
+ * Solo hilo principal después de publicarse.
+ */
+final class IndicesOrden {
+
+    private final TablaProductos tabla;
+    private final Map<OrdenProductos, int[]> permutaciones = new EnumMap<>(OrdenProductos.class);
+
+    private IndicesOrden(TablaProductos tabla) {
+        this.tabla = tabla;
+    }
+
+    static IndicesOrden construir(TablaProductos tabla) {
+        IndicesOrden indices = new IndicesOrden(tabla);
+        int n = tabla.getTamano();
+        int[] identidad = new int[n];
+        for (int i = 0; i < n; i++) {
+            identidad[i] = i;
+        }
+        int[] auxiliar = new int[n];
+        for (OrdenProductos orden : OrdenProductos.values()) {
+            int[] filas = identidad.clone();
+            ordenar(tabla, orden, filas, auxiliar, 0, n);
+            indices.permutaciones.put(orden, filas);
+        }
+        return indices;
+    }
+
+    /**
+     * Filas en el orden pedido; no modificar el arreglo devuelto
+     */
+    int[] filas(OrdenProductos orden) {
+        return permutaciones.get(orden);
+    }
+
+    /**
+     * Sacar la fila de todas las permutaciones. Llamar ANTES de modificar la
+     * fila en la tabla: la búsqueda usa los valores que la ordenaron.
+     */
+    void quitar(int fila) {
+        for (Map.Entry<OrdenProductos, int[]> entrada : permutaciones.entrySet()) {
+            int[] filas = entrada.getValue();
+            int posicion = buscar(entrada.getKey(), filas, filas.length, fila);
+            if (posicion < 0 || filas[posicion] != fila) {
+                // El producto se modificó en memoria sin pasar por aquí
+                posicion = indiceLineal(filas, fila);
+            }
+            System.arraycopy(filas, posicion + 1, filas, posicion, filas.length - posicion - 1);
+            filas[filas.length - 1] = fila;
+        }
+    }
+
+    /**
+     * Reinsertar la fila con sus valores nuevos (después de quitar() y de
+     * actualizar la tabla). La fila quedó al final de cada permutación.
+     */
+    void insertar(int fila) {
+        for (Map.Entry<OrdenProductos, int[]> entrada : permutaciones.entrySet()) {
+            int[] filas = entrada.getValue();
+            int n = filas.length - 1;
+            int posicion = buscar(entrada.getKey(), filas, n, fila);
+            if (posicion < 0) {
+                posicion = -posicion - 1;
+            }
+            System.arraycopy(filas, posicion, filas, posicion + 1, n - posicion);
+            filas[posicion] = fila;
+        }
+    }
+
+    private int buscar(OrdenProductos orden, int[] filas, int n, int fila) {
+        int bajo = 0;
+        int alto = n - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int cmp = orden.comparar(tabla, filas[medio], fila);
+            if (cmp < 0) {
+                bajo = medio + 1;
+            } else if (cmp > 0) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -(bajo + 1);
+    }
+
+    private static int indiceLineal(int[] filas, int fila) {
+        for (int i = 0; i < filas.length; i++) {
+            if (filas[i] == fila) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Fila fuera de la permutación: " + fila);
+    }
+
+    /**
+     * Merge sort sobre int[]: evita convertir las filas a Integer para
+     * usar Arrays.sort con comparador
+     */
+    private static void ordenar(TablaProductos tabla, OrdenProductos orden,
+                                int[] filas, int[] auxiliar, int desde, int hasta) {
+        if (hasta - desde < 2) {
+            return;
+        }
+        int medio = (desde + hasta) >>> 1;
+        ordenar(tabla, orden, filas, auxiliar, desde, medio);
+        ordenar(tabla, orden, filas, auxiliar, medio, hasta);
+        if (orden.comparar(tabla, filas[medio - 1], filas[medio]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(filas, desde, auxiliar, desde, hasta - desde);
+        int i = desde;
+        int j = medio;
+        for (int k = desde; k < hasta; k++) {
+            if (j >= hasta || (i < medio && orden.comparar(tabla, auxiliar[i], auxiliar[j]) <= 0)) {
+                filas[k] = auxiliar[i++];
+            } else {
+                filas[k] = auxiliar[j++];
+            }
+        }
+    }
+}
@@ -0,0 +1,729 @@
+package com.tienda.inventario.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.tienda.inventario.database.FirestoreManager;
+import com.tienda.inventario.database.FuentesDatos;
+import com.tienda.inventario.database.InventoryDataSource;
+import com.tienda.inventario.database.entities.CambiosProducto;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Movimiento;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.database.entities.ResumenInventario;
+import com.tienda.inventario.diagnostico.Metricas;
+import com.tienda.inventario.diagnostico.Registro;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Repositorio de inventario con alcance de proceso.
+ *
+ * Única fuente de verdad para todas las pantallas: guarda en memoria los
+ * productos, categorías y proveedores y los expone como LiveData. Las
+ * pantallas observan en lugar de pedir datos a la fuente de datos
+ * (InventoryDataSource), así una rotación o volver a una pantalla no
+ * repite las consultas.
+ *
+ * Todos los métodos se llaman desde el hilo principal.
+ */
+public class InventoryRepository {
+
+    private static final String TAG = "InventoryRepository";
+    private static InventoryRepository instance;
+
+    // Compactación del libro de movimientos en segundo plano
+    private static final long RETRASO_PRIMERA_COMPACTACION_MS = 30_000;
+    private static final long INTERVALO_COMPACTACION_MS = 10 * 60_000;
+
+    private final InventoryDataSource fuenteDatos;
+
+    // Construcción de estructuras derivadas (tabla columnar e índices) fuera del hilo principal
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Se publica junto con la lista: siempre corresponde a getProductos().getValue()
+    private IndiceFiltros indice = IndiceFiltros.VACIO;
+
+    private final MutableLiveData<List<Producto>> productos = new MutableLiveData<>();
+    private final MutableLiveData<List<Categoria>> categorias = new MutableLiveData<>();
+    private final MutableLiveData<List<Proveedor>> proveedores = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> cargandoProductos = new MutableLiveData<>(false);
+    private final MutableLiveData<Evento<String>> errores = new MutableLiveData<>();
+
+    // Cifras del panel, calculadas con el catálogo en memoria
+    private final MutableLiveData<ResumenInventario> resumen = new MutableLiveData<>();
+
+    // Altas y bajas en memoria pendientes de reconstruir tabla e índices
+    private final List<CambioFilas> cambiosFilas = new ArrayList<>();
+    private boolean reconstruyendo = false;
+
+    // Aumenta con cada lista publicada; detecta cambios durante una reconstrucción
+    private int version = 0;
+
+    // Bajas aplicadas en memoria que Firestore aún no confirmó: una recarga
+    // en el medio todavía las trae y no debe volver a mostrarlas
+    private final Set<String> bajasSinConfirmar = new HashSet<>();
+
+    // Evitan cargas duplicadas mientras hay una consulta en vuelo
+    private boolean recargaProductosPendiente = false;
+    private boolean cargandoCategorias = false;
+    private boolean cargandoProveedores = false;
+
+    // docId ↔ ID numérico; se reconstruyen al recargar cada colección.
+    // volatile: el adapter resuelve nombres desde su hilo de fondo
+    private volatile IndiceIds<Categoria> indiceCategorias = IndiceIds.vacio();
+    private volatile IndiceIds<Proveedor> indiceProveedores = IndiceIds.vacio();
+
+    private InventoryRepository(InventoryDataSource fuenteDatos) {
+        this.fuenteDatos = fuenteDatos;
+
+        // Los IDs nuevos saltan los que ya usa un documento cargado
+        fuenteDatos.registrarVerificadorIds(FirestoreManager.COLLECTION_PRODUCTOS,
+                id -> indice.getTabla().getFilaPorId(id) >= 0);
+        fuenteDatos.registrarVerificadorIds(FirestoreManager.COLLECTION_CATEGORIAS,
+                id -> indiceCategorias.contiene(id));
+        fuenteDatos.registrarVerificadorIds(FirestoreManager.COLLECTION_PROVEEDORES,
+                id -> indiceProveedores.contiene(id));
+
+        // Primera pasada cuando el arranque ya terminó
+        programarCompactacion(RETRASO_PRIMERA_COMPACTACION_MS);
+    }
+
+    public static synchronized InventoryRepository getInstance() {
+        if (instance == null) {
+            instance = new InventoryRepository(FuentesDatos.getInstance());
+        }
+        return instance;
+    }
+
+    // ==================== STREAMS ====================
+
+    public LiveData<List<Producto>> getProductos() {
+        return productos;
+    }
+
+    public LiveData<List<Categoria>> getCategorias() {
+        return categorias;
+    }
+
+    public LiveData<List<Proveedor>> getProveedores() {
+        return proveedores;
+    }
+
+    public LiveData<Boolean> isCargandoProductos() {
+        return cargandoProductos;
+    }
+
+    public LiveData<ResumenInventario> getResumen() {
+        return resumen;
+    }
+
+    public LiveData<Evento<String>> getErrores() {
+        return errores;
+    }
+
+    /**
+     * Producto del estado en memoria por docId (null si no está cargado)
+     */
+    public Producto getProducto(String docId) {
+        TablaProductos tabla = indice.getTabla();
+        int fila = tabla.getFila(docId);
+        return fila >= 0 ? tabla.getProducto(fila) : null;
+    }
+
+    /**
+     * Copia columnar del catálogo actual para filtros y agregados
+     */
+    public TablaProductos getTabla() {
+        return indice.getTabla();
+    }
+
+    public IndiceFiltros getIndice() {
+        return indice;
+    }
+
+    /**
+     * Aplicar todos los criterios de la consulta al catálogo en memoria
+     *
+     * @param rankingTexto resultados de búsqueda para el criterio de texto (puede ser null)
+     */
+    public List<Producto> filtrar(ConsultaProductos consulta, List<Producto> rankingTexto) {
+        long inicio = Metricas.ahora();
+        Trace.beginSection("IndiceFiltros.evaluar");
+        try {
+            List<Producto> resultado = indice.evaluar(consulta, rankingTexto);
+            Metricas.getInstance().operacion(Metricas.FILTRAR).exito(inicio, resultado.size());
+            return resultado;
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * Producto por id_producto (null si no está cargado)
+     */
+    public Producto getProductoPorId(int idProducto) {
+        TablaProductos tabla = indice.getTabla();
+        int fila = tabla.getFilaPorId(idProducto);
+        return fila >= 0 ? tabla.getProducto(fila) : null;
+    }
+
+    /**
+     * Categoría referenciada por un producto (null si no está cargada).
+     * Seguro desde cualquier hilo.
+     */
+    public Categoria getCategoria(int idCategoria) {
+        return indiceCategorias.getPorId(idCategoria);
+    }
+
+    public Proveedor getProveedor(int idProveedor) {
+        return indiceProveedores.getPorId(idProveedor);
+    }
+
+    /**
+     * ID numérico de una categoría a partir de su documento (null si no está cargada)
+     */
+    public Integer getIdCategoria(String docId) {
+        return indiceCategorias.getId(docId);
+    }
+
+    public Integer getIdProveedor(String docId) {
+        return indiceProveedores.getId(docId);
+    }
+
+    public List<Producto> getProductosActuales() {
+        List<Producto> actuales = productos.getValue();
+        return actuales != null ? actuales : Collections.emptyList();
+    }
+
+    public List<Categoria> getCategoriasActuales() {
+        List<Categoria> actuales = categorias.getValue();
+        return actuales != null ? actuales : Collections.emptyList();
+    }
+
+    public List<Proveedor> getProveedoresActuales() {
+        List<Proveedor> actuales = proveedores.getValue();
+        return actuales != null ? actuales : Collections.emptyList();
+    }
+
+    // ==================== CARGA ====================
+
+    /**
+     * Cargar productos si todavía no hay datos en memoria
+     *
+     * @param forzar volver a consultar aunque ya estén cargados (botón Actualizar)
+     */
+    public void cargarProductos(boolean forzar) {
+        if (Boolean.TRUE.equals(cargandoProductos.getValue())) {
+            // La consulta en vuelo puede no incluir una escritura reciente
+            recargaProductosPendiente |= forzar;
+            return;
+        }
+        if (!forzar && productos.getValue() != null) {
+            return;
+        }
+
+        cargandoProductos.setValue(true);
+        fuenteDatos.getProductos(new InventoryDataSource.OnProductosListener() {
+            @Override
+            public void onSuccess(List<Producto> lista) {
+                sumarStockDistribuido(lista);
+            }
+
+            @Override
+            public void onError(String error) {
+                cargandoProductos.setValue(false);
+                Registro.e(TAG, () -> "❌ Error al cargar productos: " + error);
+                errores.setValue(new Evento<>(error));
+                continuarRecargaPendiente();
+            }
+        });
+    }
+
+    /**
+     * El stock de cada producto ya llega con sus movimientos plegados
+     * (stock_actual, un solo campo); solo los de alta rotación necesitan
+     * leer además sus shards.
+     * Los productos afectados se copian: las instancias las reutiliza FirestoreManager.
+     */
+    private void sumarStockDistribuido(List<Producto> lista) {
+        Set<String> distribuidos = new HashSet<>();
+        for (Producto p : lista) {
+            if (p.getStockShards() > 0 && p.getDocId() != null) {
+                distribuidos.add(p.getDocId());
+            }
+        }
+        if (distribuidos.isEmpty()) {
+            publicarProductos(lista);
+            return;
+        }
+
+        fuenteDatos.getStockDistribuido(distribuidos, new InventoryDataSource.OnStockDistribuidoListener() {
+            @Override
+            public void onSuccess(Map<String, Integer> stock) {
+                for (int i = 0; i < lista.size(); i++) {
+                    Integer efectivo = stock.get(lista.get(i).getDocId());
+                    if (efectivo != null && efectivo != lista.get(i).getStockActual()) {
+                        Producto copia = lista.get(i).copiar();
+                        copia.setStockActual(efectivo);
+                        lista.set(i, copia);
+                    }
+                }
+                publicarProductos(lista);
+            }
+
+            @Override
+            public void onError(String error) {
+                // Sin los shards se muestra el stock del documento
+                Registro.e(TAG, () -> "❌ Error al leer stock distribuido: " + error);
+                publicarProductos(lista);
+            }
+        });
+    }
+
+    private void publicarProductos(List<Producto> lista) {
+        if (!bajasSinConfirmar.isEmpty()) {
+            for (Iterator<Producto> it = lista.iterator(); it.hasNext(); ) {
+                if (bajasSinConfirmar.contains(it.next().getDocId())) {
+                    it.remove();
+                }
+            }
+        }
+
+        ejecutor.execute(() -> {
+            IndiceFiltros nuevoIndice = IndiceFiltros.construir(TablaProductos.construir(lista));
+            mainHandler.post(() -> {
+                indice = nuevoIndice;
+                version++;
+                cargandoProductos.setValue(false);
+                productos.setValue(Collections.unmodifiableList(lista));
+                publicarResumen();
+                continuarRecargaPendiente();
+            });
+        });
+    }
+
+    /**
+     * Cifras del catálogo en memoria (sin lecturas a la fuente)
+     */
+    private void publicarResumen() {
+        TablaProductos tabla = indice.getTabla();
+        resumen.setValue(new ResumenInventario(tabla.getTamano(), tabla.valorInventarioCentavos()));
+    }
+
+    private void continuarRecargaPendiente() {
+        if (recargaProductosPendiente) {
+            recargaProductosPendiente = false;
+            cargarProductos(true);
+        }
+    }
+
+    public void cargarCategorias(boolean forzar) {
+        if (cargandoCategorias || (!forzar && categorias.getValue() != null)) {
+            return;
+        }
+
+        cargandoCategorias = true;
+        fuenteDatos.getCategorias(new InventoryDataSource.OnCategoriasListener() {
+            @Override
+            public void onSuccess(List<Categoria> lista) {
+                cargandoCategorias = false;
+                indiceCategorias = IndiceIds.construir(lista,
+                        Categoria::getIdCategoria, Categoria::getDocId);
+                categorias.setValue(Collections.unmodifiableList(lista));
+            }
+
+            @Override
+            public void onError(String error) {
+                cargandoCategorias = false;
+                Registro.e(TAG, () -> "❌ Error al cargar categorías: " + error);
+                errores.setValue(new Evento<>("Error al cargar categorías: " + error));
+            }
+        });
+    }
+
+    public void cargarProveedores(boolean forzar) {
+        if (cargandoProveedores || (!forzar && proveedores.getValue() != null)) {
+            return;
+        }
+
+        cargandoProveedores = true;
+        fuenteDatos.getProveedores(new InventoryDataSource.OnProveedoresListener() {
+            @Override
+            public void onSuccess(List<Proveedor> lista) {
+                cargandoProveedores = false;
+                indiceProveedores = IndiceIds.construir(lista,
+                        Proveedor::getIdProveedor, Proveedor::getDocId);
+                proveedores.setValue(Collections.unmodifiableList(lista));
+            }
+
+            @Override
+            public void onError(String error) {
+                cargandoProveedores = false;
+                Registro.e(TAG, () -> "❌ Error al cargar proveedores: " + error);
+                errores.setValue(new Evento<>("Error al cargar proveedores: " + error));
+            }
+        });
+    }
+
+    // ==================== ESCRITURA ====================
+    //
+    // Las escrituras son optimistas: el cambio se aplica en memoria al
+    // enviarlo y, si Firestore lo rechaza, se deshace solo en las filas que
+    // siguen teniendo la versión optimista. No se recarga el catálogo.
+
+    /**
+     * Agregar producto; al confirmarse se suma a la lista en memoria
+     * (necesita el docId e ID numérico que asigna FirestoreManager)
+     */
+    public void agregarProducto(Producto producto, InventoryDataSource.OnDocumentoListener listener) {
+        fuenteDatos.agregarProducto(producto, new InventoryDataSource.OnDocumentoListener() {
+            @Override
+            public void onSuccess(String docId) {
+                Producto nuevo = producto.copiar();
+                cambiarFilas(lista -> {
+                    if (posicionDe(lista, docId) < 0) {
+                        lista.add(nuevo);
+                    }
+                });
+                listener.onSuccess(docId);
+            }
+
+            @Override
+            public void onError(String error) {
+                listener.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Actualizar producto. Solo se envían los campos que difieren de la
+     * versión que el usuario editó (base); un cambio de stock respecto de
+     * esa versión se registra como movimiento de ajuste. Así lo que otra
+     * terminal cambió después de abrir el formulario (ventas, otros campos)
+     * no se pisa ni se revierte.
+     *
+     * @param base     el producto tal como se cargó al empezar a editar
+     * @param producto la versión editada
+     */
+    public void actualizarProducto(Producto base, Producto producto, InventoryDataSource.OnSuccessListener listener) {
+        String docId = base.getDocId();
+        CambiosProducto cambios = CambiosProducto.entre(base, producto);
+        List<Movimiento> movimientos = new ArrayList<>();
+        int diferencia = producto.getStockActual() - base.getStockActual();
+        if (diferencia != 0) {
+            movimientos.add(Movimiento.ajuste(docId, diferencia));
+        }
+
+        Producto actual = getProducto(docId);
+        if (actual == null) {
+            fuenteDatos.actualizarProducto(docId, cambios, base.getStockShards(), movimientos,
+                    refrescarAlTerminar(listener));
+            return;
+        }
+
+        // Los cambios se aplican sobre la versión en memoria, no sobre la base
+        Producto efectivo = actual.copiar();
+        cambios.aplicarA(efectivo);
+        efectivo.setStockActual(actual.getStockActual() + diferencia);
+        aplicarCambioLocal(docId, efectivo);
+
+        int shards = actual.getStockShards();
+        fuenteDatos.actualizarProducto(docId, cambios, shards, movimientos, new InventoryDataSource.OnSuccessListener() {
+            @Override
+            public void onSuccess() {
+                recargarSiHayCargaEnVuelo();
+                listener.onSuccess();
+            }
+
+            @Override
+            public void onError(String error) {
+                deshacer(docId, actual, efectivo);
+                listener.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Registrar una venta o recepción (uno o más productos en un solo lote)
+     */
+    public void registrarMovimientos(List<Movimiento> movimientos, InventoryDataSource.OnSuccessListener listener) {
+        Map<String, Integer> shards = new HashMap<>();
+        Map<String, Producto> anteriores = new HashMap<>();
+        Map<String, Producto> efectivos = new HashMap<>();
+        for (Movimiento movimiento : movimientos) {
+            String docId = movimiento.getDocIdProducto();
+            Producto actual = getProducto(docId);
+            if (actual == null) {
+                continue;
+            }
+            if (actual.getStockShards() > 0) {
+                shards.put(docId, actual.getStockShards());
+            }
+            if (!anteriores.containsKey(docId)) {
+                anteriores.put(docId, actual);
+            }
+            Producto efectivo = actual.copiar();
+            efectivo.setStockActual(actual.getStockActual() + movimiento.getCantidad());
+            aplicarCambioLocal(docId, efectivo);
+            efectivos.put(docId, efectivo);
+        }
+
+        fuenteDatos.registrarMovimientos(movimientos, shards, new InventoryDataSource.OnSuccessListener() {
+            @Override
+            public void onSuccess() {
+                recargarSiHayCargaEnVuelo();
+                listener.onSuccess();
+            }
+
+            @Override
+            public void onError(String error) {
+                for (Map.Entry<String, Producto> entrada : anteriores.entrySet()) {
+                    deshacer(entrada.getKey(), entrada.getValue(), efectivos.get(entrada.getKey()));
+                }
+                listener.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Activar o desactivar el contador distribuido de stock (productos de
+     * alta rotación que reciben ventas desde varias cajas a la vez).
+     * El stock efectivo no cambia: solo dónde se acumulan los movimientos.
+     */
+    public void setAltaRotacion(String docId, boolean activar, InventoryDataSource.OnSuccessListener listener) {
+        Producto actual = getProducto(docId);
+        if (actual == null) {
+            fuenteDatos.setStockDistribuido(docId, activar, 0, refrescarAlTerminar(listener));
+            return;
+        }
+
+        Producto efectivo = actual.copiar();
+        efectivo.setStockShards(activar ? FirestoreManager.SHARDS_STOCK_DISTRIBUIDO : 0);
+        aplicarCambioLocal(docId, efectivo);
+
+        fuenteDatos.setStockDistribuido(docId, activar, actual.getStockShards(),
+                new InventoryDataSource.OnSuccessListener() {
+                    @Override
+                    public void onSuccess() {
+                        listener.onSuccess();
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        deshacer(docId, actual, efectivo);
+                        listener.onError(error);
+                    }
+                });
+    }
+
+    /**
+     * Compactar el libro de movimientos cada INTERVALO_COMPACTACION_MS
+     * mientras el proceso esté vivo
+     */
+    private void programarCompactacion(long retrasoMs) {
+        mainHandler.postDelayed(() -> fuenteDatos.compactarMovimientos(
+                new InventoryDataSource.OnSuccessListener() {
+                    @Override
+                    public void onSuccess() {
+                        programarCompactacion(INTERVALO_COMPACTACION_MS);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        programarCompactacion(INTERVALO_COMPACTACION_MS);
+                    }
+                }), retrasoMs);
+    }
+
+    /**
+     * Eliminar (baja lógica): la fila desaparece de inmediato y vuelve a su
+     * posición si Firestore rechaza la escritura
+     */
+    public void eliminarProducto(String docId, InventoryDataSource.OnSuccessListener listener) {
+        Producto anterior = getProducto(docId);
+        if (anterior == null) {
+            fuenteDatos.eliminarProducto(docId, refrescarAlTerminar(listener));
+            return;
+        }
+
+        int posicion = posicionDe(getProductosActuales(), docId);
+        bajasSinConfirmar.add(docId);
+        cambiarFilas(lista -> {
+            int i = posicionDe(lista, docId);
+            if (i >= 0) {
+                lista.remove(i);
+            }
+        });
+
+        fuenteDatos.eliminarProducto(docId, new InventoryDataSource.OnSuccessListener() {
+            @Override
+            public void onSuccess() {
+                bajasSinConfirmar.remove(docId);
+                listener.onSuccess();
+            }
+
+            @Override
+            public void onError(String error) {
+                Registro.e(TAG, () -> "❌ Baja rechazada, restaurando: " + docId);
+                bajasSinConfirmar.remove(docId);
+                cambiarFilas(lista -> {
+                    if (posicionDe(lista, docId) < 0) {
+                        lista.add(Math.min(Math.max(posicion, 0), lista.size()), anterior);
+                    }
+                });
+                listener.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Reemplazar la fila del producto en la tabla, los índices y la lista publicada
+     */
+    private void aplicarCambioLocal(String docId, Producto producto) {
+        Producto anterior = getProducto(docId);
+        if (anterior == null || Boolean.TRUE.equals(cargandoProductos.getValue())) {
+            // La carga en vuelo puede no incluir el cambio: repetirla al terminar
+            cargarProductos(true);
+            return;
+        }
+
+        producto.setDocId(docId);
+        producto.setFechaRegistro(anterior.getFechaRegistro());
+        producto.setUltimaActualizacion(System.currentTimeMillis());
+        reemplazarFila(docId, producto);
+    }
+
+    /**
+     * Una carga que empezó antes de que se plegaran los movimientos puede
+     * traer el stock anterior: repetirla al terminar
+     */
+    private void recargarSiHayCargaEnVuelo() {
+        if (Boolean.TRUE.equals(cargandoProductos.getValue())) {
+            recargaProductosPendiente = true;
+        }
+    }
+
+    /**
+     * Volver a la versión anterior si la fila conserva la versión optimista;
+     * si otro cambio la reemplazó mientras tanto, se respeta ese cambio
+     */
+    private void deshacer(String docId, Producto anterior, Producto optimista) {
+        if (getProducto(docId) == optimista) {
+            Registro.e(TAG, () -> "❌ Escritura rechazada, restaurando: " + docId);
+            reemplazarFila(docId, anterior);
+        }
+    }
+
+    private void reemplazarFila(String docId, Producto producto) {
+        int fila = indice.getTabla().getFila(docId);
+        if (fila < 0) {
+            return;
+        }
+        indice.actualizar(producto);
+
+        // La fila de la tabla coincide con la posición en la lista publicada
+        List<Producto> nueva = new ArrayList<>(getProductosActuales());
+        nueva.set(fila, producto);
+        version++;
+        productos.setValue(Collections.unmodifiableList(nueva));
+        publicarResumen();
+        Registro.d(TAG, () -> "✓ Producto actualizado en memoria: " + docId);
+    }
+
+    // ==================== ALTAS Y BAJAS EN MEMORIA ====================
+
+    /**
+     * Cambio de filas de la lista (alta o baja). Debe poder aplicarse más de
+     * una vez sobre la misma lista sin efecto extra.
+     */
+    private interface CambioFilas {
+        void aplicar(List<Producto> lista);
+    }
+
+    /**
+     * Altas y bajas cambian las filas: la tabla y los índices se reconstruyen
+     * en segundo plano sobre la lista más reciente y se publican juntos
+     */
+    private void cambiarFilas(CambioFilas cambio) {
+        if (Boolean.TRUE.equals(cargandoProductos.getValue())) {
+            // La carga en vuelo puede no incluir la escritura: repetirla al terminar
+            recargaProductosPendiente = true;
+        }
+        cambiosFilas.add(cambio);
+        if (!reconstruyendo) {
+            reconstruir();
+        }
+    }
+
+    private void reconstruir() {
+        reconstruyendo = true;
+        int versionBase = version;
+        int aplicados = cambiosFilas.size();
+        List<Producto> lista = new ArrayList<>(getProductosActuales());
+        for (CambioFilas cambio : cambiosFilas) {
+            cambio.aplicar(lista);
+        }
+
+        ejecutor.execute(() -> {
+            IndiceFiltros nuevoIndice = IndiceFiltros.construir(TablaProductos.construir(lista));
+            mainHandler.post(() -> {
+                if (version != versionBase) {
+                    // La lista cambió mientras tanto: volver a aplicar sobre la nueva
+                    reconstruir();
+                    return;
+                }
+                cambiosFilas.subList(0, aplicados).clear();
+                indice = nuevoIndice;
+                version++;
+                productos.setValue(Collections.unmodifiableList(lista));
+                publicarResumen();
+
+                if (cambiosFilas.isEmpty()) {
+                    reconstruyendo = false;
+                } else {
+                    reconstruir();
+                }
+            });
+        });
+    }
+
+    private static int posicionDe(List<Producto> lista, String docId) {
+        for (int i = 0; i < lista.size(); i++) {
+            if (docId.equals(lista.get(i).getDocId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private InventoryDataSource.OnSuccessListener refrescarAlTerminar(InventoryDataSource.OnSuccessListener listener) {
+        return new InventoryDataSource.OnSuccessListener() {
+            @Override
+            public void onSuccess() {
+                cargarProductos(true);
+                listener.onSuccess();
+            }
+
+            @Override
+            public void onError(String error) {
+                listener.onError(error);
+            }
+        };
+    }
+}
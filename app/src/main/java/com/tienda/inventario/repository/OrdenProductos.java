@@ -0,0 +1,70 @@
+package com.tienda.inventario.repository;
+
+/**
+ * Criterios de orden de la lista de productos.
+ *
+ * Cada uno compara dos filas de TablaProductos leyendo solo columnas
+ * primitivas (salvo el nombre). Los empates se resuelven por número de
+ * fila, así el orden es total y una fila se puede ubicar con búsqueda
+ * binaria.
+ */
+public enum OrdenProductos {
+
+    NOMBRE("Nombre") {
+        @Override
+        int compararValores(TablaProductos tabla, int a, int b) {
+            return tabla.getProducto(a).getClaveNombre().compareTo(tabla.getProducto(b).getClaveNombre());
+        }
+    },
+
+    PRECIO("Precio") {
+        @Override
+        int compararValores(TablaProductos tabla, int a, int b) {
+            return Long.compare(tabla.getPrecioCentavos(a), tabla.getPrecioCentavos(b));
+        }
+    },
+
+    STOCK("Stock") {
+        @Override
+        int compararValores(TablaProductos tabla, int a, int b) {
+            return Integer.compare(tabla.getStock(a), tabla.getStock(b));
+        }
+    },
+
+    // Primero los que más unidades necesitan para llegar al mínimo
+    DEFICIT("Faltante de stock") {
+        @Override
+        int compararValores(TablaProductos tabla, int a, int b) {
+            return Integer.compare(deficit(tabla, b), deficit(tabla, a));
+        }
+    },
+
+    // Primero los modificados más recientemente
+    ACTUALIZACION("Última actualización") {
+        @Override
+        int compararValores(TablaProductos tabla, int a, int b) {
+            return Long.compare(tabla.getUltimaActualizacion(b), tabla.getUltimaActualizacion(a));
+        }
+    };
+
+    private final String etiqueta;
+
+    OrdenProductos(String etiqueta) {
+        this.etiqueta = etiqueta;
+    }
+
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    abstract int compararValores(TablaProductos tabla, int a, int b);
+
+    int comparar(TablaProductos tabla, int a, int b) {
+        int cmp = compararValores(tabla, a, b);
+        return cmp != 0 ? cmp : Integer.compare(a, b);
+    }
+
+    private static int deficit(TablaProductos tabla, int fila) {
+        return tabla.getStockMinimo(fila) - tabla.getStock(fila);
+    }
+}
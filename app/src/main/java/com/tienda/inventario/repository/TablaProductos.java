@@ -0,0 +1,295 @@
+package com.tienda.inventario.repository;
+
+import com.tienda.inventario.database.entities.Producto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Copia columnar (structure-of-arrays) del catálogo.
+ *
+ * Cada atributo usado en filtros y agregados vive en su propio arreglo
+ * primitivo, así los recorridos son bucles simples sobre memoria contigua
+ * en lugar de seguir un puntero por cada Producto. La fila i de todas las
+ * columnas corresponde a filas[i].
+ *
+ * Se construye en segundo plano al cargar el catálogo; después solo se
+ * modifica desde el hilo principal, fila por fila (actualizarFila), cuando
+ * cambia un producto.
+ */
+public final class TablaProductos {
+
+    // Por debajo de este tamaño no compensa repartir el trabajo entre núcleos
+    private static final int UMBRAL_PARALELO = 32 * 1024;
+
+    public static final TablaProductos VACIA = construir(new ArrayList<>());
+
+    private final Producto[] filas;
+    private final int tamano;
+    private final Map<String, Integer> filaPorDocId;
+    private final Map<Integer, Integer> filaPorId;
+
+    private final int[] stock;
+    private final int[] stockMinimo;
+    private final int[] idCategoria;
+    private final int[] idProveedor;
+    private final long[] precioCentavos;
+    private final long[] ultimaActualizacion;
+
+    // Nombres internados: nombres repetidos comparten el mismo tramo de caracteres
+    private final char[] nombres;
+    private final int[] nombreInicio;
+    private final int[] nombreLongitud;
+
+    private TablaProductos(Producto[] filas, int[] stock, int[] stockMinimo, int[] idCategoria,
+                           int[] idProveedor, long[] precioCentavos, long[] ultimaActualizacion,
+                           char[] nombres, int[] nombreInicio, int[] nombreLongitud) {
+        this.filas = filas;
+        this.tamano = filas.length;
+        this.filaPorDocId = new HashMap<>(filas.length * 2);
+        this.filaPorId = new HashMap<>(filas.length * 2);
+        for (int i = 0; i < filas.length; i++) {
+            if (filas[i].getDocId() != null) {
+                filaPorDocId.put(filas[i].getDocId(), i);
+            }
+            filaPorId.put(filas[i].getIdProducto(), i);
+        }
+        this.stock = stock;
+        this.stockMinimo = stockMinimo;
+        this.idCategoria = idCategoria;
+        this.idProveedor = idProveedor;
+        this.precioCentavos = precioCentavos;
+        this.ultimaActualizacion = ultimaActualizacion;
+        this.nombres = nombres;
+        this.nombreInicio = nombreInicio;
+        this.nombreLongitud = nombreLongitud;
+    }
+
+    public static TablaProductos construir(List<Producto> productos) {
+        int n = productos.size();
+        Producto[] filas = productos.toArray(new Producto[0]);
+        int[] stock = new int[n];
+        int[] stockMinimo = new int[n];
+        int[] idCategoria = new int[n];
+        int[] idProveedor = new int[n];
+        long[] precioCentavos = new long[n];
+        long[] ultimaActualizacion = new long[n];
+        int[] nombreInicio = new int[n];
+        int[] nombreLongitud = new int[n];
+
+        Map<String, Integer> internados = new HashMap<>();
+        StringBuilder pool = new StringBuilder();
+
+        for (int i = 0; i < n; i++) {
+            Producto p = filas[i];
+            // Clave de colación y nombre normalizado: una vez por producto, fuera del hilo principal
+            p.prepararClaves();
+            stock[i] = p.getStockActual();
+            stockMinimo[i] = p.getStockMinimo();
+            idCategoria[i] = p.getIdCategoria();
+            idProveedor[i] = p.getIdProveedor();
+            precioCentavos[i] = Math.round(p.getPrecioUnitario() * 100);
+            ultimaActualizacion[i] = p.getUltimaActualizacion();
+
+            String nombre = p.getNombreProducto() != null ? p.getNombreProducto() : "";
+            Integer inicio = internados.get(nombre);
+            if (inicio == null) {
+                inicio = pool.length();
+                pool.append(nombre);
+                internados.put(nombre, inicio);
+            }
+            nombreInicio[i] = inicio;
+            nombreLongitud[i] = nombre.length();
+        }
+
+        char[] nombres = new char[pool.length()];
+        pool.getChars(0, pool.length(), nombres, 0);
+
+        return new TablaProductos(filas, stock, stockMinimo, idCategoria, idProveedor,
+                precioCentavos, ultimaActualizacion, nombres, nombreInicio, nombreLongitud);
+    }
+
+    // ==================== ACCESO ====================
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    public Producto getProducto(int fila) {
+        return filas[fila];
+    }
+
+    /**
+     * @return la fila del producto, o -1 si no está en la tabla
+     */
+    public int getFila(String docId) {
+        Integer fila = docId != null ? filaPorDocId.get(docId) : null;
+        return fila != null ? fila : -1;
+    }
+
+    /**
+     * @return la fila del producto con ese id_producto, o -1 si no está en la tabla
+     */
+    public int getFilaPorId(int idProducto) {
+        Integer fila = filaPorId.get(idProducto);
+        return fila != null ? fila : -1;
+    }
+
+    int getStock(int fila) {
+        return stock[fila];
+    }
+
+    int getStockMinimo(int fila) {
+        return stockMinimo[fila];
+    }
+
+    int getIdCategoria(int fila) {
+        return idCategoria[fila];
+    }
+
+    int getIdProveedor(int fila) {
+        return idProveedor[fila];
+    }
+
+    long getPrecioCentavos(int fila) {
+        return precioCentavos[fila];
+    }
+
+    long getUltimaActualizacion(int fila) {
+        return ultimaActualizacion[fila];
+    }
+
+    public String getNombre(int fila) {
+        if (nombreLongitud[fila] < 0) {
+            return filas[fila].getNombreProducto();
+        }
+        return new String(nombres, nombreInicio[fila], nombreLongitud[fila]);
+    }
+
+    /**
+     * Convertir índices de fila en la lista de productos para el adapter
+     */
+    public List<Producto> productos(int[] indices) {
+        List<Producto> resultado = new ArrayList<>(indices.length);
+        for (int fila : indices) {
+            resultado.add(filas[fila]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Reemplazar una fila con la versión nueva del producto (mismo docId).
+     * El nombre se sigue leyendo del producto; el pool de nombres no se modifica.
+     */
+    void actualizarFila(int fila, Producto producto) {
+        filas[fila] = producto;
+        stock[fila] = producto.getStockActual();
+        stockMinimo[fila] = producto.getStockMinimo();
+        idCategoria[fila] = producto.getIdCategoria();
+        idProveedor[fila] = producto.getIdProveedor();
+        precioCentavos[fila] = Math.round(producto.getPrecioUnitario() * 100);
+        ultimaActualizacion[fila] = producto.getUltimaActualizacion();
+        // El tramo viejo queda sin uso en el pool hasta el próximo construir(),
+        // que arma el pool de nuevo con los nombres vigentes
+        nombreLongitud[fila] = -1;
+    }
+
+    // ==================== FILTROS ====================
+
+    public int[] filtrarPorCategoria(int categoria) {
+        return filtrarPorCategoria(categoria, 0, tamano);
+    }
+
+    /**
+     * Filtro por rango de filas: permite repartir el recorrido entre hilos
+     */
+    public int[] filtrarPorCategoria(int categoria, int desde, int hasta) {
+        int[] resultado = new int[hasta - desde];
+        int cantidad = 0;
+        for (int i = desde; i < hasta; i++) {
+            if (idCategoria[i] == categoria) {
+                resultado[cantidad++] = i;
+            }
+        }
+        return Arrays.copyOf(resultado, cantidad);
+    }
+
+    public int[] filasStockBajo() {
+        return filasStockBajo(0, tamano);
+    }
+
+    public int[] filasStockBajo(int desde, int hasta) {
+        int[] resultado = new int[hasta - desde];
+        int cantidad = 0;
+        for (int i = desde; i < hasta; i++) {
+            if (stock[i] <= stockMinimo[i]) {
+                resultado[cantidad++] = i;
+            }
+        }
+        return Arrays.copyOf(resultado, cantidad);
+    }
+
+    // ==================== AGREGADOS ====================
+
+    /**
+     * Valor del inventario (precio × stock) en centavos
+     */
+    public long valorInventarioCentavos() {
+        if (tamano < UMBRAL_PARALELO) {
+            return valorInventarioCentavos(0, tamano);
+        }
+        return ForkJoinPool.commonPool().invoke(new SumaValor(this, 0, tamano));
+    }
+
+    public long valorInventarioCentavos(int desde, int hasta) {
+        long total = 0;
+        for (int i = desde; i < hasta; i++) {
+            total += precioCentavos[i] * stock[i];
+        }
+        return total;
+    }
+
+    public int contarStockBajo() {
+        int cantidad = 0;
+        for (int i = 0; i < tamano; i++) {
+            if (stock[i] <= stockMinimo[i]) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+
+    /**
+     * Suma dividida en mitades hasta llegar a tramos de UMBRAL_PARALELO filas
+     */
+    private static final class SumaValor extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final TablaProductos tabla;
+        private final int desde;
+        private final int hasta;
+
+        SumaValor(TablaProductos tabla, int desde, int hasta) {
+            this.tabla = tabla;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hasta - desde <= UMBRAL_PARALELO) {
+                return tabla.valorInventarioCentavos(desde, hasta);
+            }
+            int medio = (desde + hasta) >>> 1;
+            SumaValor izquierda = new SumaValor(tabla, desde, medio);
+            izquierda.fork();
+            long derecha = new SumaValor(tabla, medio, hasta).compute();
+            return izquierda.join() + derecha;
+        }
+    }
+}
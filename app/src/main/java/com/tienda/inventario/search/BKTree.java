@@ -0,0 +1,118 @@
+package com.tienda.inventario.search;
+
+import java.util.Arrays;
+
+/**
+ * Árbol BK sobre el vocabulario de tokens para encontrar palabras a una
+ * distancia de edición acotada sin comparar contra todo el vocabulario.
+ *
+ * Los nodos se guardan en arreglos paralelos (sin objetos por nodo), que
+ * crecen si se agregan palabras después de la construcción.
+ */
+final class BKTree {
+
+    private static final int SIN_HIJO = -1;
+
+    private String[] palabras;
+    private int[] tokenIds;
+
+    // Hijos de cada nodo como lista enlazada: primerHijo -> siguienteHermano
+    private int[] primerHijo;
+    private int[] siguienteHermano;
+    private int[] distanciaAlPadre;
+    private int tamano = 0;
+
+    BKTree(int capacidad) {
+        capacidad = Math.max(1, capacidad);
+        palabras = new String[capacidad];
+        tokenIds = new int[capacidad];
+        primerHijo = new int[capacidad];
+        siguienteHermano = new int[capacidad];
+        distanciaAlPadre = new int[capacidad];
+        Arrays.fill(primerHijo, SIN_HIJO);
+        Arrays.fill(siguienteHermano, SIN_HIJO);
+    }
+
+    void agregar(String palabra, int tokenId) {
+        if (tamano == palabras.length) {
+            crecer();
+        }
+        int nuevo = tamano++;
+        palabras[nuevo] = palabra;
+        tokenIds[nuevo] = tokenId;
+        if (nuevo == 0) {
+            return;
+        }
+
+        int nodo = 0;
+        while (true) {
+            int d = Levenshtein.distancia(palabra, palabras[nodo], Integer.MAX_VALUE);
+            if (d == 0) {
+                tamano--;
+                return;
+            }
+
+            int hijo = primerHijo[nodo];
+            while (hijo != SIN_HIJO && distanciaAlPadre[hijo] != d) {
+                hijo = siguienteHermano[hijo];
+            }
+
+            if (hijo == SIN_HIJO) {
+                distanciaAlPadre[nuevo] = d;
+                siguienteHermano[nuevo] = primerHijo[nodo];
+                primerHijo[nodo] = nuevo;
+                return;
+            }
+            nodo = hijo;
+        }
+    }
+
+    private void crecer() {
+        int anterior = palabras.length;
+        int capacidad = anterior * 2;
+        palabras = Arrays.copyOf(palabras, capacidad);
+        tokenIds = Arrays.copyOf(tokenIds, capacidad);
+        primerHijo = Arrays.copyOf(primerHijo, capacidad);
+        siguienteHermano = Arrays.copyOf(siguienteHermano, capacidad);
+        distanciaAlPadre = Arrays.copyOf(distanciaAlPadre, capacidad);
+        Arrays.fill(primerHijo, anterior, capacidad, SIN_HIJO);
+        Arrays.fill(siguienteHermano, anterior, capacidad, SIN_HIJO);
+    }
+
+    interface Visitante {
+        void encontrado(int tokenId, int distancia);
+    }
+
+    /**
+     * Visitar todos los tokens a distancia <= maxDistancia de la consulta
+     */
+    void buscar(String consulta, int maxDistancia, Visitante visitante) {
+        if (tamano == 0) {
+            return;
+        }
+
+        // Cada nodo se apila a lo sumo una vez
+        int[] pendientes = new int[tamano];
+        int cima = 0;
+        pendientes[cima++] = 0;
+        while (cima > 0) {
+            int nodo = pendientes[--cima];
+            String palabra = palabras[nodo];
+
+            // Sin cota: la distancia exacta se necesita para podar por desigualdad triangular
+            int d = Levenshtein.distancia(consulta, palabra, Integer.MAX_VALUE);
+            if (d <= maxDistancia) {
+                visitante.encontrado(tokenIds[nodo], d);
+            }
+
+            int min = d - maxDistancia;
+            int max = d + maxDistancia;
+            for (int hijo = primerHijo[nodo]; hijo != SIN_HIJO; hijo = siguienteHermano[hijo]) {
+                int dh = distanciaAlPadre[hijo];
+                if (dh >= min && dh <= max) {
+                    pendientes[cima++] = hijo;
+                }
+            }
+        }
+    }
+}
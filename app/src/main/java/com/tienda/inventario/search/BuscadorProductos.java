@@ -0,0 +1,530 @@
+package com.tienda.inventario.search;
+
+import com.tienda.inventario.database.entities.Producto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Índice de búsqueda sobre el catálogo de productos.
+ *
+ * - Tokens normalizados (sin acentos, separados por guiones/espacios), así
+ *   "coca cola" encuentra "Coca-Cola" y "cocacola" también.
+ * - Coincidencia exacta, por prefijo (búsqueda mientras se escribe) y con
+ *   tolerancia a errores mediante un árbol BK sobre el vocabulario.
+ * - Subcadenas de 3+ letras dentro de una palabra ("lapi" en "portalapiz")
+ *   mediante un índice de trigramas, con menos puntaje que el prefijo.
+ * - Puntaje: nombre > descripción > código de barras; se devuelven los
+ *   mejores K productos que coinciden con todos los términos.
+ *
+ * Se construye en segundo plano. Después puede buscarse desde cualquier
+ * hilo mientras no se modifique; actualizar() cambia una fila en su lugar y
+ * debe llamarse desde el mismo hilo que busca (ver EjecutorBusqueda).
+ */
+public final class BuscadorProductos {
+
+    // Pesos por campo
+    private static final float PESO_NOMBRE = 3f;
+    private static final float PESO_DESCRIPCION = 2f;
+    private static final float PESO_CODIGO = 1f;
+
+    // Factores por tipo de coincidencia
+    private static final float FACTOR_EXACTO = 1f;
+    private static final float FACTOR_PREFIJO = 0.8f;
+    private static final float FACTOR_UNIDO = 0.9f;
+    private static final float FACTOR_SUBCADENA = 0.5f;
+    private static final float[] FACTOR_DISTANCIA = {1f, 0.6f, 0.4f};
+
+    // Límite de tokens que puede expandir un prefijo corto ("a" -> miles)
+    private static final int MAX_EXPANSION_PREFIJO = 256;
+
+    private final Producto[] productos;
+
+    // Vocabulario ordenado: permite búsqueda de prefijos por rango
+    private final String[] vocabulario;
+
+    // Tokens que aparecieron al actualizar filas, sin orden; sus ids siguen a
+    // los del vocabulario. Se vacían con la próxima construcción.
+    private final List<String> agregados = new ArrayList<>();
+    private final Map<String, Integer> idsAgregados = new HashMap<>();
+
+    // Por token: productos que lo contienen y el mejor peso de campo en cada uno
+    private int[][] postingsProductos;
+    private float[][] postingsPesos;
+
+    private final BKTree arbol;
+
+    // Trigrama -> tokens del vocabulario que lo contienen (sin los numéricos)
+    private final Map<String, int[]> trigramas;
+
+    // Arreglos de trabajo reutilizados entre búsquedas del mismo hilo
+    private final ThreadLocal<Espacio> espacio = new ThreadLocal<Espacio>() {
+        @Override
+        protected Espacio initialValue() {
+            return new Espacio(productos.length);
+        }
+    };
+
+    private BuscadorProductos(Producto[] productos, String[] vocabulario,
+                              int[][] postingsProductos, float[][] postingsPesos, BKTree arbol,
+                              Map<String, int[]> trigramas) {
+        this.productos = productos;
+        this.vocabulario = vocabulario;
+        this.postingsProductos = postingsProductos;
+        this.postingsPesos = postingsPesos;
+        this.arbol = arbol;
+        this.trigramas = trigramas;
+    }
+
+    public int getCantidadProductos() {
+        return productos.length;
+    }
+
+    // ==================== CONSTRUCCIÓN ====================
+
+    public static BuscadorProductos construir(List<Producto> lista) {
+        Producto[] productos = lista.toArray(new Producto[0]);
+        Map<String, Postings> indice = new HashMap<>();
+
+        for (int i = 0; i < productos.length; i++) {
+            int producto = i;
+            tokenizar(productos[i], (token, peso) -> indexar(indice, token, producto, peso));
+        }
+
+        String[] vocabulario = indice.keySet().toArray(new String[0]);
+        Arrays.sort(vocabulario);
+
+        int[][] postingsProductos = new int[vocabulario.length][];
+        float[][] postingsPesos = new float[vocabulario.length][];
+        BKTree arbol = new BKTree(vocabulario.length);
+
+        for (int t = 0; t < vocabulario.length; t++) {
+            Postings postings = indice.get(vocabulario[t]);
+            postingsProductos[t] = Arrays.copyOf(postings.productos, postings.tamano);
+            postingsPesos[t] = Arrays.copyOf(postings.pesos, postings.tamano);
+        }
+
+        // Insertar en orden aleatorio-estable (no alfabético) para un árbol más balanceado.
+        // Los tokens numéricos (códigos de barras) solo se buscan por prefijo.
+        for (int t = 0; t < vocabulario.length; t++) {
+            int mezclado = (int) (((long) t * 0x9E3779B1L) % vocabulario.length);
+            if (!esNumerico(vocabulario[mezclado])) {
+                arbol.agregar(vocabulario[mezclado], mezclado);
+            }
+        }
+
+        return new BuscadorProductos(productos, vocabulario, postingsProductos, postingsPesos, arbol,
+                indexarTrigramas(vocabulario));
+    }
+
+    private static Map<String, int[]> indexarTrigramas(String[] vocabulario) {
+        Map<String, ListaTokens> listas = new HashMap<>();
+        for (int t = 0; t < vocabulario.length; t++) {
+            String token = vocabulario[t];
+            if (esNumerico(token)) {
+                continue;
+            }
+            for (int i = 0; i + 3 <= token.length(); i++) {
+                String trigrama = token.substring(i, i + 3);
+                ListaTokens lista = listas.get(trigrama);
+                if (lista == null) {
+                    lista = new ListaTokens();
+                    listas.put(trigrama, lista);
+                }
+                lista.agregar(t);
+            }
+        }
+
+        Map<String, int[]> trigramas = new HashMap<>(listas.size() * 2);
+        for (Map.Entry<String, ListaTokens> entry : listas.entrySet()) {
+            ListaTokens lista = entry.getValue();
+            trigramas.put(entry.getKey(), Arrays.copyOf(lista.ids, lista.tamano));
+        }
+        return trigramas;
+    }
+
+    private interface DestinoToken {
+        void agregar(String token, float peso);
+    }
+
+    /**
+     * Tokens de un producto con el peso de su campo; un token puede llegar
+     * más de una vez (se queda el mayor peso)
+     */
+    private static void tokenizar(Producto p, DestinoToken destino) {
+        // El nombre ya viene normalizado desde el producto (ver Producto.prepararClaves)
+        String[] tokensNombre = NormalizadorTexto.tokenizarNormalizado(p.getNombreBusqueda());
+        for (String token : tokensNombre) {
+            destino.agregar(token, PESO_NOMBRE);
+        }
+
+        // Palabras unidas: "coca cola" también se indexa como "cocacola"
+        for (int t = 0; t + 1 < tokensNombre.length; t++) {
+            destino.agregar(tokensNombre[t] + tokensNombre[t + 1], PESO_NOMBRE * FACTOR_UNIDO);
+        }
+
+        for (String token : NormalizadorTexto.tokenizar(p.getDescripcion())) {
+            destino.agregar(token, PESO_DESCRIPCION);
+        }
+        for (String token : NormalizadorTexto.tokenizar(p.getCodigoBarras())) {
+            destino.agregar(token, PESO_CODIGO);
+        }
+    }
+
+    private static boolean esNumerico(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void indexar(Map<String, Postings> indice, String token, int producto, float peso) {
+        Postings postings = indice.get(token);
+        if (postings == null) {
+            postings = new Postings();
+            indice.put(token, postings);
+        }
+        postings.agregar(producto, peso);
+    }
+
+    // ==================== ACTUALIZACIÓN ====================
+
+    /**
+     * Mismo texto indexable: cambiar uno por otro no cambia los resultados
+     */
+    public static boolean mismoTexto(Producto a, Producto b) {
+        return Objects.equals(a.getNombreProducto(), b.getNombreProducto())
+                && Objects.equals(a.getDescripcion(), b.getDescripcion())
+                && Objects.equals(a.getCodigoBarras(), b.getCodigoBarras());
+    }
+
+    /**
+     * Reemplazar el producto de una posición sin reconstruir el índice.
+     * Si cambió su texto se mueven solo sus postings; un token que no estaba
+     * en el vocabulario se agrega al final (ver agregados).
+     */
+    public void actualizar(int posicion, Producto producto) {
+        Producto anterior = productos[posicion];
+        productos[posicion] = producto;
+        if (mismoTexto(anterior, producto)) {
+            return;
+        }
+
+        for (String token : pesosPorToken(anterior).keySet()) {
+            int tokenId = idDe(token);
+            if (tokenId >= 0) {
+                quitarPosting(tokenId, posicion);
+            }
+        }
+        for (Map.Entry<String, Float> entry : pesosPorToken(producto).entrySet()) {
+            int tokenId = idDe(entry.getKey());
+            if (tokenId < 0) {
+                tokenId = agregarToken(entry.getKey());
+            }
+            agregarPosting(tokenId, posicion, entry.getValue());
+        }
+    }
+
+    private static Map<String, Float> pesosPorToken(Producto producto) {
+        Map<String, Float> pesos = new HashMap<>();
+        tokenizar(producto, (token, peso) -> pesos.merge(token, peso, Math::max));
+        return pesos;
+    }
+
+    private int idDe(String token) {
+        int tokenId = Arrays.binarySearch(vocabulario, token);
+        if (tokenId >= 0) {
+            return tokenId;
+        }
+        Integer agregado = idsAgregados.get(token);
+        return agregado != null ? agregado : -1;
+    }
+
+    private String token(int tokenId) {
+        return tokenId < vocabulario.length ? vocabulario[tokenId] : agregados.get(tokenId - vocabulario.length);
+    }
+
+    private int agregarToken(String token) {
+        int tokenId = vocabulario.length + agregados.size();
+        agregados.add(token);
+        idsAgregados.put(token, tokenId);
+
+        if (tokenId == postingsProductos.length) {
+            int capacidad = Math.max(4, postingsProductos.length + postingsProductos.length / 2);
+            postingsProductos = Arrays.copyOf(postingsProductos, capacidad);
+            postingsPesos = Arrays.copyOf(postingsPesos, capacidad);
+        }
+        postingsProductos[tokenId] = new int[0];
+        postingsPesos[tokenId] = new float[0];
+
+        if (!esNumerico(token)) {
+            arbol.agregar(token, tokenId);
+            for (int i = 0; i + 3 <= token.length(); i++) {
+                String trigrama = token.substring(i, i + 3);
+                int[] ids = trigramas.get(trigrama);
+                if (ids == null) {
+                    trigramas.put(trigrama, new int[]{tokenId});
+                } else if (ids[ids.length - 1] != tokenId) {
+                    int[] nuevos = Arrays.copyOf(ids, ids.length + 1);
+                    nuevos[ids.length] = tokenId;
+                    trigramas.put(trigrama, nuevos);
+                }
+            }
+        }
+        return tokenId;
+    }
+
+    private void quitarPosting(int tokenId, int producto) {
+        int[] ids = postingsProductos[tokenId];
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == producto) {
+                float[] pesos = postingsPesos[tokenId];
+                int[] nuevosIds = Arrays.copyOf(ids, ids.length - 1);
+                float[] nuevosPesos = Arrays.copyOf(pesos, pesos.length - 1);
+                System.arraycopy(ids, i + 1, nuevosIds, i, ids.length - i - 1);
+                System.arraycopy(pesos, i + 1, nuevosPesos, i, pesos.length - i - 1);
+                postingsProductos[tokenId] = nuevosIds;
+                postingsPesos[tokenId] = nuevosPesos;
+                return;
+            }
+        }
+    }
+
+    private void agregarPosting(int tokenId, int producto, float peso) {
+        int[] ids = postingsProductos[tokenId];
+        int[] nuevosIds = Arrays.copyOf(ids, ids.length + 1);
+        float[] nuevosPesos = Arrays.copyOf(postingsPesos[tokenId], ids.length + 1);
+        nuevosIds[ids.length] = producto;
+        nuevosPesos[ids.length] = peso;
+        postingsProductos[tokenId] = nuevosIds;
+        postingsPesos[tokenId] = nuevosPesos;
+    }
+
+    // ==================== BÚSQUEDA ====================
+
+    /**
+     * Buscar los mejores productos para la consulta, ordenados por puntaje
+     */
+    public List<Producto> buscar(String consulta, int maxResultados) {
+        int[] indices = buscarIndices(consulta, maxResultados);
+        List<Producto> resultado = new ArrayList<>(indices.length);
+        for (int indice : indices) {
+            resultado.add(productos[indice]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Igual que buscar() pero devuelve posiciones dentro de la lista indexada
+     */
+    public int[] buscarIndices(String consulta, int maxResultados) {
+        String[] terminos = NormalizadorTexto.tokenizar(consulta);
+        if (terminos.length == 0 || productos.length == 0 || maxResultados <= 0) {
+            return new int[0];
+        }
+
+        Espacio e = espacio.get();
+        float[] acumulado = e.acumulado;
+        int[] coincidencias = e.coincidencias;
+        float[] mejorTermino = e.mejorTermino;
+        int[] tocados = e.tocados;
+
+        for (int t = 0; t < terminos.length; t++) {
+            int cantidadTocados = puntuarTermino(terminos[t], mejorTermino, tocados);
+
+            for (int i = 0; i < cantidadTocados; i++) {
+                int p = tocados[i];
+                // Solo cuentan los productos que coincidieron con todos los términos previos
+                if (coincidencias[p] == t) {
+                    acumulado[p] += mejorTermino[p];
+                    coincidencias[p] = t + 1;
+                }
+                mejorTermino[p] = 0f;
+            }
+        }
+
+        return mejores(acumulado, coincidencias, terminos.length, maxResultados);
+    }
+
+    /**
+     * Puntuar un término contra el vocabulario
+     *
+     * @return cantidad de productos tocados (sus índices quedan en tocados)
+     */
+    private int puntuarTermino(String termino, float[] mejor, int[] tocados) {
+        int[] cantidad = {0};
+
+        // Exacto y prefijo: rango en el vocabulario ordenado
+        int desde = Arrays.binarySearch(vocabulario, termino);
+        if (desde < 0) {
+            desde = -desde - 1;
+        }
+        for (int v = desde, n = 0; v < vocabulario.length && n < MAX_EXPANSION_PREFIJO; v++, n++) {
+            String token = vocabulario[v];
+            if (!token.startsWith(termino)) {
+                break;
+            }
+            float factor = token.length() == termino.length() ? FACTOR_EXACTO : FACTOR_PREFIJO;
+            sumarPostings(v, factor, mejor, tocados, cantidad);
+        }
+        for (int a = 0; a < agregados.size(); a++) {
+            String token = agregados.get(a);
+            if (token.startsWith(termino)) {
+                float factor = token.length() == termino.length() ? FACTOR_EXACTO : FACTOR_PREFIJO;
+                sumarPostings(vocabulario.length + a, factor, mejor, tocados, cantidad);
+            }
+        }
+
+        // Tolerancia a errores: más distancia permitida en palabras largas
+        int maxDistancia = termino.length() <= 3 ? 0 : termino.length() <= 6 ? 1 : 2;
+        if (maxDistancia > 0 && !esNumerico(termino)) {
+            arbol.buscar(termino, maxDistancia, (tokenId, distancia) -> {
+                if (distancia > 0) {
+                    sumarPostings(tokenId, FACTOR_DISTANCIA[distancia], mejor, tocados, cantidad);
+                }
+            });
+        }
+
+        // Dentro de una palabra ("top" en "laptop")
+        if (termino.length() >= 3 && !esNumerico(termino)) {
+            buscarSubcadena(termino, mejor, tocados, cantidad);
+        }
+
+        return cantidad[0];
+    }
+
+    /**
+     * Tokens que contienen el término: se verifican solo los de su trigrama
+     * menos frecuente. Los prefijos ya puntuados conservan su puntaje mayor.
+     */
+    private void buscarSubcadena(String termino, float[] mejor, int[] tocados, int[] cantidad) {
+        int[] candidatos = null;
+        for (int i = 0; i + 3 <= termino.length(); i++) {
+            int[] ids = trigramas.get(termino.substring(i, i + 3));
+            if (ids == null) {
+                return;
+            }
+            if (candidatos == null || ids.length < candidatos.length) {
+                candidatos = ids;
+            }
+        }
+        for (int tokenId : candidatos) {
+            if (token(tokenId).indexOf(termino, 1) > 0) {
+                sumarPostings(tokenId, FACTOR_SUBCADENA, mejor, tocados, cantidad);
+            }
+        }
+    }
+
+    private void sumarPostings(int tokenId, float factor, float[] mejor, int[] tocados, int[] cantidad) {
+        int[] ids = postingsProductos[tokenId];
+        float[] pesos = postingsPesos[tokenId];
+        for (int i = 0; i < ids.length; i++) {
+            int p = ids[i];
+            float puntaje = pesos[i] * factor;
+            if (mejor[p] == 0f) {
+                tocados[cantidad[0]++] = p;
+            }
+            if (puntaje > mejor[p]) {
+                mejor[p] = puntaje;
+            }
+        }
+    }
+
+    /**
+     * Top-K con un montículo mínimo; empates por orden de catálogo.
+     * Deja puntajes y coincidencias en cero para la siguiente búsqueda.
+     */
+    private static int[] mejores(float[] puntajes, int[] coincidencias, int requeridas, int k) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, k), (a, b) -> {
+            int cmp = Float.compare(puntajes[a], puntajes[b]);
+            return cmp != 0 ? cmp : Integer.compare(b, a);
+        });
+
+        for (int p = 0; p < puntajes.length; p++) {
+            boolean completo = coincidencias[p] == requeridas;
+            coincidencias[p] = 0;
+            if (!completo) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(p);
+            } else if (puntajes[p] > puntajes[heap.peek()]) {
+                heap.poll();
+                heap.add(p);
+            }
+        }
+
+        int[] resultado = new int[heap.size()];
+        for (int i = resultado.length - 1; i >= 0; i--) {
+            resultado[i] = heap.poll();
+        }
+        Arrays.fill(puntajes, 0f);
+        return resultado;
+    }
+
+    private static final class Espacio {
+        final float[] acumulado;
+        final int[] coincidencias;
+        final float[] mejorTermino;
+        final int[] tocados;
+
+        Espacio(int n) {
+            acumulado = new float[n];
+            coincidencias = new int[n];
+            mejorTermino = new float[n];
+            tocados = new int[n];
+        }
+    }
+
+    /**
+     * Lista creciente de tokens para un trigrama durante la construcción
+     */
+    private static final class ListaTokens {
+        int[] ids = new int[4];
+        int tamano = 0;
+
+        void agregar(int tokenId) {
+            // Un token con el trigrama repetido ("anana") se agrega una vez
+            if (tamano > 0 && ids[tamano - 1] == tokenId) {
+                return;
+            }
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            ids[tamano++] = tokenId;
+        }
+    }
+
+    /**
+     * Lista creciente de (producto, peso) para un token durante la construcción
+     */
+    private static final class Postings {
+        int[] productos = new int[4];
+        float[] pesos = new float[4];
+        int tamano = 0;
+
+        void agregar(int producto, float peso) {
+            // Los productos llegan en orden: solo puede repetirse el último
+            if (tamano > 0 && productos[tamano - 1] == producto) {
+                if (peso > pesos[tamano - 1]) {
+                    pesos[tamano - 1] = peso;
+                }
+                return;
+            }
+            if (tamano == productos.length) {
+                productos = Arrays.copyOf(productos, tamano * 2);
+                pesos = Arrays.copyOf(pesos, tamano * 2);
+            }
+            productos[tamano] = producto;
+            pesos[tamano] = peso;
+            tamano++;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.tienda.inventario.search;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Locale;
+
+/**
+ * Claves de ordenamiento para nombres en español.
+ *
+ * Un Collator compara "ñ" después de "n" y trata "á" como variante de "a",
+ * pero cada compare() vuelve a analizar las dos cadenas. La CollationKey se
+ * calcula una vez por nombre y después se compara como arreglo de bytes.
+ */
+public final class ColacionTexto {
+
+    // Collator no es seguro entre hilos: todo acceso pasa por claveDe()
+    private static final Collator COLLATOR = Collator.getInstance(new Locale("es"));
+
+    static {
+        // Ignora mayúsculas, distingue acentos
+        COLLATOR.setStrength(Collator.SECONDARY);
+    }
+
+    private ColacionTexto() {
+    }
+
+    public static CollationKey claveDe(String texto) {
+        synchronized (COLLATOR) {
+            return COLLATOR.getCollationKey(texto != null ? texto : "");
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.tienda.inventario.search;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.diagnostico.Metricas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta las búsquedas en un único hilo de fondo.
+ *
+ * - Cada consulta nueva incrementa un contador de generación y cancela la
+ *   anterior; los resultados de consultas viejas nunca llegan a la UI.
+ * - El debounce se adapta al costo medido de las búsquedas: catálogos
+ *   pequeños responden casi al instante, los grandes esperan más al teclear.
+ * - El índice se construye y se actualiza en el mismo hilo, así una
+ *   búsqueda nunca corre contra un índice a medio construir.
+ * - Un catálogo nuevo se indexa de cero; si solo cambiaron algunas filas en
+ *   su lugar (cambios optimistas, deshacer) se actualizan esas filas.
+ */
+public class EjecutorBusqueda {
+
+    public interface OnResultadosListener {
+        void onResultados(String consulta, List<Producto> resultados);
+    }
+
+    // Límites del debounce adaptativo (ms)
+    private static final long DEBOUNCE_MIN_MS = 60;
+    private static final long DEBOUNCE_MAX_MS = 400;
+    private static final float FACTOR_DEBOUNCE = 3f;
+
+    // Peso de la última medición en el promedio móvil
+    private static final float ALFA_EWMA = 0.3f;
+
+    // Con más filas cambiadas conviene reconstruir el índice
+    private static final int MAX_FILAS_ACTUALIZAR = 64;
+
+    private final ScheduledExecutorService ejecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generacion = new AtomicInteger();
+    private final int maxResultados;
+    private final OnResultadosListener listener;
+
+    // Solo se escribe desde el hilo de búsqueda
+    private BuscadorProductos buscador;
+    private volatile float costoPromedioMs = 0f;
+
+    // Solo se accede desde el hilo principal
+    private Future<?> pendiente;
+    private List<Producto> catalogoIndexado;
+
+    public EjecutorBusqueda(int maxResultados, OnResultadosListener listener) {
+        this.maxResultados = maxResultados;
+        this.listener = listener;
+
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "busqueda-productos");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        // Las tareas canceladas salen de la cola en lugar de esperar su turno
+        pool.setRemoveOnCancelPolicy(true);
+        this.ejecutor = pool;
+    }
+
+    /**
+     * Llevar el índice al catálogo publicado (en segundo plano)
+     *
+     * @return true si cambió el texto indexado y hay que repetir la búsqueda activa
+     */
+    public boolean indexar(List<Producto> catalogo) {
+        List<Producto> anterior = catalogoIndexado;
+        catalogoIndexado = catalogo;
+        if (anterior == null || anterior.size() != catalogo.size()) {
+            reconstruir(catalogo);
+            return true;
+        }
+
+        // Mismas posiciones: buscar las filas reemplazadas
+        int[] filas = new int[MAX_FILAS_ACTUALIZAR];
+        int cantidad = 0;
+        boolean cambiaTexto = false;
+        for (int i = 0; i < catalogo.size(); i++) {
+            Producto nuevo = catalogo.get(i);
+            Producto previo = anterior.get(i);
+            if (nuevo == previo) {
+                continue;
+            }
+            if (cantidad == MAX_FILAS_ACTUALIZAR || !mismoDocumento(previo, nuevo)) {
+                reconstruir(catalogo);
+                return true;
+            }
+            filas[cantidad++] = i;
+            cambiaTexto |= !BuscadorProductos.mismoTexto(previo, nuevo);
+        }
+        if (cantidad > 0) {
+            actualizar(Arrays.copyOf(filas, cantidad), catalogo);
+        }
+        return cambiaTexto;
+    }
+
+    private static boolean mismoDocumento(Producto a, Producto b) {
+        return a.getDocId() != null && a.getDocId().equals(b.getDocId());
+    }
+
+    private void actualizar(int[] filas, List<Producto> catalogo) {
+        Producto[] productos = new Producto[filas.length];
+        for (int i = 0; i < filas.length; i++) {
+            productos[i] = catalogo.get(filas[i]);
+        }
+        ejecutor.execute(() -> {
+            if (buscador == null) {
+                return;
+            }
+            long inicio = Metricas.ahora();
+            Trace.beginSection("BuscadorProductos.actualizar");
+            try {
+                for (int i = 0; i < filas.length; i++) {
+                    buscador.actualizar(filas[i], productos[i]);
+                }
+            } finally {
+                Trace.endSection();
+            }
+            Metricas.getInstance().operacion(Metricas.ACTUALIZAR_INDICE).exito(inicio, filas.length);
+        });
+    }
+
+    private void reconstruir(List<Producto> catalogo) {
+        List<Producto> copia = new ArrayList<>(catalogo);
+        ejecutor.execute(() -> {
+            long inicio = Metricas.ahora();
+            Trace.beginSection("BuscadorProductos.construir");
+            try {
+                buscador = BuscadorProductos.construir(copia);
+            } finally {
+                Trace.endSection();
+            }
+            Metricas.getInstance().operacion(Metricas.INDEXAR).exito(inicio, copia.size());
+        });
+    }
+
+    /**
+     * Programar una búsqueda mientras el usuario escribe (con debounce)
+     */
+    public void programar(String consulta) {
+        enviar(consulta, debounceActualMs());
+    }
+
+    /**
+     * Buscar de inmediato (botón Buscar)
+     */
+    public void buscarAhora(String consulta) {
+        enviar(consulta, 0);
+    }
+
+    /**
+     * Descartar cualquier búsqueda pendiente o en curso
+     */
+    public void cancelar() {
+        generacion.incrementAndGet();
+        if (pendiente != null) {
+            pendiente.cancel(false);
+            pendiente = null;
+        }
+    }
+
+    public void cerrar() {
+        cancelar();
+        ejecutor.shutdownNow();
+    }
+
+    private void enviar(String consulta, long retrasoMs) {
+        cancelar();
+        final int miGeneracion = generacion.get();
+
+        pendiente = ejecutor.schedule(() -> {
+            if (miGeneracion != generacion.get() || buscador == null) {
+                return;
+            }
+
+            long inicio = SystemClock.elapsedRealtimeNanos();
+            List<Producto> resultados;
+            Trace.beginSection("BuscadorProductos.buscar");
+            try {
+                resultados = buscador.buscar(consulta, maxResultados);
+            } finally {
+                Trace.endSection();
+            }
+            long duracion = SystemClock.elapsedRealtimeNanos() - inicio;
+            registrarCosto(duracion / 1_000_000f);
+            Metricas.getInstance().operacion(Metricas.BUSCAR).registrar(duracion, resultados.size());
+
+            mainHandler.post(() -> {
+                if (miGeneracion == generacion.get()) {
+                    listener.onResultados(consulta, resultados);
+                }
+            });
+        }, retrasoMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void registrarCosto(float ms) {
+        costoPromedioMs = costoPromedioMs == 0f
+                ? ms
+                : ALFA_EWMA * ms + (1 - ALFA_EWMA) * costoPromedioMs;
+    }
+
+    private long debounceActualMs() {
+        long retraso = DEBOUNCE_MIN_MS + (long) (costoPromedioMs * FACTOR_DEBOUNCE);
+        return Math.min(DEBOUNCE_MAX_MS, retraso);
+    }
+}
@@ -0,0 +1,57 @@
+package com.tienda.inventario.search;
+
+/**
+ * Distancia de edición con corte temprano cuando supera el máximo.
+ */
+final class Levenshtein {
+
+    private Levenshtein() {
+    }
+
+    /**
+     * @return la distancia, o maximo + 1 si se sabe que la supera
+     */
+    static int distancia(String a, String b, int maximo) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maximo) {
+            return maximo + 1;
+        }
+        if (n == 0) {
+            return m;
+        }
+        if (m == 0) {
+            return n;
+        }
+
+        int[] anterior = new int[m + 1];
+        int[] actual = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            anterior[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            actual[0] = i;
+            int minFila = actual[0];
+            char ca = a.charAt(i - 1);
+
+            for (int j = 1; j <= m; j++) {
+                int costo = ca == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+                actual[j] = valor;
+                if (valor < minFila) {
+                    minFila = valor;
+                }
+            }
+
+            if (minFila > maximo) {
+                return maximo + 1;
+            }
+
+            int[] tmp = anterior;
+            anterior = actual;
+            actual = tmp;
+        }
+        return anterior[m];
+    }
+}
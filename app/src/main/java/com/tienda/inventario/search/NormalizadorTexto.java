@@ -0,0 +1,83 @@
+package com.tienda.inventario.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalización de texto para búsqueda: minúsculas, sin acentos y
+ * separando por cualquier carácter que no sea letra o dígito.
+ *
+ * "Coca-Cola Light 600ml" -> [coca, cola, light, 600ml]
+ */
+public final class NormalizadorTexto {
+
+    private static final String[] SIN_TOKENS = new String[0];
+
+    private NormalizadorTexto() {
+    }
+
+    /**
+     * Texto en minúsculas y sin marcas diacríticas (á -> a, ñ -> n)
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+
+        String lower = texto.toLowerCase(Locale.ROOT);
+
+        // Camino rápido: texto ASCII no necesita descomposición
+        boolean ascii = true;
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7F) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            return lower;
+        }
+
+        String descompuesto = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Dividir en tokens normalizados
+     */
+    public static String[] tokenizar(String texto) {
+        return tokenizarNormalizado(normalizar(texto));
+    }
+
+    /**
+     * Dividir en tokens un texto que ya pasó por normalizar()
+     */
+    public static String[] tokenizarNormalizado(String normalizado) {
+        if (normalizado.isEmpty()) {
+            return SIN_TOKENS;
+        }
+
+        List<String> tokens = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean alfanumerico = i < normalizado.length()
+                    && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (alfanumerico && inicio < 0) {
+                inicio = i;
+            } else if (!alfanumerico && inicio >= 0) {
+                tokens.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return tokens.toArray(SIN_TOKENS);
+    }
+}
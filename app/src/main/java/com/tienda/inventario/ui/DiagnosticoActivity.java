@@ -0,0 +1,108 @@
+package com.tienda.inventario.ui;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.tienda.inventario.databinding.ActivityDiagnosticoBinding;
+import com.tienda.inventario.diagnostico.Metricas;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
+/**
+ * Pantalla de diagnóstico: latencias, documentos, bytes, aciertos de caché
+ * y errores por operación (ver Metricas). Se refresca sola mientras está
+ * visible y permite compartir la foto en JSON.
+ */
+public class DiagnosticoActivity extends AppCompatActivity {
+
+    private static final long INTERVALO_REFRESCO_MS = 1000;
+
+    private ActivityDiagnosticoBinding binding;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable refresco = new Runnable() {
+        @Override
+        public void run() {
+            mostrar();
+            mainHandler.postDelayed(this, INTERVALO_REFRESCO_MS);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        binding = ActivityDiagnosticoBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        setSupportActionBar(binding.toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle("Diagnóstico");
+        }
+
+        binding.btnActualizar.setOnClickListener(v -> mostrar());
+        binding.btnReiniciar.setOnClickListener(v -> {
+            Metricas.getInstance().reiniciar();
+            mostrar();
+        });
+        binding.btnCompartir.setOnClickListener(v -> compartir());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mainHandler.post(refresco);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        mainHandler.removeCallbacks(refresco);
+    }
+
+    private void mostrar() {
+        binding.tvMetricas.setText(Metricas.getInstance().comoTexto());
+    }
+
+    private void compartir() {
+        Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.setType("application/json");
+        intent.putExtra(Intent.EXTRA_SUBJECT, "Métricas de Inventario");
+        intent.putExtra(Intent.EXTRA_TEXT, Metricas.getInstance().comoJson());
+        startActivity(Intent.createChooser(intent, "Compartir métricas"));
+    }
+
+    /**
+     * adb shell dumpsys activity com.tienda.inventario/.ui.DiagnosticoActivity [--json]
+     */
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        volcarMetricas(writer, args);
+    }
+
+    /**
+     * Volcado de Metricas para dumpsys: texto, o JSON si se pasa --json
+     */
+    static void volcarMetricas(PrintWriter writer, String[] args) {
+        boolean json = false;
+        if (args != null) {
+            for (String arg : args) {
+                json |= "--json".equals(arg);
+            }
+        }
+        writer.println(json ? Metricas.getInstance().comoJson() : Metricas.getInstance().comoTexto());
+        writer.flush();
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        finish();
+        return true;
+    }
+}
@@ -1,12 +1,12 @@
 package com.tienda.inventario.ui;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
-import android.os.Handler;
 import android.os.Looper;
+import android.os.Trace;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
@@ -17,54 +17,110 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.bumptech.glide.Glide;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.tienda.inventario.R;
 import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Movimiento;
 import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.database.entities.ResumenInventario;
 import com.tienda.inventario.databinding.ActivityMainBinding;
-import com.tienda.inventario.database.FirestoreManager;
+import com.tienda.inventario.importacion.ImportadorProductos;
+import com.tienda.inventario.importacion.ProgresoImportacion;
+import com.tienda.inventario.search.EjecutorBusqueda;
+import com.tienda.inventario.database.InventoryDataSource;
+import com.tienda.inventario.database.ImagenUploader;
+import com.tienda.inventario.repository.ConsultaProductos;
+import com.tienda.inventario.repository.InventoryRepository;
+import com.tienda.inventario.repository.OrdenProductos;
 import com.tienda.inventario.ui.adapter.FormProductoActivity;
 import com.tienda.inventario.ui.adapter.ProductoAdapter;
+import com.tienda.inventario.diagnostico.Registro;
 
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "MainActivity";
-    private FirestoreManager firestoreManager;
+    private static final int FILAS_PRECARGADAS = 8;
+    private static final int MAX_RESULTADOS_BUSQUEDA = 200;
+    private MainViewModel viewModel;
+    private InventoryRepository repository;
     private ActivityMainBinding binding;
     private ProductoAdapter adapter;
 
-    private List<Producto> listaProductos = new ArrayList<>();
-    private List<Producto> listaProductosOriginal = new ArrayList<>();
-    private List<Categoria> listaCategorias = new ArrayList<>();
+    // Búsqueda en segundo plano con cancelación de consultas viejas
+    private EjecutorBusqueda ejecutorBusqueda;
 
-    private Handler searchHandler = new Handler(Looper.getMainLooper());
-    private Runnable searchRunnable;
+    // Importación masiva del catálogo (CSV o JSON)
+    private ImportadorProductos importador;
+    private AlertDialog dialogoImportacion;
+    private LinearProgressIndicator barraImportacion;
+    private TextView textoImportacion;
 
-    @Override
-    protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-        binding = ActivityMainBinding.inflate(getLayoutInflater());
-        setContentView(binding.getRoot());
-
-        Log.d(TAG, "onCreate iniciado");
+    private final ActivityResultLauncher<String[]> elegirArchivoImportacion =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::alElegirArchivoImportacion);
 
-        firestoreManager = FirestoreManager.getInstance();
-        setSupportActionBar(binding.toolbar);
+    // TTFD: se informa una vez, cuando se muestra la primera lista de productos
+    private boolean dibujoCompletoInformado = false;
 
-        setupRecyclerView();
-        setupListeners();
-
-        cargarCategorias();
-        cargarProductos();
+    /**
+     * Las fases del arranque quedan marcadas como secciones de traza
+     * (visibles en Perfetto y en las trazas del módulo :benchmark)
+     */
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        Trace.beginSection("MainActivity.onCreate");
+        try {
+            super.onCreate(savedInstanceState);
+
+            Trace.beginSection("MainActivity.inflar");
+            binding = ActivityMainBinding.inflate(getLayoutInflater());
+            setContentView(binding.getRoot());
+            Trace.endSection();
+
+            Registro.d(TAG, "onCreate iniciado");
+
+            Trace.beginSection("MainActivity.viewModel");
+            viewModel = new ViewModelProvider(this).get(MainViewModel.class);
+            repository = viewModel.getRepository();
+            Trace.endSection();
+
+            ejecutorBusqueda = new EjecutorBusqueda(MAX_RESULTADOS_BUSQUEDA, this::mostrarResultadosBusqueda);
+            importador = ImportadorProductos.getInstance(this);
+            setSupportActionBar(binding.toolbar);
+
+            Trace.beginSection("MainActivity.recyclerView");
+            setupRecyclerView();
+            setupListeners();
+            Trace.endSection();
+
+            // Reanudar subidas de imágenes interrumpidas en sesiones anteriores,
+            // cuando el hilo principal quede libre (no compite con el primer frame)
+            Looper.myQueue().addIdleHandler(() -> {
+                ImagenUploader.getInstance(this).reanudarPendientes();
+                return false;
+            });
+
+            observarDatos();
+        } finally {
+            Trace.endSection();
+        }
     }
 
     private void setupRecyclerView() {
@@ -73,6 +129,24 @@ public class MainActivity extends AppCompatActivity {
         binding.recyclerViewProductos.setAdapter(adapter);
         binding.recyclerViewProductos.setHasFixedSize(true);
 
+        // Filas visibles en pantalla + margen, infladas fuera del hilo principal
+        adapter.precargarVistas(binding.recyclerViewProductos, FILAS_PRECARGADAS);
+
+        // Categoría y proveedor por nombre en cada fila (índice por ID del repositorio)
+        adapter.setResolutorNombres(new ProductoAdapter.ResolutorNombres() {
+            @Override
+            public String nombreCategoria(int idCategoria) {
+                Categoria categoria = repository.getCategoria(idCategoria);
+                return categoria != null ? categoria.getNombreCategoria() : null;
+            }
+
+            @Override
+            public String nombreProveedor(int idProveedor) {
+                Proveedor proveedor = repository.getProveedor(idProveedor);
+                return proveedor != null ? proveedor.getNombreProveedor() : null;
+            }
+        });
+
         adapter.setOnProductoClickListener(new ProductoAdapter.OnProductoClickListener() {
             @Override
             public void onProductoClick(Producto producto) {
@@ -86,27 +160,46 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    private void cargarCategorias() {
-        firestoreManager.getCategorias(new FirestoreManager.OnCategoriasListener() {
-            @Override
-            public void onSuccess(List<Categoria> categorias) {
-                listaCategorias = categorias;
-                configurarSpinnerCategorias();
-                Log.d(TAG, "✓ Categorías cargadas: " + categorias.size());
-            }
+    /**
+     * Observar el estado compartido del repositorio; tras una rotación se
+     * recibe el último valor sin volver a consultar Firestore
+     */
+    private void observarDatos() {
+        viewModel.getCategorias().observe(this, categorias -> {
+            configurarSpinnerCategorias();
+            adapter.refrescarNombres();
+            Registro.d(TAG, () -> "✓ Categorías cargadas: " + categorias.size());
+        });
 
-            @Override
-            public void onError(String error) {
-                Log.e(TAG, "❌ Error al cargar categorías: " + error);
+        viewModel.getProveedores().observe(this, proveedores -> adapter.refrescarNombres());
+
+        viewModel.getProductos().observe(this, this::mostrarProductos);
+        viewModel.getResumen().observe(this, this::actualizarEstadisticas);
+        viewModel.getResultado().observe(this, adapter::setProductos);
+
+        viewModel.isCargando().observe(this, cargando ->
+                binding.progressBar.setVisibility(cargando ? View.VISIBLE : View.GONE));
+
+        viewModel.getErrores().observe(this, evento -> {
+            String error = evento.getContenidoSiNoManejado();
+            if (error != null) {
+                Toast.makeText(this, "Error: " + error, Toast.LENGTH_LONG).show();
             }
         });
+
+        importador.getProgreso().observe(this, this::mostrarProgresoImportacion);
+    }
+
+    private List<Categoria> categoriasActuales() {
+        return repository.getCategoriasActuales();
     }
 
     private void configurarSpinnerCategorias() {
         List<String> nombresCategoria = new ArrayList<>();
         nombresCategoria.add("-- Todas las categorías --");
 
-        for (Categoria cat : listaCategorias) {
+        List<Categoria> categorias = categoriasActuales();
+        for (Categoria cat : categorias) {
             nombresCategoria.add(cat.getNombreCategoria());
         }
 
@@ -120,72 +213,54 @@ public class MainActivity extends AppCompatActivity {
 
         binding.spinnerFiltroCategoria.setOnItemClickListener((parent, view, position, id) -> {
             if (position == 0) {
-                adapter.setProductos(listaProductosOriginal);
+                viewModel.setConsulta(viewModel.getConsulta().conCategoria(null));
             } else {
-                int idCategoria = listaCategorias.get(position - 1).getIdCategoria();
+                int idCategoria = categorias.get(position - 1).getIdCategoria();
                 filtrarPorCategoria(idCategoria);
             }
         });
     }
 
-    private void cargarProductos() {
-        binding.progressBar.setVisibility(View.VISIBLE);
-
-        firestoreManager.getProductos(new FirestoreManager.OnProductosListener() {
-            @Override
-            public void onSuccess(List<Producto> productos) {
-                binding.progressBar.setVisibility(View.GONE);
-
-                listaProductos = productos;
-                listaProductosOriginal = new ArrayList<>(productos);
-                adapter.setProductos(productos);
-
-                actualizarEstadisticas(productos);
-
-                Log.d(TAG, "✓ Productos cargados: " + productos.size());
+    /**
+     * Catálogo nuevo o filas cambiadas: llevar el índice de búsqueda al día y,
+     * si cambió el texto indexado, repetir la búsqueda activa.
+     * La lista del adapter llega por getResultado().
+     */
+    private void mostrarProductos(List<Producto> productos) {
+        boolean cambioTexto = ejecutorBusqueda.indexar(productos);
+
+        String termino = binding.etBuscar.getText().toString().trim();
+        if (cambioTexto && termino.length() > 2) {
+            ejecutorBusqueda.buscarAhora(termino);
+        }
 
-                if (productos.isEmpty()) {
-                    Toast.makeText(MainActivity.this,
-                            "No hay productos. Agrega algunos desde el botón +",
-                            Toast.LENGTH_LONG).show();
-                }
-            }
+        Registro.d(TAG, () -> "✓ Productos cargados: " + productos.size());
 
-            @Override
-            public void onError(String error) {
-                binding.progressBar.setVisibility(View.GONE);
-                Log.e(TAG, "❌ Error al cargar productos: " + error);
-                Toast.makeText(MainActivity.this,
-                        "Error: " + error,
-                        Toast.LENGTH_LONG).show();
-            }
-        });
-    }
-
-    private void actualizarEstadisticas(List<Producto> productos) {
-        int total = productos.size();
-        double valorTotal = 0;
+        if (!dibujoCompletoInformado) {
+            dibujoCompletoInformado = true;
+            // Después del layout con la lista: marca el tiempo hasta la pantalla completa
+            binding.recyclerViewProductos.post(this::reportFullyDrawn);
+        }
 
-        for (Producto p : productos) {
-            valorTotal += p.getPrecioUnitario() * p.getStockActual();
+        if (productos.isEmpty()) {
+            Toast.makeText(MainActivity.this,
+                    "No hay productos. Agrega algunos desde el botón +",
+                    Toast.LENGTH_LONG).show();
         }
+    }
 
-        binding.tvTotalProductos.setText(String.valueOf(total));
+    private void actualizarEstadisticas(ResumenInventario resumen) {
+        binding.tvTotalProductos.setText(String.valueOf(resumen.getProductos()));
         binding.tvValorInventario.setText(
-                String.format(Locale.getDefault(), "$%.2f", valorTotal)
-        );
+                String.format(Locale.getDefault(), "$%.2f", resumen.getValorCentavos() / 100.0));
     }
 
+    /**
+     * Filtrar por categoría sin perder los demás criterios activos
+     */
     private void filtrarPorCategoria(int idCategoria) {
-        List<Producto> productosFiltrados = new ArrayList<>();
-
-        for (Producto p : listaProductosOriginal) {
-            if (p.getIdCategoria() == idCategoria) {
-                productosFiltrados.add(p);
-            }
-        }
-
-        adapter.setProductos(productosFiltrados);
+        List<Producto> productosFiltrados =
+                viewModel.setConsulta(viewModel.getConsulta().conCategoria(idCategoria));
 
         if (productosFiltrados.isEmpty()) {
             Toast.makeText(this, "No hay productos en esta categoría", Toast.LENGTH_SHORT).show();
@@ -205,11 +280,13 @@ public class MainActivity extends AppCompatActivity {
         });
 
         binding.btnMostrarTodos.setOnClickListener(v -> {
+            ejecutorBusqueda.cancelar();
             binding.etBuscar.setText("");
-            if (!listaCategorias.isEmpty()) {
+            if (!categoriasActuales().isEmpty()) {
                 binding.spinnerFiltroCategoria.setText("-- Todas las categorías --", false);
             }
-            adapter.setProductos(listaProductosOriginal);
+            // Se conserva el orden elegido; solo se quitan los filtros
+            viewModel.setConsulta(ConsultaProductos.TODOS.conOrden(viewModel.getConsulta().getOrden()));
         });
 
         binding.btnStockBajo.setOnClickListener(v -> mostrarStockBajo());
@@ -225,19 +302,14 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                if (searchRunnable != null) {
-                    searchHandler.removeCallbacks(searchRunnable);
-                }
-
-                searchRunnable = () -> {
-                    if (s.length() > 2) {
-                        buscarProductos(s.toString());
-                    } else if (s.length() == 0) {
-                        adapter.setProductos(listaProductosOriginal);
+                if (s.length() > 2) {
+                    ejecutorBusqueda.programar(s.toString());
+                } else {
+                    ejecutorBusqueda.cancelar();
+                    if (s.length() == 0) {
+                        viewModel.setBusqueda(null, null);
                     }
-                };
-
-                searchHandler.postDelayed(searchRunnable, 300);
+                }
             }
 
             @Override
@@ -245,33 +317,38 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Búsqueda con ranking y tolerancia a errores (ver BuscadorProductos)
+     */
     private void buscarProductos(String termino) {
-        List<Producto> resultados = new ArrayList<>();
-        String terminoLower = termino.toLowerCase();
+        ejecutorBusqueda.buscarAhora(termino);
+    }
 
-        for (Producto p : listaProductosOriginal) {
-            if (p.getNombreProducto().toLowerCase().contains(terminoLower)) {
-                resultados.add(p);
-            }
+    private void mostrarResultadosBusqueda(String consulta, List<Producto> resultados) {
+        // Descartar resultados que ya no corresponden al texto escrito
+        if (!consulta.equals(binding.etBuscar.getText().toString().trim())
+                && !consulta.equals(binding.etBuscar.getText().toString())) {
+            return;
         }
 
-        adapter.setProductos(resultados);
+        List<Producto> filtrados = viewModel.setBusqueda(consulta, resultados);
 
-        if (resultados.isEmpty()) {
+        if (filtrados.isEmpty()) {
             Toast.makeText(this, "No se encontraron productos", Toast.LENGTH_SHORT).show();
         }
     }
 
+    /**
+     * Activar o quitar el criterio de stock bajo (se combina con categoría y búsqueda)
+     */
     private void mostrarStockBajo() {
-        List<Producto> stockBajo = new ArrayList<>();
-
-        for (Producto p : listaProductosOriginal) {
-            if (p.isBajoStock()) {
-                stockBajo.add(p);
-            }
+        ConsultaProductos actual = viewModel.getConsulta();
+        if (actual.isSoloStockBajo()) {
+            viewModel.setConsulta(actual.conSoloStockBajo(false));
+            return;
         }
 
-        adapter.setProductos(stockBajo);
+        List<Producto> stockBajo = viewModel.setConsulta(actual.conSoloStockBajo(true));
 
         if (stockBajo.isEmpty()) {
             new MaterialAlertDialogBuilder(this)
@@ -355,7 +432,10 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void mostrarOpcionesProducto(Producto producto) {
-        String[] opciones = {"Ver detalles", "Editar", "Actualizar stock", "Eliminar"};
+        boolean altaRotacion = producto.getStockShards() > 0;
+        String[] opciones = {"Ver detalles", "Editar", "Actualizar stock",
+                "Registrar venta", "Registrar entrada",
+                altaRotacion ? "Alta rotación: desactivar" : "Alta rotación: activar", "Eliminar"};
 
         new MaterialAlertDialogBuilder(this)
                 .setTitle(producto.getNombreProducto())
@@ -373,6 +453,15 @@ public class MainActivity extends AppCompatActivity {
                             mostrarDialogoActualizarStock(producto);
                             break;
                         case 3:
+                            mostrarDialogoMovimiento(producto, true);
+                            break;
+                        case 4:
+                            mostrarDialogoMovimiento(producto, false);
+                            break;
+                        case 5:
+                            cambiarAltaRotacion(producto, !altaRotacion);
+                            break;
+                        case 6:
                             confirmarEliminarProducto(producto);
                             break;
                     }
@@ -400,18 +489,19 @@ public class MainActivity extends AppCompatActivity {
                     try {
                         int nuevoStock = Integer.parseInt(input.getText().toString());
                         if (nuevoStock >= 0) {
-                            producto.setStockActual(nuevoStock);
+                            // El producto del repositorio no se modifica hasta confirmar la escritura
+                            Producto modificado = producto.copiar();
+                            modificado.setStockActual(nuevoStock);
 
-                            firestoreManager.actualizarProducto(
-                                    producto.getDocId(),
+                            repository.actualizarProducto(
                                     producto,
-                                    new FirestoreManager.OnSuccessListener() {
+                                    modificado,
+                                    new InventoryDataSource.OnSuccessListener() {
                                         @Override
                                         public void onSuccess() {
                                             Toast.makeText(MainActivity.this,
                                                     "✅ Stock actualizado",
                                                     Toast.LENGTH_SHORT).show();
-                                            cargarProductos();
                                         }
 
                                         @Override
@@ -433,27 +523,105 @@ public class MainActivity extends AppCompatActivity {
                 .show();
     }
 
+    /**
+     * Venta (sale stock) o entrada de mercancía (entra stock) como movimiento del libro
+     */
+    private void mostrarDialogoMovimiento(Producto producto, boolean esVenta) {
+        final EditText input = new EditText(this);
+        input.setInputType(android.text.InputType.TYPE_CLASS_NUMBER);
+        input.setHint("Unidades");
+
+        LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT);
+        lp.setMargins(50, 0, 50, 0);
+        input.setLayoutParams(lp);
+
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(esVenta ? "Registrar venta" : "Registrar entrada")
+                .setMessage("Producto: " + producto.getNombreProducto() + "\nStock actual: " + producto.getStockActual())
+                .setView(input)
+                .setPositiveButton("Registrar", (dialog, which) -> {
+                    int unidades;
+                    try {
+                        unidades = Integer.parseInt(input.getText().toString());
+                    } catch (NumberFormatException e) {
+                        Toast.makeText(this, "❌ Valor inválido", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    if (unidades <= 0) {
+                        Toast.makeText(this, "❌ Ingrese una cantidad mayor a cero", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    if (esVenta && unidades > producto.getStockActual()) {
+                        Toast.makeText(this, "❌ Stock insuficiente", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+
+                    Movimiento movimiento = esVenta
+                            ? Movimiento.venta(producto.getDocId(), unidades)
+                            : Movimiento.entrada(producto.getDocId(), unidades);
+
+                    repository.registrarMovimientos(Collections.singletonList(movimiento),
+                            new InventoryDataSource.OnSuccessListener() {
+                                @Override
+                                public void onSuccess() {
+                                    Toast.makeText(MainActivity.this,
+                                            esVenta ? "✅ Venta registrada" : "✅ Entrada registrada",
+                                            Toast.LENGTH_SHORT).show();
+                                }
+
+                                @Override
+                                public void onError(String error) {
+                                    Toast.makeText(MainActivity.this,
+                                            "❌ Error: " + error,
+                                            Toast.LENGTH_SHORT).show();
+                                }
+                            });
+                })
+                .setNegativeButton("Cancelar", null)
+                .show();
+    }
+
+    private void cambiarAltaRotacion(Producto producto, boolean activar) {
+        repository.setAltaRotacion(producto.getDocId(), activar,
+                new InventoryDataSource.OnSuccessListener() {
+                    @Override
+                    public void onSuccess() {
+                        Toast.makeText(MainActivity.this,
+                                activar ? "✅ Alta rotación activada" : "✅ Alta rotación desactivada",
+                                Toast.LENGTH_SHORT).show();
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(MainActivity.this,
+                                "❌ Error: " + error,
+                                Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+
     private void confirmarEliminarProducto(Producto producto) {
         new MaterialAlertDialogBuilder(this)
                 .setTitle("Confirmar eliminación")
                 .setMessage("¿Está seguro de eliminar '" + producto.getNombreProducto() + "'?")
                 .setPositiveButton("Eliminar", (dialog, which) -> {
-                    Log.d(TAG, "Eliminando producto con DocID: " + producto.getDocId());
+                    Registro.d(TAG, () -> "Eliminando producto con DocID: " + producto.getDocId());
 
-                    firestoreManager.eliminarProducto(producto.getDocId(),
-                            new FirestoreManager.OnSuccessListener() {
+                    repository.eliminarProducto(producto.getDocId(),
+                            new InventoryDataSource.OnSuccessListener() {
                                 @Override
                                 public void onSuccess() {
-                                    Log.d(TAG, "✅ Producto eliminado de Firestore");
+                                    Registro.d(TAG, "✅ Producto eliminado de Firestore");
                                     Toast.makeText(MainActivity.this,
                                             "✅ Producto eliminado",
                                             Toast.LENGTH_SHORT).show();
-                                    cargarProductos();
                                 }
 
                                 @Override
                                 public void onError(String error) {
-                                    Log.e(TAG, "❌ Error al eliminar: " + error);
+                                    Registro.e(TAG, () -> "❌ Error al eliminar: " + error);
                                     Toast.makeText(MainActivity.this,
                                             "❌ Error: " + error,
                                             Toast.LENGTH_LONG).show();
@@ -464,6 +632,144 @@ public class MainActivity extends AppCompatActivity {
                 .show();
     }
 
+    /**
+     * Elegir el criterio de orden; se aplica sobre los filtros activos
+     */
+    private void mostrarDialogoOrden() {
+        OrdenProductos[] ordenes = OrdenProductos.values();
+        String[] etiquetas = new String[ordenes.length];
+        for (int i = 0; i < ordenes.length; i++) {
+            etiquetas[i] = ordenes[i].getEtiqueta();
+        }
+
+        OrdenProductos actual = viewModel.getConsulta().getOrden();
+        int seleccionado = actual != null ? actual.ordinal() : -1;
+
+        new MaterialAlertDialogBuilder(this)
+                .setTitle("Ordenar por")
+                .setSingleChoiceItems(etiquetas, seleccionado, (dialog, which) -> {
+                    viewModel.setConsulta(viewModel.getConsulta().conOrden(ordenes[which]));
+                    binding.recyclerViewProductos.scrollToPosition(0);
+                    dialog.dismiss();
+                })
+                .setNegativeButton("Cancelar", null)
+                .show();
+    }
+
+    // ==================== IMPORTACIÓN ====================
+
+    private void alElegirArchivoImportacion(Uri uri) {
+        if (uri == null) {
+            return;
+        }
+        if (importador.isEnCurso()) {
+            Toast.makeText(this, "Ya hay una importación en curso", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (repository.getCategoriasActuales().isEmpty() || repository.getProveedoresActuales().isEmpty()) {
+            Toast.makeText(this, "❌ Categorías y proveedores aún no cargados", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // Conservar el acceso para poder reanudar en otra sesión
+        try {
+            getContentResolver().takePersistableUriPermission(uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        } catch (SecurityException e) {
+            Registro.d(TAG, () -> "Sin permiso persistente para " + uri);
+        }
+
+        int filaReanudable = importador.getFilaReanudable(uri);
+        if (filaReanudable == 0) {
+            importador.importar(uri, false);
+            return;
+        }
+
+        new MaterialAlertDialogBuilder(this)
+                .setTitle("Importación incompleta")
+                .setMessage("Este archivo ya se importó hasta la fila " + filaReanudable + ".")
+                .setPositiveButton("Reanudar", (dialog, which) -> importador.importar(uri, true))
+                .setNegativeButton("Empezar de nuevo", (dialog, which) -> importador.importar(uri, false))
+                .show();
+    }
+
+    private void mostrarProgresoImportacion(ProgresoImportacion progreso) {
+        if (!progreso.isEnCurso()) {
+            // Sin diálogo abierto (p. ej. tras una rotación) el resumen ya se mostró
+            if (dialogoImportacion != null) {
+                dialogoImportacion.dismiss();
+                dialogoImportacion = null;
+                mostrarResumenImportacion(progreso);
+            }
+            return;
+        }
+
+        if (dialogoImportacion == null) {
+            crearDialogoImportacion();
+        }
+        int porcentaje = progreso.getPorcentaje();
+        barraImportacion.setIndeterminate(porcentaje < 0);
+        if (porcentaje >= 0) {
+            barraImportacion.setProgressCompat(porcentaje, true);
+        }
+        textoImportacion.setText(String.format(Locale.getDefault(),
+                "Filas leídas: %d\nImportadas: %d\nInválidas: %d",
+                progreso.getFilasLeidas(), progreso.getImportadas(), progreso.getInvalidas()));
+    }
+
+    private void crearDialogoImportacion() {
+        LinearLayout contenido = new LinearLayout(this);
+        contenido.setOrientation(LinearLayout.VERTICAL);
+        contenido.setPadding(50, 20, 50, 0);
+
+        barraImportacion = new LinearProgressIndicator(this);
+        barraImportacion.setMax(100);
+        textoImportacion = new TextView(this);
+        textoImportacion.setPadding(0, 20, 0, 0);
+        contenido.addView(barraImportacion);
+        contenido.addView(textoImportacion);
+
+        dialogoImportacion = new MaterialAlertDialogBuilder(this)
+                .setTitle("Importando catálogo")
+                .setView(contenido)
+                .setCancelable(false)
+                .setNegativeButton("Detener", (dialog, which) -> importador.cancelar())
+                .show();
+    }
+
+    private void mostrarResumenImportacion(ProgresoImportacion progreso) {
+        StringBuilder mensaje = new StringBuilder();
+        if (progreso.getMensajeError() != null) {
+            mensaje.append(progreso.getMensajeError()).append("\n\n");
+        }
+        mensaje.append("Importados: ").append(progreso.getImportadas())
+                .append("\nFilas inválidas: ").append(progreso.getInvalidas());
+        for (String error : progreso.getErrores()) {
+            mensaje.append("\n• ").append(error);
+        }
+        if (progreso.getEstado() != ProgresoImportacion.Estado.TERMINADA) {
+            mensaje.append("\n\nVuelva a elegir el archivo para reanudar.");
+        }
+
+        String titulo;
+        switch (progreso.getEstado()) {
+            case TERMINADA:
+                titulo = "✅ Importación terminada";
+                break;
+            case CANCELADA:
+                titulo = "Importación detenida";
+                break;
+            default:
+                titulo = "❌ Importación incompleta";
+                break;
+        }
+
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(titulo)
+                .setMessage(mensaje.toString())
+                .setPositiveButton("Aceptar", null)
+                .show();
+    }
+
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_main, menu);
@@ -475,7 +781,23 @@ public class MainActivity extends AppCompatActivity {
         int id = item.getItemId();
 
         if (id == R.id.action_refresh) {
-            cargarProductos();
+            viewModel.refrescar();
+            return true;
+        }
+
+        if (id == R.id.action_ordenar) {
+            mostrarDialogoOrden();
+            return true;
+        }
+
+        if (id == R.id.action_importar) {
+            elegirArchivoImportacion.launch(new String[]{
+                    "text/csv", "text/comma-separated-values", "text/plain", "application/json"});
+            return true;
+        }
+
+        if (id == R.id.action_diagnostico) {
+            startActivity(new Intent(this, DiagnosticoActivity.class));
             return true;
         }
 
@@ -485,14 +807,28 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        cargarProductos();
+        // Sin consulta si el repositorio ya tiene datos (p. ej. tras una rotación)
+        repository.cargarProductos(false);
+    }
+
+    /**
+     * adb shell dumpsys activity com.tienda.inventario/.ui.MainActivity [--json]
+     * agrega las métricas (ver DiagnosticoActivity) al volcado de la actividad
+     */
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        DiagnosticoActivity.volcarMetricas(writer, args);
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (searchHandler != null && searchRunnable != null) {
-            searchHandler.removeCallbacks(searchRunnable);
+        ejecutorBusqueda.cerrar();
+        if (dialogoImportacion != null) {
+            // La importación sigue; al recrearse la actividad se vuelve a mostrar
+            dialogoImportacion.dismiss();
+            dialogoImportacion = null;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.tienda.inventario.ui;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.database.entities.ResumenInventario;
+import com.tienda.inventario.repository.ConsultaProductos;
+import com.tienda.inventario.repository.Evento;
+import com.tienda.inventario.repository.InventoryRepository;
+
+import java.util.List;
+
+/**
+ * ViewModel de la pantalla principal.
+ * Sobrevive a rotaciones; los datos viven en InventoryRepository.
+ *
+ * Guarda la consulta activa (categoría, stock bajo, texto...) y publica en
+ * getResultado() la lista filtrada, que se recalcula cuando cambia un
+ * criterio o el catálogo.
+ */
+public class MainViewModel extends ViewModel {
+
+    private final InventoryRepository repository;
+
+    private final MediatorLiveData<List<Producto>> resultado = new MediatorLiveData<>();
+    private ConsultaProductos consulta = ConsultaProductos.TODOS;
+    private List<Producto> rankingTexto;
+
+    public MainViewModel() {
+        this.repository = InventoryRepository.getInstance();
+        resultado.addSource(repository.getProductos(), productos -> recalcular());
+
+        // No repite la consulta si otra pantalla ya cargó los datos
+        repository.cargarCategorias(false);
+        repository.cargarProveedores(false);
+        repository.cargarProductos(false);
+    }
+
+    public InventoryRepository getRepository() {
+        return repository;
+    }
+
+    public LiveData<List<Producto>> getProductos() {
+        return repository.getProductos();
+    }
+
+    /**
+     * Cifras del panel (total de productos y valor del inventario)
+     */
+    public LiveData<ResumenInventario> getResumen() {
+        return repository.getResumen();
+    }
+
+    /**
+     * Productos que cumplen la consulta activa
+     */
+    public LiveData<List<Producto>> getResultado() {
+        return resultado;
+    }
+
+    public ConsultaProductos getConsulta() {
+        return consulta;
+    }
+
+    /**
+     * Reemplazar la consulta activa
+     *
+     * @return la lista filtrada resultante (también se publica en getResultado())
+     */
+    public List<Producto> setConsulta(ConsultaProductos nueva) {
+        if (nueva.getTexto() == null) {
+            rankingTexto = null;
+        }
+        consulta = nueva;
+        return recalcular();
+    }
+
+    /**
+     * Aplicar resultados de búsqueda como criterio de texto, combinado con los demás
+     */
+    public List<Producto> setBusqueda(String texto, List<Producto> resultados) {
+        rankingTexto = resultados;
+        consulta = consulta.conTexto(texto);
+        return recalcular();
+    }
+
+    private List<Producto> recalcular() {
+        if (repository.getProductos().getValue() == null) {
+            return repository.getProductosActuales();
+        }
+        List<Producto> filtrados = repository.filtrar(consulta, rankingTexto);
+        resultado.setValue(filtrados);
+        return filtrados;
+    }
+
+    public LiveData<List<Categoria>> getCategorias() {
+        return repository.getCategorias();
+    }
+
+    public LiveData<Boolean> isCargando() {
+        return repository.isCargandoProductos();
+    }
+
+    public LiveData<Evento<String>> getErrores() {
+        return repository.getErrores();
+    }
+
+    public LiveData<List<Proveedor>> getProveedores() {
+        return repository.getProveedores();
+    }
+
+    public void refrescar() {
+        repository.cargarCategorias(true);
+        repository.cargarProveedores(true);
+        repository.cargarProductos(true);
+    }
+}
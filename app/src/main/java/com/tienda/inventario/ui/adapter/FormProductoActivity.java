@@ -5,8 +5,6 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
-import android.text.TextUtils;
-import android.util.Log;
 import android.widget.ArrayAdapter;
 import android.widget.Toast;
 
@@ -15,11 +13,15 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.bumptech.glide.Glide;
-import com.tienda.inventario.database.FirestoreManager;
+import com.tienda.inventario.database.InventoryDataSource;
+import com.tienda.inventario.database.ImagenUploader;
 import com.tienda.inventario.database.entities.Categoria;
 import com.tienda.inventario.database.entities.Producto;
 import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.database.entities.ValidadorProducto;
 import com.tienda.inventario.databinding.ActivityFormProductoBinding;
+import com.tienda.inventario.repository.InventoryRepository;
+import com.tienda.inventario.diagnostico.Registro;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -32,7 +34,7 @@ public class FormProductoActivity extends AppCompatActivity {
 
     private static final String TAG = "FormProductoActivity";
     private ActivityFormProductoBinding binding;
-    private FirestoreManager firestoreManager;
+    private InventoryRepository repository;
 
     private List<Categoria> listaCategorias = new ArrayList<>();
     private List<Proveedor> listaProveedores = new ArrayList<>();
@@ -43,10 +45,14 @@ public class FormProductoActivity extends AppCompatActivity {
     private String documentoId = null;
     private boolean esEdicion = false;
     private Producto productoActual = null;
+    private boolean observandoProducto = false;
 
     private Uri imagenSeleccionadaUri = null;
     private String imagenUrlFinal = null;
 
+    // Imagen procesada pendiente de subir a Firebase Storage
+    private File imagenPorSubir = null;
+
     // Launcher para seleccionar imagen de la galería
     private final ActivityResultLauncher<String> seleccionarImagenLauncher =
             registerForActivityResult(new ActivityResultContracts.GetContent(), uri -> {
@@ -62,7 +68,7 @@ public class FormProductoActivity extends AppCompatActivity {
         binding = ActivityFormProductoBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        firestoreManager = FirestoreManager.getInstance();
+        repository = InventoryRepository.getInstance();
 
         setSupportActionBar(binding.toolbar);
         if (getSupportActionBar() != null) {
@@ -78,9 +84,9 @@ public class FormProductoActivity extends AppCompatActivity {
                 getSupportActionBar().setTitle("Editar Producto");
             }
 
-            Log.d(TAG, "Modo EDICIÓN - DocID: " + documentoId);
+            Registro.d(TAG, () -> "Modo EDICIÓN - DocID: " + documentoId);
         } else {
-            Log.d(TAG, "Modo AGREGAR nuevo producto");
+            Registro.d(TAG, "Modo AGREGAR nuevo producto");
         }
 
         cargarCategorias();
@@ -167,24 +173,23 @@ public class FormProductoActivity extends AppCompatActivity {
     }
 
     private void cargarCategorias() {
-        firestoreManager.getCategorias(new FirestoreManager.OnCategoriasListener() {
-            @Override
-            public void onSuccess(List<Categoria> categorias) {
-                listaCategorias = categorias;
-                configurarSpinnerCategorias();
-
-                if (esEdicion && productoActual == null) {
-                    cargarProductoParaEdicion();
-                }
+        // Los datos vienen del repositorio compartido; solo se consultan si no estaban cargados
+        repository.getCategorias().observe(this, categorias -> {
+            listaCategorias = categorias;
+            configurarSpinnerCategorias();
+
+            if (esEdicion && !observandoProducto) {
+                observandoProducto = true;
+                cargarProductoParaEdicion();
             }
-
-            @Override
-            public void onError(String error) {
-                Toast.makeText(FormProductoActivity.this,
-                        "Error al cargar categorías: " + error,
-                        Toast.LENGTH_SHORT).show();
+        });
+        repository.getErrores().observe(this, evento -> {
+            String error = evento.getContenidoSiNoManejado();
+            if (error != null) {
+                Toast.makeText(FormProductoActivity.this, error, Toast.LENGTH_SHORT).show();
             }
         });
+        repository.cargarCategorias(false);
     }
 
     private void configurarSpinnerCategorias() {
@@ -201,25 +206,16 @@ public class FormProductoActivity extends AppCompatActivity {
         binding.spinnerCategoria.setAdapter(adapter);
         binding.spinnerCategoria.setOnItemClickListener((parent, view, position, id) -> {
             categoriaSeleccionadaId = listaCategorias.get(position).getIdCategoria();
-            Log.d(TAG, "Categoría seleccionada: " + listaCategorias.get(position).getNombreCategoria());
+            Registro.d(TAG, () -> "Categoría seleccionada: " + listaCategorias.get(position).getNombreCategoria());
         });
     }
 
     private void cargarProveedores() {
-        firestoreManager.getProveedores(new FirestoreManager.OnProveedoresListener() {
-            @Override
-            public void onSuccess(List<Proveedor> proveedores) {
-                listaProveedores = proveedores;
-                configurarSpinnerProveedores();
-            }
-
-            @Override
-            public void onError(String error) {
-                Toast.makeText(FormProductoActivity.this,
-                        "Error al cargar proveedores: " + error,
-                        Toast.LENGTH_SHORT).show();
-            }
+        repository.getProveedores().observe(this, proveedores -> {
+            listaProveedores = proveedores;
+            configurarSpinnerProveedores();
         });
+        repository.cargarProveedores(false);
     }
 
     private void configurarSpinnerProveedores() {
@@ -236,7 +232,7 @@ public class FormProductoActivity extends AppCompatActivity {
         binding.spinnerProveedor.setAdapter(adapter);
         binding.spinnerProveedor.setOnItemClickListener((parent, view, position, id) -> {
             proveedorSeleccionadoId = listaProveedores.get(position).getIdProveedor();
-            Log.d(TAG, "Proveedor seleccionado: " + listaProveedores.get(position).getNombreProveedor());
+            Registro.d(TAG, () -> "Proveedor seleccionado: " + listaProveedores.get(position).getNombreProveedor());
         });
     }
 
@@ -247,40 +243,33 @@ public class FormProductoActivity extends AppCompatActivity {
             return;
         }
 
-        Log.d(TAG, "Cargando producto con DocID: " + documentoId);
-
-        firestoreManager.getProductos(new FirestoreManager.OnProductosListener() {
-            @Override
-            public void onSuccess(List<Producto> productos) {
-                for (Producto p : productos) {
-                    if (documentoId.equals(p.getDocId())) {
-                        productoActual = p;
-                        mostrarDatosProducto(p);
-                        Log.d(TAG, "✓ Producto cargado: " + p.getNombreProducto());
-                        return;
-                    }
-                }
+        Registro.d(TAG, () -> "Cargando producto con DocID: " + documentoId);
 
-                Log.e(TAG, "❌ Producto no encontrado con DocID: " + documentoId);
-                Toast.makeText(FormProductoActivity.this,
-                        "Error: Producto no encontrado",
-                        Toast.LENGTH_SHORT).show();
-                finish();
+        // Se toma del estado en memoria; solo se consulta si aún no se cargó la lista
+        repository.getProductos().observe(this, productos -> {
+            if (productoActual != null) {
+                return;
             }
 
-            @Override
-            public void onError(String error) {
-                Log.e(TAG, "❌ Error al cargar producto: " + error);
-                Toast.makeText(FormProductoActivity.this,
-                        "Error: " + error,
-                        Toast.LENGTH_SHORT).show();
-                finish();
+            Producto p = repository.getProducto(documentoId);
+            if (p != null) {
+                productoActual = p;
+                mostrarDatosProducto(p);
+                Registro.d(TAG, () -> "✓ Producto cargado: " + p.getNombreProducto());
+                return;
             }
+
+            Registro.e(TAG, () -> "❌ Producto no encontrado con DocID: " + documentoId);
+            Toast.makeText(FormProductoActivity.this,
+                    "Error: Producto no encontrado",
+                    Toast.LENGTH_SHORT).show();
+            finish();
         });
+        repository.cargarProductos(false);
     }
 
     private void mostrarDatosProducto(Producto producto) {
-        Log.d(TAG, "✓ Mostrando datos del producto: " + producto.getNombreProducto());
+        Registro.d(TAG, () -> "✓ Mostrando datos del producto: " + producto.getNombreProducto());
 
         binding.etNombre.setText(producto.getNombreProducto());
         binding.etDescripcion.setText(producto.getDescripcion() != null ? producto.getDescripcion() : "");
@@ -354,13 +343,13 @@ public class FormProductoActivity extends AppCompatActivity {
             outputStream.flush();
             outputStream.close();
 
-            Log.d(TAG, "✅ Imagen guardada localmente: " + archivoImagen.getAbsolutePath());
+            Registro.d(TAG, () -> "✅ Imagen guardada localmente: " + archivoImagen.getAbsolutePath());
 
             // Retornar ruta en formato file://
             return "file://" + archivoImagen.getAbsolutePath();
 
         } catch (Exception e) {
-            Log.e(TAG, "❌ Error al guardar imagen localmente: " + e.getMessage(), e);
+            Registro.e(TAG, "❌ Error al guardar imagen localmente", e);
             return null;
         }
     }
@@ -372,13 +361,18 @@ public class FormProductoActivity extends AppCompatActivity {
         if (!validarCampos()) {
             return;
         }
+        if (esEdicion && productoActual == null) {
+            // Sin la versión cargada no hay contra qué calcular los cambios
+            Toast.makeText(this, "Espere a que se cargue el producto", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
         binding.btnGuardar.setEnabled(false);
         binding.btnGuardar.setText("Guardando...");
 
         // Procesar imagen
         if (imagenSeleccionadaUri != null) {
-            // Guardar imagen de galería localmente
+            // Guardar imagen de galería localmente; se sube a Storage después de guardar
             imagenUrlFinal = guardarImagenLocalmente(imagenSeleccionadaUri);
             if (imagenUrlFinal == null) {
                 Toast.makeText(this, "❌ Error al guardar imagen", Toast.LENGTH_SHORT).show();
@@ -386,9 +380,11 @@ public class FormProductoActivity extends AppCompatActivity {
                 binding.btnGuardar.setText("Guardar");
                 return;
             }
+            imagenPorSubir = new File(imagenUrlFinal.replace("file://", ""));
         } else {
             // Usar URL si existe
             imagenUrlFinal = binding.etImagenUrl.getText().toString().trim();
+            imagenPorSubir = null;
         }
 
         // Guardar producto en Firestore
@@ -412,13 +408,14 @@ public class FormProductoActivity extends AppCompatActivity {
 
         if (esEdicion && documentoId != null) {
             // ACTUALIZAR
-            Log.d(TAG, "Actualizando producto en Firestore...");
+            Registro.d(TAG, "Actualizando producto en Firestore...");
 
-            firestoreManager.actualizarProducto(documentoId, producto,
-                    new FirestoreManager.OnSuccessListener() {
+            repository.actualizarProducto(productoActual, producto,
+                    new InventoryDataSource.OnSuccessListener() {
                         @Override
                         public void onSuccess() {
-                            Log.d(TAG, "✓ Producto actualizado");
+                            Registro.d(TAG, "✓ Producto actualizado");
+                            encolarSubidaImagen(documentoId);
                             Toast.makeText(FormProductoActivity.this,
                                     "✅ Producto actualizado",
                                     Toast.LENGTH_SHORT).show();
@@ -427,7 +424,7 @@ public class FormProductoActivity extends AppCompatActivity {
 
                         @Override
                         public void onError(String error) {
-                            Log.e(TAG, "❌ Error al actualizar: " + error);
+                            Registro.e(TAG, () -> "❌ Error al actualizar: " + error);
                             Toast.makeText(FormProductoActivity.this,
                                     "❌ Error: " + error,
                                     Toast.LENGTH_SHORT).show();
@@ -437,12 +434,13 @@ public class FormProductoActivity extends AppCompatActivity {
                     });
         } else {
             // AGREGAR NUEVO
-            Log.d(TAG, "Agregando nuevo producto...");
+            Registro.d(TAG, "Agregando nuevo producto...");
 
-            firestoreManager.agregarProducto(producto, new FirestoreManager.OnSuccessListener() {
+            repository.agregarProducto(producto, new InventoryDataSource.OnDocumentoListener() {
                 @Override
-                public void onSuccess() {
-                    Log.d(TAG, "✓ Producto agregado");
+                public void onSuccess(String docId) {
+                    Registro.d(TAG, "✓ Producto agregado");
+                    encolarSubidaImagen(docId);
                     Toast.makeText(FormProductoActivity.this,
                             "✅ Producto guardado",
                             Toast.LENGTH_SHORT).show();
@@ -451,7 +449,7 @@ public class FormProductoActivity extends AppCompatActivity {
 
                 @Override
                 public void onError(String error) {
-                    Log.e(TAG, "Error al guardar: " + error);
+                    Registro.e(TAG, () -> "Error al guardar: " + error);
                     Toast.makeText(FormProductoActivity.this,
                             "Error: " + error,
                             Toast.LENGTH_SHORT).show();
@@ -462,45 +460,50 @@ public class FormProductoActivity extends AppCompatActivity {
         }
     }
 
-    private boolean validarCampos() {
-        if (TextUtils.isEmpty(binding.etNombre.getText())) {
-            binding.etNombre.setError("Campo obligatorio");
-            return false;
+    /**
+     * Subir la imagen en segundo plano; imagen_url se actualiza al terminar
+     */
+    private void encolarSubidaImagen(String docId) {
+        if (imagenPorSubir != null) {
+            ImagenUploader.getInstance(this).encolar(docId, imagenPorSubir);
+            imagenPorSubir = null;
         }
+    }
 
-        if (TextUtils.isEmpty(binding.etPrecio.getText())) {
-            binding.etPrecio.setError("Campo obligatorio");
+    /**
+     * Mismas reglas que el importador masivo (ValidadorProducto)
+     */
+    private boolean validarCampos() {
+        String error = ValidadorProducto.errorNombre(binding.etNombre.getText().toString());
+        if (error != null) {
+            binding.etNombre.setError(error);
             return false;
         }
 
-        try {
-            double precio = Double.parseDouble(binding.etPrecio.getText().toString().trim());
-            if (precio <= 0) {
-                binding.etPrecio.setError("El precio debe ser mayor a 0");
-                return false;
-            }
-        } catch (NumberFormatException e) {
-            binding.etPrecio.setError("Precio inválido");
+        error = ValidadorProducto.errorPrecio(binding.etPrecio.getText().toString());
+        if (error != null) {
+            binding.etPrecio.setError(error);
             return false;
         }
 
-        if (TextUtils.isEmpty(binding.etStockActual.getText())) {
-            binding.etStockActual.setError("Campo obligatorio");
+        error = ValidadorProducto.errorStock(binding.etStockActual.getText().toString());
+        if (error != null) {
+            binding.etStockActual.setError(error);
             return false;
         }
 
-        if (TextUtils.isEmpty(binding.etStockMinimo.getText())) {
-            binding.etStockMinimo.setError("Campo obligatorio");
+        error = ValidadorProducto.errorStock(binding.etStockMinimo.getText().toString());
+        if (error != null) {
+            binding.etStockMinimo.setError(error);
             return false;
         }
 
-        if (categoriaSeleccionadaId == -1) {
-            Toast.makeText(this, "Seleccione una categoría", Toast.LENGTH_SHORT).show();
-            return false;
+        error = ValidadorProducto.errorCategoria(categoriaSeleccionadaId);
+        if (error == null) {
+            error = ValidadorProducto.errorProveedor(proveedorSeleccionadoId);
         }
-
-        if (proveedorSeleccionadoId == -1) {
-            Toast.makeText(this, "Seleccione un proveedor", Toast.LENGTH_SHORT).show();
+        if (error != null) {
+            Toast.makeText(this, error, Toast.LENGTH_SHORT).show();
             return false;
         }
 
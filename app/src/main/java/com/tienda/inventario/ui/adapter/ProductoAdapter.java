@@ -1,5 +1,8 @@
 package com.tienda.inventario.ui.adapter;
 
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -7,59 +10,236 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.google.android.material.card.MaterialCardView;
+import com.bumptech.glide.RequestManager;
 import com.tienda.inventario.R;
 import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.diagnostico.Metricas;
+import com.tienda.inventario.diagnostico.MetricasOperacion;
 
-import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ProductoAdapter extends RecyclerView.Adapter<ProductoAdapter.ProductoViewHolder> {
 
-    private List<Producto> listaProductos = new ArrayList<>();
+    // Las filas se precalculan fuera del hilo principal
+    private static final ExecutorService EJECUTOR_FILAS = Executors.newSingleThreadExecutor();
+
+    // Por encima de este total de filas (lista vieja + nueva) el diff cuesta
+    // más que redibujar todo; DiffUtil es O(N + D²) con D = cantidad de cambios
+    private static final int MAX_FILAS_DIFF = 10_000;
+
+    // Filas ya calculadas por docId; solo se usa desde EJECUTOR_FILAS
+    private final Map<String, ProductoFila> cacheFilas = new HashMap<>();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Vistas de fila infladas en segundo plano durante el arranque
+    private final ArrayDeque<View> vistasPrecargadas = new ArrayDeque<>();
+    private List<ProductoFila> listaFilas = new ArrayList<>();
     private OnProductoClickListener listener;
 
+    // Se consulta desde EJECUTOR_FILAS al construir cada fila
+    private volatile ResolutorNombres resolutorNombres;
+
+    // Descarta resultados de cálculos anteriores si llegan tarde
+    private int generacion = 0;
+
+    private final MetricasOperacion metricasBind = Metricas.getInstance().operacion(Metricas.BIND);
+
     public interface OnProductoClickListener {
         void onProductoClick(Producto producto);
         void onProductoLongClick(Producto producto);
     }
 
+    /**
+     * Nombres de categoría y proveedor a partir de los IDs del producto;
+     * debe poder llamarse desde un hilo de fondo
+     */
+    public interface ResolutorNombres {
+        String nombreCategoria(int idCategoria);
+        String nombreProveedor(int idProveedor);
+    }
+
     public void setOnProductoClickListener(OnProductoClickListener listener) {
         this.listener = listener;
     }
 
+    public void setResolutorNombres(ResolutorNombres resolutorNombres) {
+        this.resolutorNombres = resolutorNombres;
+    }
+
+    /**
+     * Recalcular las filas visibles cuando cambian los nombres relacionados
+     * (se recargaron categorías o proveedores)
+     */
+    public void refrescarNombres() {
+        EJECUTOR_FILAS.execute(cacheFilas::clear);
+        List<Producto> actuales = new ArrayList<>(listaFilas.size());
+        for (ProductoFila fila : listaFilas) {
+            actuales.add(fila.producto);
+        }
+        setProductos(actuales);
+    }
+
+    /**
+     * Reemplazar la lista; los cambios se calculan en segundo plano con DiffUtil,
+     * así un reordenamiento o un producto editado solo toca las filas afectadas
+     */
     public void setProductos(List<Producto> productos) {
-        this.listaProductos = productos;
-        notifyDataSetChanged();
+        final int miGeneracion = ++generacion;
+        final List<Producto> copia = new ArrayList<>(productos);
+        final List<ProductoFila> anteriores = listaFilas;
+
+        EJECUTOR_FILAS.execute(() -> {
+            // Evitar que la caché crezca con productos que ya no existen
+            if (cacheFilas.size() > copia.size() * 2 + 256) {
+                cacheFilas.clear();
+            }
+
+            long inicio = Metricas.ahora();
+            Trace.beginSection("ProductoAdapter.filas");
+            List<ProductoFila> filas = new ArrayList<>(copia.size());
+            int creadas = 0;
+            try {
+                for (Producto p : copia) {
+                    ProductoFila fila = p.getDocId() != null ? cacheFilas.get(p.getDocId()) : null;
+                    if (fila == null || !fila.vigentePara(p)) {
+                        fila = crearFila(p);
+                        creadas++;
+                        if (p.getDocId() != null) {
+                            cacheFilas.put(p.getDocId(), fila);
+                        }
+                    }
+                    filas.add(fila);
+                }
+            } finally {
+                Trace.endSection();
+            }
+            MetricasOperacion metricasFilas = Metricas.getInstance().operacion(Metricas.FILAS);
+            metricasFilas.exito(inicio, filas.size());
+            metricasFilas.cache(filas.size() - creadas, creadas);
+
+            DiffUtil.DiffResult diff = null;
+            if (!anteriores.isEmpty() && !filas.isEmpty()
+                    && anteriores.size() + filas.size() <= MAX_FILAS_DIFF) {
+                diff = DiffUtil.calculateDiff(new DiffFilas(anteriores, filas), false);
+            }
+            final DiffUtil.DiffResult cambios = diff;
+
+            mainHandler.post(() -> {
+                if (miGeneracion != generacion) {
+                    return;
+                }
+                listaFilas = filas;
+                if (cambios != null) {
+                    cambios.dispatchUpdatesTo(this);
+                } else {
+                    notifyDataSetChanged();
+                }
+            });
+        });
+    }
+
+    private ProductoFila crearFila(Producto p) {
+        ResolutorNombres resolutor = resolutorNombres;
+        if (resolutor == null) {
+            return ProductoFila.desde(p, null, null);
+        }
+        return ProductoFila.desde(p,
+                resolutor.nombreCategoria(p.getIdCategoria()),
+                resolutor.nombreProveedor(p.getIdProveedor()));
+    }
+
+    /**
+     * Inflar filas con AsyncLayoutInflater mientras llegan los datos, para que
+     * onCreateViewHolder() no infle en el hilo principal durante el primer frame
+     */
+    public void precargarVistas(@NonNull RecyclerView recyclerView, int cantidad) {
+        AsyncLayoutInflater inflater = new AsyncLayoutInflater(recyclerView.getContext());
+        for (int i = 0; i < cantidad; i++) {
+            inflater.inflate(R.layout.item_producto, recyclerView,
+                    (view, resid, parent) -> vistasPrecargadas.add(view));
+        }
     }
 
     @NonNull
     @Override
     public ProductoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_producto, parent, false);
+        View view = vistasPrecargadas.poll();
+        if (view == null) {
+            view = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_producto, parent, false);
+        }
         return new ProductoViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(@NonNull ProductoViewHolder holder, int position) {
-        Producto producto = listaProductos.get(position);
-        holder.bind(producto, listener);
+        long inicio = Metricas.ahora();
+        Trace.beginSection("ProductoAdapter.bind");
+        try {
+            holder.bind(listaFilas.get(position));
+        } finally {
+            Trace.endSection();
+        }
+        metricasBind.exito(inicio);
     }
 
     @Override
     public int getItemCount() {
-        return listaProductos.size();
+        return listaFilas.size();
     }
 
-    static class ProductoViewHolder extends RecyclerView.ViewHolder {
+    /**
+     * Misma fila = mismo docId; mismo contenido = misma ProductoFila, que la
+     * caché solo reutiliza mientras el producto no cambió
+     */
+    private static final class DiffFilas extends DiffUtil.Callback {
+        private final List<ProductoFila> anteriores;
+        private final List<ProductoFila> nuevas;
 
-        private final MaterialCardView cardProducto;
+        DiffFilas(List<ProductoFila> anteriores, List<ProductoFila> nuevas) {
+            this.anteriores = anteriores;
+            this.nuevas = nuevas;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return anteriores.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return nuevas.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int posicionAnterior, int posicionNueva) {
+            Producto a = anteriores.get(posicionAnterior).producto;
+            Producto b = nuevas.get(posicionNueva).producto;
+            return a.getDocId() != null ? a.getDocId().equals(b.getDocId()) : a == b;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int posicionAnterior, int posicionNueva) {
+            return anteriores.get(posicionAnterior) == nuevas.get(posicionNueva);
+        }
+    }
+
+    class ProductoViewHolder extends RecyclerView.ViewHolder {
+
+        private final View cardProducto;
         private final ImageView ivImagenProducto;
         private final TextView tvNombreProducto;
         private final TextView tvPrecio;
@@ -71,6 +251,11 @@ public class ProductoAdapter extends RecyclerView.Adapter<ProductoAdapter.Produc
         private final TextView tvAlertaStock;
         private final TextView tvCodigoBarras;
 
+        // Resueltos una sola vez por ViewHolder
+        private final RequestManager glide;
+        private final int colorStockBajo;
+        private final int colorStockNormal;
+
         public ProductoViewHolder(@NonNull View itemView) {
             super(itemView);
 
@@ -85,78 +270,73 @@ public class ProductoAdapter extends RecyclerView.Adapter<ProductoAdapter.Produc
             tvStockMinimo = itemView.findViewById(R.id.tvStockMinimo);
             tvAlertaStock = itemView.findViewById(R.id.tvAlertaStock);
             tvCodigoBarras = itemView.findViewById(R.id.tvCodigoBarras);
-        }
 
-        public void bind(Producto producto, OnProductoClickListener listener) {
-            // Cargar imagen con Glide (soporta URLs y rutas locales)
-            if (producto.getImagenUrl() != null && !producto.getImagenUrl().isEmpty()) {
-                String imagenUrl = producto.getImagenUrl();
-
-                // Si es una ruta local (file://)
-                if (imagenUrl.startsWith("file://")) {
-                    File imagenFile = new File(imagenUrl.replace("file://", ""));
-                    Glide.with(itemView.getContext())
-                            .load(imagenFile)
-                            .placeholder(android.R.drawable.ic_menu_gallery)
-                            .error(android.R.drawable.ic_menu_gallery)
-                            .centerCrop()
-                            .into(ivImagenProducto);
-                } else {
-                    // Si es una URL normal
-                    Glide.with(itemView.getContext())
-                            .load(imagenUrl)
-                            .placeholder(android.R.drawable.ic_menu_gallery)
-                            .error(android.R.drawable.ic_menu_gallery)
-                            .centerCrop()
-                            .into(ivImagenProducto);
+            glide = Glide.with(itemView);
+            colorStockBajo = ContextCompat.getColor(itemView.getContext(), android.R.color.holo_red_dark);
+            colorStockNormal = ContextCompat.getColor(itemView.getContext(), android.R.color.black);
+
+            // Click listeners (una vez por ViewHolder, no en cada bind)
+            cardProducto.setOnClickListener(v -> {
+                Producto producto = productoEnPosicion();
+                if (producto != null && listener != null) {
+                    listener.onProductoClick(producto);
                 }
+            });
+
+            cardProducto.setOnLongClickListener(v -> {
+                Producto producto = productoEnPosicion();
+                if (producto != null && listener != null) {
+                    listener.onProductoLongClick(producto);
+                }
+                return true;
+            });
+        }
+
+        private Producto productoEnPosicion() {
+            int position = getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION || position >= listaFilas.size()) {
+                return null;
+            }
+            return listaFilas.get(position).producto;
+        }
+
+        public void bind(ProductoFila fila) {
+            // Cargar imagen con Glide (File para rutas locales, String para URLs)
+            if (fila.imagen != null) {
+                glide.load(fila.imagen)
+                        .placeholder(android.R.drawable.ic_menu_gallery)
+                        .error(android.R.drawable.ic_menu_gallery)
+                        .centerCrop()
+                        .into(ivImagenProducto);
             } else {
+                glide.clear(ivImagenProducto);
                 ivImagenProducto.setImageResource(android.R.drawable.ic_menu_gallery);
             }
 
             // Datos básicos
-            tvNombreProducto.setText(producto.getNombreProducto());
-            tvPrecio.setText(String.format(Locale.getDefault(), "$%.2f", producto.getPrecioUnitario()));
-            tvDescripcion.setText(producto.getDescripcion() != null ? producto.getDescripcion() : "Sin descripción");
+            tvNombreProducto.setText(fila.nombre);
+            tvPrecio.setText(fila.precio);
+            tvDescripcion.setText(fila.descripcion);
 
             // Categoría y Proveedor
-            tvCategoria.setText("📦 Cat. " + producto.getIdCategoria());
-            tvProveedor.setText("🏢 Prov. " + producto.getIdProveedor());
+            tvCategoria.setText(fila.categoria);
+            tvProveedor.setText(fila.proveedor);
 
             // Stock
-            tvStock.setText(String.valueOf(producto.getStockActual()));
-            tvStockMinimo.setText(String.format(Locale.getDefault(), "(Min: %d)", producto.getStockMinimo()));
+            tvStock.setText(fila.stock);
+            tvStockMinimo.setText(fila.stockMinimo);
 
             // Alerta de stock bajo
-            if (producto.isBajoStock()) {
-                tvAlertaStock.setVisibility(View.VISIBLE);
-                tvStock.setTextColor(itemView.getContext().getResources().getColor(android.R.color.holo_red_dark));
-            } else {
-                tvAlertaStock.setVisibility(View.GONE);
-                tvStock.setTextColor(itemView.getContext().getResources().getColor(android.R.color.black));
-            }
+            tvAlertaStock.setVisibility(fila.bajoStock ? View.VISIBLE : View.GONE);
+            tvStock.setTextColor(fila.bajoStock ? colorStockBajo : colorStockNormal);
 
             // Código de barras
-            if (producto.getCodigoBarras() != null && !producto.getCodigoBarras().isEmpty()) {
-                tvCodigoBarras.setText("Código: " + producto.getCodigoBarras());
+            if (fila.codigoBarras != null) {
+                tvCodigoBarras.setText(fila.codigoBarras);
                 tvCodigoBarras.setVisibility(View.VISIBLE);
             } else {
                 tvCodigoBarras.setVisibility(View.GONE);
             }
-
-            // Click listeners
-            cardProducto.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onProductoClick(producto);
-                }
-            });
-
-            cardProducto.setOnLongClickListener(v -> {
-                if (listener != null) {
-                    listener.onProductoLongClick(producto);
-                }
-                return true;
-            });
         }
     }
-}
\ No newline at end of file
+}
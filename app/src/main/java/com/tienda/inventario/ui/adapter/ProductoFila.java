@@ -0,0 +1,89 @@
+package com.tienda.inventario.ui.adapter;
+
+import com.tienda.inventario.database.entities.Producto;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Modelo inmutable de una fila de la lista de productos.
+ *
+ * Todos los textos se calculan una sola vez (en segundo plano) cuando cambia
+ * el producto, de modo que bind() solo hace setText() sin formatear ni
+ * concatenar cadenas.
+ */
+public final class ProductoFila {
+
+    public final Producto producto;
+
+    public final String nombre;
+    public final String precio;
+    public final String descripcion;
+    public final String categoria;
+    public final String proveedor;
+    public final String stock;
+    public final String stockMinimo;
+    public final String codigoBarras; // null = ocultar
+    public final boolean bajoStock;
+
+    // File para rutas locales, String para URLs, null sin imagen
+    public final Object imagen;
+
+    // Valores de origen para detectar si el producto cambió desde que se calculó la fila
+    private final long ultimaActualizacion;
+    private final int stockOrigen;
+    private final double precioOrigen;
+    private final String imagenOrigen;
+
+    private ProductoFila(Producto producto, String nombreCategoria, String nombreProveedor, Locale locale) {
+        this.producto = producto;
+
+        this.nombre = producto.getNombreProducto();
+        this.precio = String.format(locale, "$%.2f", producto.getPrecioUnitario());
+        this.descripcion = producto.getDescripcion() != null ? producto.getDescripcion() : "Sin descripción";
+
+        // Sin el nombre (colección aún sin cargar) se muestra el ID
+        this.categoria = nombreCategoria != null
+                ? "📦 " + nombreCategoria
+                : "📦 Cat. " + producto.getIdCategoria();
+        this.proveedor = nombreProveedor != null
+                ? "🏢 " + nombreProveedor
+                : "🏢 Prov. " + producto.getIdProveedor();
+
+        this.stock = String.valueOf(producto.getStockActual());
+        this.stockMinimo = String.format(locale, "(Min: %d)", producto.getStockMinimo());
+        this.bajoStock = producto.isBajoStock();
+
+        String codigo = producto.getCodigoBarras();
+        this.codigoBarras = codigo != null && !codigo.isEmpty() ? "Código: " + codigo : null;
+
+        this.ultimaActualizacion = producto.getUltimaActualizacion();
+        this.stockOrigen = producto.getStockActual();
+        this.precioOrigen = producto.getPrecioUnitario();
+
+        String imagenUrl = producto.getImagenUrl();
+        this.imagenOrigen = imagenUrl;
+        if (imagenUrl == null || imagenUrl.isEmpty()) {
+            this.imagen = null;
+        } else if (imagenUrl.startsWith("file://")) {
+            this.imagen = new File(imagenUrl.replace("file://", ""));
+        } else {
+            this.imagen = imagenUrl;
+        }
+    }
+
+    public static ProductoFila desde(Producto producto, String nombreCategoria, String nombreProveedor) {
+        return new ProductoFila(producto, nombreCategoria, nombreProveedor, Locale.getDefault());
+    }
+
+    /**
+     * Indica si la fila sigue reflejando el producto (evita recalcularla)
+     */
+    public boolean vigentePara(Producto p) {
+        return p == producto
+                && p.getUltimaActualizacion() == ultimaActualizacion
+                && p.getStockActual() == stockOrigen
+                && p.getPrecioUnitario() == precioOrigen
+                && p.getImagenUrl() == imagenOrigen;
+    }
+}
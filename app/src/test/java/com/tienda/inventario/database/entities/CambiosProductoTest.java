@@ -0,0 +1,87 @@
+package com.tienda.inventario.database.entities;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CambiosProductoTest {
+
+    @Test
+    public void sinCambiosEsVacio() {
+        Producto cargado = producto();
+        assertTrue(CambiosProducto.entre(cargado, cargado.copiar()).estaVacio());
+    }
+
+    @Test
+    public void stockActualNoSeEnvia() {
+        Producto cargado = producto();
+        Producto editado = cargado.copiar();
+        editado.setStockActual(99);
+
+        CambiosProducto cambios = CambiosProducto.entre(cargado, editado);
+        assertTrue(cambios.estaVacio());
+        assertFalse(cambios.contiene("stock_actual"));
+    }
+
+    @Test
+    public void nullYVacioSonElMismoTexto() {
+        Producto cargado = producto();
+        cargado.setDescripcion(null);
+        cargado.setImagenUrl(null);
+        Producto editado = cargado.copiar();
+        editado.setDescripcion("");
+        editado.setImagenUrl("");
+
+        assertTrue(CambiosProducto.entre(cargado, editado).estaVacio());
+    }
+
+    @Test
+    public void soloLosCamposCambiados() {
+        Producto cargado = producto();
+        Producto editado = cargado.copiar();
+        editado.setPrecioUnitario(13.5);
+        editado.setIdProveedor(4);
+
+        Map<String, Object> campos = CambiosProducto.entre(cargado, editado).getCampos();
+        assertEquals(2, campos.size());
+        assertEquals(13.5, campos.get(CambiosProducto.PRECIO));
+        assertEquals(4, campos.get(CambiosProducto.PROVEEDOR));
+    }
+
+    @Test
+    public void aplicarNoPisaLosDemasCampos() {
+        Producto cargado = producto();
+        Producto editado = cargado.copiar();
+        editado.setNombreProducto("Arroz integral");
+        CambiosProducto cambios = CambiosProducto.entre(cargado, editado);
+
+        // Otra terminal cambió el mínimo mientras tanto
+        Producto servidor = cargado.copiar();
+        servidor.setStockMinimo(20);
+        cambios.aplicarA(servidor);
+
+        assertEquals("Arroz integral", servidor.getNombreProducto());
+        assertEquals(20, servidor.getStockMinimo());
+    }
+
+    @Test
+    public void todosLosEditables() {
+        Producto cargado = producto();
+        Producto editado = new Producto("Yerba", "Con palo", 20.0, 0, 1, 3, 4, "7790002");
+        editado.setImagenUrl("https://ejemplo/yerba.jpg");
+
+        Map<String, Object> campos = CambiosProducto.entre(cargado, editado).getCampos();
+        assertEquals(8, campos.size());
+        assertFalse(campos.containsKey("stock_actual"));
+    }
+
+    private static Producto producto() {
+        Producto p = new Producto("Arroz", "Grano largo", 12.0, 10, 5, 1, 2, "7790001");
+        p.setDocId("arroz");
+        return p;
+    }
+}
@@ -0,0 +1,43 @@
+package com.tienda.inventario.database.entities;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ValidadorProductoTest {
+
+    @Test
+    public void nombreObligatorio() {
+        assertEquals(ValidadorProducto.CAMPO_OBLIGATORIO, ValidadorProducto.errorNombre(null));
+        assertEquals(ValidadorProducto.CAMPO_OBLIGATORIO, ValidadorProducto.errorNombre("   "));
+        assertNull(ValidadorProducto.errorNombre("Arroz"));
+    }
+
+    @Test
+    public void precioMayorACero() {
+        assertEquals(ValidadorProducto.CAMPO_OBLIGATORIO, ValidadorProducto.errorPrecio(""));
+        assertNotNull(ValidadorProducto.errorPrecio("0"));
+        assertNotNull(ValidadorProducto.errorPrecio("-3"));
+        assertEquals("Precio inválido", ValidadorProducto.errorPrecio("doce"));
+        assertNull(ValidadorProducto.errorPrecio(" 12.50 "));
+    }
+
+    @Test
+    public void stockEnteroNoNegativo() {
+        assertEquals(ValidadorProducto.CAMPO_OBLIGATORIO, ValidadorProducto.errorStock(null));
+        assertNotNull(ValidadorProducto.errorStock("-1"));
+        assertEquals("Stock inválido", ValidadorProducto.errorStock("1.5"));
+        assertNull(ValidadorProducto.errorStock("0"));
+        assertNull(ValidadorProducto.errorStock(" 40 "));
+    }
+
+    @Test
+    public void categoriaYProveedorElegidos() {
+        assertNotNull(ValidadorProducto.errorCategoria(-1));
+        assertNull(ValidadorProducto.errorCategoria(0));
+        assertNotNull(ValidadorProducto.errorProveedor(-1));
+        assertNull(ValidadorProducto.errorProveedor(7));
+    }
+}
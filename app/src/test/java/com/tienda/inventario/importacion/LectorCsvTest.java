@@ -0,0 +1,81 @@
+package com.tienda.inventario.importacion;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LectorCsvTest {
+
+    @Test
+    public void comillasConSeparadorSaltoDeLineaYComillasEscapadas() throws IOException {
+        LectorFilas lector = abrir("nombre,descripcion,precio\n"
+                + "\"Lápiz, HB\",\"Dice \"\"hola\"\"\nsegunda línea\",12.5\n");
+
+        FilaImportacion fila = lector.siguiente();
+        assertNotNull(fila);
+        assertEquals("Lápiz, HB", fila.get(FilaImportacion.NOMBRE));
+        assertEquals("Dice \"hola\"\nsegunda línea", fila.get(FilaImportacion.DESCRIPCION));
+        assertEquals("12.5", fila.get(FilaImportacion.PRECIO));
+        assertNull(lector.siguiente());
+    }
+
+    @Test
+    public void finDeLineaCrlfYPuntoYComa() throws IOException {
+        LectorFilas lector = abrir("Nombre;Precio unitario;Stock\r\nArroz;10,5;3\r\nAzúcar;8;0\r\n");
+
+        FilaImportacion primera = lector.siguiente();
+        assertEquals("Arroz", primera.get(FilaImportacion.NOMBRE));
+        assertEquals("10,5", primera.get(FilaImportacion.PRECIO));
+        assertEquals("3", primera.get(FilaImportacion.STOCK_ACTUAL));
+
+        FilaImportacion segunda = lector.siguiente();
+        assertEquals("Azúcar", segunda.get(FilaImportacion.NOMBRE));
+        assertEquals("0", segunda.get(FilaImportacion.STOCK_ACTUAL));
+        assertNull(lector.siguiente());
+    }
+
+    @Test
+    public void marcaDeOrdenDeBytesNoEnsuciaElEncabezado() throws IOException {
+        LectorFilas lector = abrir("\uFEFFnombre,precio\nArroz,10\n");
+
+        assertTrue(lector instanceof LectorCsv);
+        FilaImportacion fila = lector.siguiente();
+        assertEquals("Arroz", fila.get(FilaImportacion.NOMBRE));
+        assertEquals("10", fila.get(FilaImportacion.PRECIO));
+    }
+
+    @Test
+    public void tabuladorLineasEnBlancoYColumnasDesconocidas() throws IOException {
+        LectorFilas lector = abrir("nombre\tcolor\tcodigo\n\nArroz\tblanco\t779\n\n");
+
+        FilaImportacion fila = lector.siguiente();
+        assertEquals("Arroz", fila.get(FilaImportacion.NOMBRE));
+        assertEquals("779", fila.get(FilaImportacion.CODIGO_BARRAS));
+        assertNull(fila.get(FilaImportacion.DESCRIPCION));
+        assertNull(lector.siguiente());
+    }
+
+    @Test
+    public void ultimaFilaSinSaltoDeLinea() throws IOException {
+        LectorFilas lector = abrir("nombre,precio\nArroz,10");
+
+        assertEquals("10", lector.siguiente().get(FilaImportacion.PRECIO));
+        assertNull(lector.siguiente());
+    }
+
+    @Test
+    public void archivoVacio() throws IOException {
+        assertNull(abrir("").siguiente());
+    }
+
+    private static LectorFilas abrir(String contenido) throws IOException {
+        return LectorFilas.abrir(new BufferedReader(new StringReader(contenido)));
+    }
+}
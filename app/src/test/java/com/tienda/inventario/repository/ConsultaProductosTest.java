@@ -0,0 +1,46 @@
+package com.tienda.inventario.repository;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConsultaProductosTest {
+
+    @Test
+    public void cambiarUnCriterioConservaLosDemas() {
+        ConsultaProductos consulta = ConsultaProductos.TODOS
+                .conCategoria(3)
+                .conSoloStockBajo(true)
+                .conRangoPrecio(100L, null)
+                .conProveedor(7);
+
+        assertEquals(Integer.valueOf(3), consulta.getIdCategoria());
+        assertEquals(Integer.valueOf(7), consulta.getIdProveedor());
+        assertTrue(consulta.isSoloStockBajo());
+        assertEquals(Long.valueOf(100L), consulta.getPrecioMinCentavos());
+        assertNull(consulta.getPrecioMaxCentavos());
+        assertTrue(ConsultaProductos.TODOS.esVacia());
+    }
+
+    @Test
+    public void textoEnBlancoNoFiltra() {
+        assertNull(ConsultaProductos.TODOS.conTexto("   ").getTexto());
+        assertNull(ConsultaProductos.TODOS.conTexto(null).getTexto());
+        assertEquals("arroz", ConsultaProductos.TODOS.conTexto("  arroz ").getTexto());
+        assertTrue(ConsultaProductos.TODOS.conTexto(" ").esVacia());
+    }
+
+    @Test
+    public void rangoConUnSoloExtremo() {
+        assertTrue(ConsultaProductos.TODOS.conRangoPrecio(null, 500L).tieneRangoPrecio());
+        assertFalse(ConsultaProductos.TODOS.conRangoPrecio(null, null).tieneRangoPrecio());
+    }
+
+    @Test
+    public void elOrdenCuentaComoCriterio() {
+        assertFalse(ConsultaProductos.TODOS.conOrden(OrdenProductos.PRECIO).esVacia());
+    }
+}
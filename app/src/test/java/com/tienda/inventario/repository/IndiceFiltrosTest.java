@@ -0,0 +1,168 @@
+package com.tienda.inventario.repository;
+
+import com.tienda.inventario.database.entities.Producto;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IndiceFiltrosTest {
+
+    @Test
+    public void filtrosCombinados() {
+        IndiceFiltros indice = IndiceFiltros.construir(TablaProductos.construir(Arrays.asList(
+                producto("a", "Arroz", 1, 1, 150.0, 2, 5),
+                producto("b", "Azúcar", 1, 2, 120.0, 1, 5),
+                producto("c", "Café", 1, 2, 900.0, 0, 3),
+                producto("d", "Detergente", 2, 2, 450.0, 1, 4),
+                producto("e", "Harina", 1, 2, 80.0, 30, 5))));
+
+        ConsultaProductos consulta = ConsultaProductos.TODOS
+                .conCategoria(1)
+                .conProveedor(2)
+                .conSoloStockBajo(true);
+        assertEquals(Arrays.asList("b", "c"), ids(indice.evaluar(consulta, null)));
+
+        // Rango inclusivo en centavos
+        assertEquals(Collections.singletonList("b"),
+                ids(indice.evaluar(consulta.conRangoPrecio(12000L, 45000L), null)));
+        assertEquals(Collections.singletonList("c"),
+                ids(indice.evaluar(consulta.conRangoPrecio(12001L, null), null)));
+
+        // Categoría sin productos
+        assertTrue(indice.evaluar(ConsultaProductos.TODOS.conCategoria(9), null).isEmpty());
+    }
+
+    @Test
+    public void textoConservaLaRelevanciaSalvoOrdenExplicito() {
+        List<Producto> lista = Arrays.asList(
+                producto("a", "Leche entera", 1, 1, 200.0, 9, 1),
+                producto("b", "Chocolatada", 1, 1, 250.0, 9, 1),
+                producto("c", "Galletas", 2, 1, 100.0, 9, 1));
+        IndiceFiltros indice = IndiceFiltros.construir(TablaProductos.construir(lista));
+
+        // Ranking de la búsqueda de texto: c, b, a
+        List<Producto> ranking = Arrays.asList(lista.get(2), lista.get(1), lista.get(0));
+        ConsultaProductos consulta = ConsultaProductos.TODOS.conTexto("x").conCategoria(1);
+
+        assertEquals(Arrays.asList("b", "a"), ids(indice.evaluar(consulta, ranking)));
+        assertEquals(Arrays.asList("a", "b"),
+                ids(indice.evaluar(consulta.conOrden(OrdenProductos.PRECIO), ranking)));
+    }
+
+    @Test
+    public void actualizarMueveLaFilaEntreFiltros() {
+        List<Producto> lista = Arrays.asList(
+                producto("a", "Arroz", 1, 1, 150.0, 10, 5),
+                producto("b", "Azúcar", 1, 1, 120.0, 10, 5));
+        IndiceFiltros indice = IndiceFiltros.construir(TablaProductos.construir(lista));
+
+        Producto azucar = lista.get(1).copiar();
+        azucar.setIdCategoria(2);
+        azucar.setStockActual(0);
+        assertTrue(indice.actualizar(azucar));
+
+        assertEquals(Collections.singletonList("a"),
+                ids(indice.evaluar(ConsultaProductos.TODOS.conCategoria(1), null)));
+        assertEquals(Collections.singletonList("b"),
+                ids(indice.evaluar(ConsultaProductos.TODOS.conCategoria(2).conSoloStockBajo(true), null)));
+        assertEquals(Arrays.asList("b", "a"),
+                ids(indice.evaluar(ConsultaProductos.TODOS.conOrden(OrdenProductos.STOCK), null)));
+
+        assertFalse(indice.actualizar(producto("z", "Otro", 1, 1, 1.0, 1, 1)));
+    }
+
+    @Test
+    public void coincideConRecorrerElCatalogo() {
+        Random random = new Random(42);
+        List<Producto> lista = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            lista.add(producto("p" + i, "Producto " + random.nextInt(1000), random.nextInt(5), random.nextInt(4),
+                    random.nextInt(10000) / 100.0, random.nextInt(20), random.nextInt(10)));
+        }
+        IndiceFiltros indice = IndiceFiltros.construir(TablaProductos.construir(lista));
+
+        for (int intento = 0; intento < 200; intento++) {
+            // Algunos productos cambian entre consultas
+            Producto cambiado = lista.get(random.nextInt(lista.size())).copiar();
+            cambiado.setIdCategoria(random.nextInt(5));
+            cambiado.setStockActual(random.nextInt(20));
+            cambiado.setPrecioUnitario(random.nextInt(10000) / 100.0);
+            lista.set(lista.indexOf(buscar(lista, cambiado.getDocId())), cambiado);
+            indice.actualizar(cambiado);
+
+            ConsultaProductos consulta = ConsultaProductos.TODOS;
+            if (random.nextBoolean()) {
+                consulta = consulta.conCategoria(random.nextInt(5));
+            }
+            if (random.nextBoolean()) {
+                consulta = consulta.conProveedor(random.nextInt(4));
+            }
+            consulta = consulta.conSoloStockBajo(random.nextInt(3) == 0);
+            if (random.nextBoolean()) {
+                long minimo = random.nextInt(5000);
+                consulta = consulta.conRangoPrecio(minimo, minimo + random.nextInt(5000));
+            }
+            consulta = consulta.conOrden(OrdenProductos.values()[random.nextInt(OrdenProductos.values().length)]);
+
+            assertEquals(esperado(indice.getTabla(), consulta), ids(indice.evaluar(consulta, null)));
+        }
+    }
+
+    /**
+     * Misma consulta recorriendo la tabla fila por fila
+     */
+    private static List<String> esperado(TablaProductos tabla, ConsultaProductos consulta) {
+        List<Integer> filas = new ArrayList<>();
+        for (int fila = 0; fila < tabla.getTamano(); fila++) {
+            Producto p = tabla.getProducto(fila);
+            long precio = Math.round(p.getPrecioUnitario() * 100);
+            if ((consulta.getIdCategoria() == null || consulta.getIdCategoria() == p.getIdCategoria())
+                    && (consulta.getIdProveedor() == null || consulta.getIdProveedor() == p.getIdProveedor())
+                    && (!consulta.isSoloStockBajo() || p.isBajoStock())
+                    && (consulta.getPrecioMinCentavos() == null || precio >= consulta.getPrecioMinCentavos())
+                    && (consulta.getPrecioMaxCentavos() == null || precio <= consulta.getPrecioMaxCentavos())) {
+                filas.add(fila);
+            }
+        }
+        filas.sort((a, b) -> consulta.getOrden().comparar(tabla, a, b));
+
+        List<String> ids = new ArrayList<>();
+        for (int fila : filas) {
+            ids.add(tabla.getProducto(fila).getDocId());
+        }
+        return ids;
+    }
+
+    private static Producto buscar(List<Producto> lista, String docId) {
+        for (Producto p : lista) {
+            if (p.getDocId().equals(docId)) {
+                return p;
+            }
+        }
+        throw new AssertionError(docId);
+    }
+
+    static List<String> ids(List<Producto> productos) {
+        List<String> ids = new ArrayList<>();
+        for (Producto p : productos) {
+            ids.add(p.getDocId());
+        }
+        return ids;
+    }
+
+    static Producto producto(String docId, String nombre, int categoria, int proveedor,
+                             double precio, int stock, int minimo) {
+        Producto p = new Producto(nombre, null, precio, stock, minimo, categoria, proveedor, null);
+        p.setDocId(docId);
+        return p;
+    }
+}
@@ -0,0 +1,109 @@
+package com.tienda.inventario.repository;
+
+import com.tienda.inventario.database.entities.Producto;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IndicesOrdenTest {
+
+    @Test
+    public void nombreSegunReglasDelEspanol() {
+        TablaProductos tabla = TablaProductos.construir(Arrays.asList(
+                producto("Ñoquis", 1, 1, 0),
+                producto("nuez", 1, 1, 0),
+                producto("Árbol de Navidad", 1, 1, 0),
+                producto("arroz", 1, 1, 0),
+                producto("Azúcar", 1, 1, 0)));
+        IndicesOrden indices = IndicesOrden.construir(tabla);
+
+        assertArrayEquals(new int[]{2, 3, 4, 1, 0}, indices.filas(OrdenProductos.NOMBRE));
+    }
+
+    @Test
+    public void empatesPorNumeroDeFila() {
+        TablaProductos tabla = TablaProductos.construir(Arrays.asList(
+                producto("B", 5.0, 3, 1),
+                producto("A", 5.0, 3, 1),
+                producto("C", 5.0, 3, 1)));
+        IndicesOrden indices = IndicesOrden.construir(tabla);
+
+        assertArrayEquals(new int[]{0, 1, 2}, indices.filas(OrdenProductos.PRECIO));
+        assertArrayEquals(new int[]{0, 1, 2}, indices.filas(OrdenProductos.DEFICIT));
+    }
+
+    @Test
+    public void insercionBinariaMantieneElOrden() {
+        Random random = new Random(7);
+        List<Producto> lista = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lista.add(producto("Producto " + random.nextInt(50), random.nextInt(500) / 10.0,
+                    random.nextInt(30), random.nextInt(10)));
+        }
+        TablaProductos tabla = TablaProductos.construir(lista);
+        IndicesOrden indices = IndicesOrden.construir(tabla);
+        verificar(tabla, indices);
+
+        for (int i = 0; i < 500; i++) {
+            int fila = random.nextInt(tabla.getTamano());
+            Producto cambiado = tabla.getProducto(fila).copiar();
+            cambiado.setNombreProducto("Producto " + random.nextInt(50));
+            cambiado.setPrecioUnitario(random.nextInt(500) / 10.0);
+            cambiado.setStockActual(random.nextInt(30));
+            cambiado.setUltimaActualizacion(random.nextInt(1000));
+
+            indices.quitar(fila);
+            tabla.actualizarFila(fila, cambiado);
+            indices.insertar(fila);
+            verificar(tabla, indices);
+        }
+    }
+
+    @Test
+    public void filaModificadaSinQuitarSeUbicaIgual() {
+        List<Producto> lista = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lista.add(producto("P" + i, i, i, 0));
+        }
+        TablaProductos tabla = TablaProductos.construir(lista);
+        IndicesOrden indices = IndicesOrden.construir(tabla);
+
+        // La tabla cambia antes de quitar(): la búsqueda binaria no la encuentra
+        Producto cambiado = tabla.getProducto(3).copiar();
+        cambiado.setPrecioUnitario(1000.0);
+        cambiado.setStockActual(1000);
+        tabla.actualizarFila(3, cambiado);
+        indices.quitar(3);
+        indices.insertar(3);
+
+        verificar(tabla, indices);
+    }
+
+    /**
+     * Cada permutación contiene todas las filas una vez y respeta su criterio
+     */
+    private static void verificar(TablaProductos tabla, IndicesOrden indices) {
+        for (OrdenProductos orden : OrdenProductos.values()) {
+            int[] filas = indices.filas(orden);
+            int[] ordenadas = filas.clone();
+            Arrays.sort(ordenadas);
+            for (int i = 0; i < ordenadas.length; i++) {
+                assertTrue(orden + ": falta la fila " + i, ordenadas[i] == i);
+            }
+            for (int i = 1; i < filas.length; i++) {
+                assertTrue(orden + " en la posición " + i, orden.comparar(tabla, filas[i - 1], filas[i]) < 0);
+            }
+        }
+    }
+
+    private static Producto producto(String nombre, double precio, int stock, int minimo) {
+        return new Producto(nombre, null, precio, stock, minimo, 1, 1, null);
+    }
+}
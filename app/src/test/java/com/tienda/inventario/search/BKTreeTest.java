@@ -0,0 +1,49 @@
+package com.tienda.inventario.search;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class BKTreeTest {
+
+    private static final String[] PALABRAS = {
+            "lapiz", "lapicero", "papel", "papas", "pala", "sal", "salsa", "leche",
+            "lechuga", "galletas", "gaseosa", "cola", "coca", "arroz", "harina", "azucar"
+    };
+
+    @Test
+    public void encuentraLoMismoQueRecorrerTodo() {
+        // Capacidad 1: también prueba que los arreglos crecen
+        BKTree arbol = new BKTree(1);
+        for (int i = 0; i < PALABRAS.length; i++) {
+            arbol.agregar(PALABRAS[i], i);
+        }
+
+        String[] consultas = {"lapis", "papa", "sals", "leche", "galeta", "asucar", "xyz"};
+        for (String consulta : consultas) {
+            for (int maximo = 0; maximo <= 2; maximo++) {
+                Map<Integer, Integer> esperado = new HashMap<>();
+                for (int i = 0; i < PALABRAS.length; i++) {
+                    int d = Levenshtein.distancia(consulta, PALABRAS[i], maximo);
+                    if (d <= maximo) {
+                        esperado.put(i, d);
+                    }
+                }
+
+                Map<Integer, Integer> encontrado = new HashMap<>();
+                arbol.buscar(consulta, maximo, encontrado::put);
+                assertEquals(consulta + " a " + maximo, esperado, encontrado);
+            }
+        }
+    }
+
+    @Test
+    public void arbolVacio() {
+        Map<Integer, Integer> encontrado = new HashMap<>();
+        new BKTree(0).buscar("sal", 2, encontrado::put);
+        assertEquals(0, encontrado.size());
+    }
+}
@@ -0,0 +1,157 @@
+package com.tienda.inventario.search;
+
+import com.tienda.inventario.database.entities.Producto;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BuscadorProductosTest {
+
+    // Posiciones en el catálogo de prueba
+    private static final int GALLETAS = 0;
+    private static final int LECHE = 1;
+    private static final int CHOCOLATADA = 2;
+    private static final int PORTALAPIZ = 3;
+    private static final int COCA = 4;
+    private static final int CAFE = 5;
+
+    private final BuscadorProductos buscador = BuscadorProductos.construir(catalogo());
+
+    @Test
+    public void exactoYSinAcentos() {
+        assertArrayEquals(new int[]{GALLETAS}, buscador.buscarIndices("MARIA", 10));
+        assertArrayEquals(new int[]{CAFE}, buscador.buscarIndices("café", 10));
+    }
+
+    @Test
+    public void prefijoMientrasSeEscribe() {
+        assertArrayEquals(new int[]{GALLETAS}, buscador.buscarIndices("gall", 10));
+    }
+
+    @Test
+    public void toleraErroresDeTipeo() {
+        assertArrayEquals(new int[]{GALLETAS}, buscador.buscarIndices("galetas", 10));
+        assertArrayEquals(new int[]{GALLETAS}, buscador.buscarIndices("gallletas", 10));
+    }
+
+    @Test
+    public void terminosCortosNoToleranErrores() {
+        // "cafe" con un error: 4 letras admiten distancia 1
+        assertArrayEquals(new int[]{CAFE}, buscador.buscarIndices("cafr", 10));
+        // 3 letras o menos: sin corrección
+        assertEquals(0, buscador.buscarIndices("cqf", 10).length);
+    }
+
+    @Test
+    public void subcadenaDentroDeUnaPalabra() {
+        assertArrayEquals(new int[]{PORTALAPIZ}, buscador.buscarIndices("lapi", 10));
+    }
+
+    @Test
+    public void palabrasUnidas() {
+        assertArrayEquals(new int[]{COCA}, buscador.buscarIndices("cocacola", 10));
+        assertArrayEquals(new int[]{COCA}, buscador.buscarIndices("coca cola", 10));
+    }
+
+    @Test
+    public void todosLosTerminosSonObligatorios() {
+        assertArrayEquals(new int[]{CHOCOLATADA}, buscador.buscarIndices("leche chocolate", 10));
+    }
+
+    @Test
+    public void nombrePuntuaMasQueDescripcion() {
+        // LECHE la tiene en el nombre, CHOCOLATADA en la descripción
+        assertArrayEquals(new int[]{LECHE, CHOCOLATADA}, buscador.buscarIndices("leche", 10));
+    }
+
+    @Test
+    public void codigoDeBarrasPorPrefijo() {
+        assertArrayEquals(new int[]{CAFE}, buscador.buscarIndices("77900", 10));
+    }
+
+    @Test
+    public void limiteDeResultados() {
+        assertEquals(0, buscador.buscarIndices("leche", 0).length);
+        assertEquals(0, buscador.buscarIndices("leche", -1).length);
+        assertArrayEquals(new int[]{LECHE}, buscador.buscarIndices("leche", 1));
+        assertEquals(2, buscador.buscar("leche", 100).size());
+    }
+
+    @Test
+    public void limiteCeroNoDejaPuntajesPendientes() {
+        buscador.buscarIndices("leche", 0);
+        assertArrayEquals(new int[]{GALLETAS}, buscador.buscarIndices("galletas", 10));
+    }
+
+    @Test
+    public void empatesEnOrdenDeCatalogo() {
+        BuscadorProductos iguales = BuscadorProductos.construir(Arrays.asList(
+                producto("a", "Arroz", null, null),
+                producto("b", "Arroz", null, null),
+                producto("c", "Arroz", null, null)));
+        assertArrayEquals(new int[]{0, 1, 2}, iguales.buscarIndices("arroz", 10));
+        assertArrayEquals(new int[]{0, 1}, iguales.buscarIndices("arroz", 2));
+    }
+
+    @Test
+    public void consultaOCatalogoVacios() {
+        assertEquals(0, buscador.buscarIndices("  ", 10).length);
+        assertEquals(0, BuscadorProductos.construir(new ArrayList<>()).buscarIndices("arroz", 10).length);
+    }
+
+    @Test
+    public void actualizarEquivaleAReconstruir() {
+        List<Producto> lista = catalogo();
+        BuscadorProductos incremental = BuscadorProductos.construir(lista);
+
+        lista.set(LECHE, producto("leche", "Leche descremada", "Sachet de 1 litro", null));
+        incremental.actualizar(LECHE, lista.get(LECHE));
+        lista.set(CAFE, producto("cafe", "Yerba mate", null, "7790070"));
+        incremental.actualizar(CAFE, lista.get(CAFE));
+
+        BuscadorProductos completo = BuscadorProductos.construir(lista);
+        String[] consultas = {"leche", "entera", "descremada", "descremda", "cafe", "yerba", "erba",
+                "mate", "lechedescremada", "7790", "sachet"};
+        for (String consulta : consultas) {
+            assertArrayEquals(consulta, completo.buscarIndices(consulta, 10),
+                    incremental.buscarIndices(consulta, 10));
+        }
+        assertEquals(0, incremental.buscarIndices("entera", 10).length);
+        assertArrayEquals(new int[]{CAFE}, incremental.buscarIndices("yerba", 10));
+    }
+
+    @Test
+    public void actualizarSinCambiarElTextoReemplazaElProducto() {
+        List<Producto> lista = catalogo();
+        BuscadorProductos incremental = BuscadorProductos.construir(lista);
+
+        Producto conOtroPrecio = lista.get(LECHE).copiar();
+        conOtroPrecio.setPrecioUnitario(99.0);
+        incremental.actualizar(LECHE, conOtroPrecio);
+
+        assertEquals(99.0, incremental.buscar("entera", 1).get(0).getPrecioUnitario(), 0.0);
+    }
+
+    static List<Producto> catalogo() {
+        List<Producto> lista = new ArrayList<>();
+        lista.add(producto("galletas", "Galletas María", "Paquete de 200 g", null));
+        lista.add(producto("leche", "Leche entera", "Sachet de 1 litro", null));
+        lista.add(producto("chocolatada", "Chocolatada", "Leche con chocolate", null));
+        lista.add(producto("portalapiz", "Portalapiz metálico", null, null));
+        lista.add(producto("coca", "Coca-Cola 2 L", "Gaseosa", null));
+        lista.add(producto("cafe", "Café molido", null, "7790070"));
+        return lista;
+    }
+
+    static Producto producto(String docId, String nombre, String descripcion, String codigo) {
+        Producto p = new Producto(nombre, descripcion, 10.0, 5, 1, 1, 1, codigo);
+        p.setDocId(docId);
+        return p;
+    }
+}
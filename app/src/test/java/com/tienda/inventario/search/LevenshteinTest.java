@@ -0,0 +1,25 @@
+package com.tienda.inventario.search;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LevenshteinTest {
+
+    @Test
+    public void distanciaExacta() {
+        assertEquals(0, Levenshtein.distancia("lapiz", "lapiz", 2));
+        assertEquals(1, Levenshtein.distancia("galetas", "galletas", 2));
+        assertEquals(1, Levenshtein.distancia("casa", "cosa", 2));
+        assertEquals(2, Levenshtein.distancia("leche", "lecehs", 2));
+        assertEquals(3, Levenshtein.distancia("", "sal", 5));
+    }
+
+    @Test
+    public void corteAlSuperarElMaximo() {
+        // Diferencia de longitud mayor al máximo
+        assertEquals(2, Levenshtein.distancia("te", "tenedor", 1));
+        // Ninguna fila queda por debajo del máximo
+        assertEquals(3, Levenshtein.distancia("abcdef", "uvwxyz", 2));
+    }
+}
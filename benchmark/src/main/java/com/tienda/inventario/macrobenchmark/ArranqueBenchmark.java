@@ -0,0 +1,76 @@
+package com.tienda.inventario.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Arranque de MainActivity con el catálogo de prueba (ver SembradorEmulador):
+ * en frío sin compilar y con el Baseline Profile, y en caliente.
+ *
+ * StartupTimingMetric informa timeToInitialDisplayMs (primer frame) y
+ * timeToFullDisplayMs (reportFullyDrawn, cuando se muestra la lista).
+ * Las secciones de traza de InventarioApp y MainActivity.onCreate quedan
+ * en las trazas de cada iteración (build/outputs/connected_android_test_additional_output).
+ *
+ * Ejecutar con: ./gradlew :benchmark:connectedBenchmarkReleaseAndroidTest -PusarEmuladorFirebase=true
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.tienda.inventario.macrobenchmark.ArranqueBenchmark
+ */
+@RunWith(AndroidJUnit4.class)
+public class ArranqueBenchmark {
+
+    private static final int ITERACIONES = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @BeforeClass
+    public static void cargarCatalogo() throws Exception {
+        SembradorEmulador.sembrar(SembradorEmulador.PRODUCTOS);
+    }
+
+    @Test
+    public void arranqueEnFrioSinCompilar() {
+        arranque(new CompilationMode.None(), StartupMode.COLD);
+    }
+
+    @Test
+    public void arranqueEnFrioConBaselineProfile() {
+        arranque(new CompilationMode.Partial(BaselineProfileMode.Require, 0), StartupMode.COLD);
+    }
+
+    @Test
+    public void arranqueEnCaliente() {
+        arranque(new CompilationMode.Partial(BaselineProfileMode.Require, 0), StartupMode.WARM);
+    }
+
+    private void arranque(CompilationMode compilacion, StartupMode modo) {
+        benchmarkRule.measureRepeated(
+                Recorridos.PAQUETE,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilacion,
+                modo,
+                ITERACIONES,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    Recorridos.esperarLista(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
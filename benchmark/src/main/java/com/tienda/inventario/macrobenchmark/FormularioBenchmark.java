@@ -0,0 +1,61 @@
+package com.tienda.inventario.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Frames de abrir FormProductoActivity desde el FAB, completar un producto
+ * nuevo y guardarlo hasta volver a la lista. Cada iteración agrega un
+ * producto al emulador (no cambia el catálogo de prueba).
+ *
+ * Ejecutar con: ./gradlew :benchmark:connectedBenchmarkReleaseAndroidTest -PusarEmuladorFirebase=true
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.tienda.inventario.macrobenchmark.FormularioBenchmark
+ */
+@RunWith(AndroidJUnit4.class)
+public class FormularioBenchmark {
+
+    private static final int ITERACIONES = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private int creados = 0;
+
+    @BeforeClass
+    public static void cargarCatalogo() throws Exception {
+        SembradorEmulador.sembrar(SembradorEmulador.PRODUCTOS);
+    }
+
+    @Test
+    public void crearProducto() {
+        benchmarkRule.measureRepeated(
+                Recorridos.PAQUETE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require, 0),
+                null,
+                ITERACIONES,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    Recorridos.esperarLista(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Recorridos.crearProducto(scope, "Benchmark " + (++creados),
+                            SembradorEmulador.CATEGORIAS[0], SembradorEmulador.PROVEEDORES[0]);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,43 @@
+package com.tienda.inventario.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Genera el Baseline Profile de :app: arranque, carga de la lista, scroll y búsqueda.
+ * Las clases y métodos que se ejecutan acá se compilan AOT al instalar la app.
+ *
+ * Ejecutar con: ./gradlew :app:generateBaselineProfile
+ *     (copia el resultado a app/src/main/generated/baselineProfiles)
+ */
+@RunWith(AndroidJUnit4.class)
+public class GeneradorBaselineProfile {
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generar() {
+        baselineProfileRule.collect(
+                Recorridos.PAQUETE,
+                15,     // iteraciones máximas
+                3,      // iteraciones estables
+                null,
+                true,   // incluir también en el Startup Profile (orden de clases en el dex)
+                false,
+                regla -> true,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    Recorridos.deslizarLista(scope);
+                    Recorridos.escribirBusqueda(scope, "leche");
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,77 @@
+package com.tienda.inventario.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import kotlin.Unit;
+
+/**
+ * Frames de la pantalla principal con 5.000 productos: scroll de
+ * recyclerViewProductos, búsqueda en vivo en etBuscar y filtro por categoría.
+ *
+ * FrameTimingMetric informa frameDurationCpuMs y frameOverrunMs (API 31+)
+ * en P50/P90/P95/P99; frameOverrunMs > 0 es un frame perdido (jank).
+ *
+ * Ejecutar con: ./gradlew :benchmark:connectedBenchmarkReleaseAndroidTest -PusarEmuladorFirebase=true
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.tienda.inventario.macrobenchmark.NavegacionBenchmark
+ */
+@RunWith(AndroidJUnit4.class)
+public class NavegacionBenchmark {
+
+    private static final int ITERACIONES = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @BeforeClass
+    public static void cargarCatalogo() throws Exception {
+        SembradorEmulador.sembrar(SembradorEmulador.PRODUCTOS);
+    }
+
+    @Test
+    public void deslizarLista() {
+        medirFrames(Recorridos::deslizarLista);
+    }
+
+    @Test
+    public void escribirBusqueda() {
+        medirFrames(scope -> Recorridos.escribirBusqueda(scope, "leche"));
+    }
+
+    @Test
+    public void filtrarCategoria() {
+        medirFrames(scope -> Recorridos.filtrarCategoria(scope, SembradorEmulador.CATEGORIAS[1]));
+    }
+
+    private void medirFrames(Consumer<MacrobenchmarkScope> recorrido) {
+        benchmarkRule.measureRepeated(
+                Recorridos.PAQUETE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require, 0),
+                null,
+                ITERACIONES,
+                scope -> {
+                    // La lista ya cargada: solo se miden los frames del recorrido
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    Recorridos.esperarLista(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    recorrido.accept(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,133 @@
+package com.tienda.inventario.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * Recorridos de UI compartidos por los benchmarks y el generador del Baseline Profile
+ */
+final class Recorridos {
+
+    static final String PAQUETE = "com.tienda.inventario";
+
+    private static final long ESPERA_LISTA_MS = 10_000;
+    private static final long ESPERA_VISTA_MS = 3_000;
+
+    private Recorridos() {
+    }
+
+    /**
+     * Esperar a que la lista muestre productos (el mismo punto en el que
+     * MainActivity llama a reportFullyDrawn)
+     */
+    static UiObject2 esperarLista(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.wait(Until.hasObject(By.res(PAQUETE, "recyclerViewProductos").hasChildren(true)),
+                ESPERA_LISTA_MS);
+        UiObject2 lista = device.findObject(By.res(PAQUETE, "recyclerViewProductos"));
+        if (lista == null) {
+            throw new IllegalStateException("No apareció recyclerViewProductos");
+        }
+        return lista;
+    }
+
+    /**
+     * Deslizar la lista hacia abajo varias veces y volver
+     */
+    static void deslizarLista(MacrobenchmarkScope scope) {
+        UiObject2 lista = esperarLista(scope);
+        // Margen para que el gesto no empiece en la barra de navegación
+        lista.setGestureMargin(scope.getDevice().getDisplayWidth() / 5);
+        for (int i = 0; i < 3; i++) {
+            lista.fling(Direction.DOWN);
+        }
+        scope.getDevice().waitForIdle();
+        lista.fling(Direction.UP);
+        scope.getDevice().waitForIdle();
+    }
+
+    /**
+     * Escribir una búsqueda en etBuscar letra por letra (cada letra dispara
+     * la búsqueda en vivo) y volver a la lista completa
+     */
+    static void escribirBusqueda(MacrobenchmarkScope scope, String texto) {
+        UiDevice device = scope.getDevice();
+        UiObject2 campo = buscarVista(device, "etBuscar");
+        for (int i = 1; i <= texto.length(); i++) {
+            campo.setText(texto.substring(0, i));
+            device.waitForIdle();
+        }
+        campo.setText("");
+        device.waitForIdle();
+    }
+
+    /**
+     * Elegir una categoría en spinnerFiltroCategoria y volver a "Todas"
+     */
+    static void filtrarCategoria(MacrobenchmarkScope scope, String categoria) {
+        UiDevice device = scope.getDevice();
+        elegirOpcion(device, "spinnerFiltroCategoria", categoria);
+        esperarLista(scope);
+        elegirOpcion(device, "spinnerFiltroCategoria", "-- Todas las categorías --");
+        esperarLista(scope);
+    }
+
+    /**
+     * Abrir FormProductoActivity desde el FAB, completar un producto nuevo y guardarlo
+     */
+    static void crearProducto(MacrobenchmarkScope scope, String nombre, String categoria, String proveedor) {
+        UiDevice device = scope.getDevice();
+        buscarVista(device, "fabAgregarProducto").click();
+
+        buscarVista(device, "etNombre").setText(nombre);
+        buscarVista(device, "etPrecio").setText("1500");
+        buscarVista(device, "etStockActual").setText("10");
+        buscarVista(device, "etStockMinimo").setText("2");
+        elegirOpcion(device, "spinnerCategoria", categoria);
+        elegirOpcion(device, "spinnerProveedor", proveedor);
+
+        UiObject2 guardar = device.findObject(By.res(PAQUETE, "btnGuardar"));
+        UiObject2 formulario = device.findObject(By.scrollable(true));
+        while (guardar == null && formulario != null && formulario.scroll(Direction.DOWN, 0.8f)) {
+            guardar = device.findObject(By.res(PAQUETE, "btnGuardar"));
+        }
+        if (guardar == null) {
+            throw new IllegalStateException("No apareció btnGuardar");
+        }
+        guardar.click();
+
+        // Al confirmarse la escritura el formulario se cierra y vuelve la lista
+        device.wait(Until.gone(By.res(PAQUETE, "btnGuardar")), ESPERA_LISTA_MS);
+        esperarLista(scope);
+    }
+
+    private static void elegirOpcion(UiDevice device, String idSpinner, String opcion) {
+        UiObject2 spinner = device.findObject(By.res(PAQUETE, idSpinner));
+        UiObject2 formulario = device.findObject(By.scrollable(true));
+        while (spinner == null && formulario != null && formulario.scroll(Direction.DOWN, 0.5f)) {
+            spinner = device.findObject(By.res(PAQUETE, idSpinner));
+        }
+        if (spinner == null) {
+            throw new IllegalStateException("No apareció " + idSpinner);
+        }
+        spinner.click();
+        UiObject2 item = device.wait(Until.findObject(By.text(opcion)), ESPERA_VISTA_MS);
+        if (item == null) {
+            throw new IllegalStateException("No apareció la opción " + opcion + " en " + idSpinner);
+        }
+        item.click();
+        device.waitForIdle();
+    }
+
+    private static UiObject2 buscarVista(UiDevice device, String id) {
+        UiObject2 vista = device.wait(Until.findObject(By.res(PAQUETE, id)), ESPERA_VISTA_MS);
+        if (vista == null) {
+            throw new IllegalStateException("No apareció " + id);
+        }
+        return vista;
+    }
+}
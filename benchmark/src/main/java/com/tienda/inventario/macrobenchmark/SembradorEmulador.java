@@ -0,0 +1,256 @@
+package com.tienda.inventario.macrobenchmark;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Carga el catálogo de prueba en el emulador local de Firestore, por su API REST.
+ *
+ * - Datos deterministas (misma semilla): todas las corridas miden lo mismo.
+ * - Si el emulador ya tiene el mismo catálogo (documento fixtures/benchmark)
+ *   no se vuelve a escribir; si no, se vacía la base y se carga de nuevo.
+ * - "Bearer owner" es el token de administrador del emulador: saltea las reglas.
+ *
+ * Requiere el emulador corriendo con el proyecto de google-services.json
+ * (firebase emulators:start --config firebase.emulador.json --project inventario-db-a6063)
+ * y la app compilada con -PusarEmuladorFirebase=true.
+ */
+final class SembradorEmulador {
+
+    private static final String TAG = "SembradorEmulador";
+
+    static final int PRODUCTOS = 5_000;
+
+    // Categorías del catálogo; los benchmarks filtran por una de ellas
+    static final String[] CATEGORIAS = {
+            "Almacén", "Bebidas", "Congelados", "Lácteos",
+            "Limpieza", "Panadería", "Perfumería", "Snacks"
+    };
+
+    private static final String[][] NOMBRES_POR_CATEGORIA = {
+            {"Arroz", "Fideos", "Aceite", "Azúcar", "Harina", "Yerba"},
+            {"Agua mineral", "Gaseosa cola", "Jugo de naranja", "Cerveza", "Soda"},
+            {"Helado", "Hamburguesas", "Verduras congeladas", "Pizza"},
+            {"Leche entera", "Yogur", "Queso cremoso", "Manteca", "Dulce de leche"},
+            {"Detergente", "Lavandina", "Limpiador de pisos", "Esponja"},
+            {"Pan lactal", "Medialunas", "Pan rallado", "Bizcochos"},
+            {"Shampoo", "Jabón", "Desodorante", "Pasta dental"},
+            {"Papas fritas", "Galletitas", "Maní", "Chocolate", "Alfajor"}
+    };
+
+    static final String[] PROVEEDORES = {
+            "Distribuidora Norte", "Mayorista Central", "Alimentos del Sur",
+            "Higiene Total", "Bebidas Express"
+    };
+
+    private static final String PROYECTO = "inventario-db-a6063";
+    private static final int PUERTO = 8080;
+    private static final int ESCRITURAS_POR_COMMIT = 500;
+    private static final long SEMILLA = 42;
+    private static final String FECHA = "2024-01-01T00:00:00Z";
+
+    // Igual que AsignadorIds.NUM_SHARDS
+    private static final int NUM_SHARDS_CONTADORES = 4;
+
+    private SembradorEmulador() {
+    }
+
+    /**
+     * Asegurar que el emulador tenga el catálogo de `productos` productos
+     */
+    static synchronized void sembrar(int productos) throws IOException, JSONException {
+        if (catalogoCargado(productos)) {
+            Log.d(TAG, "✓ Catálogo de prueba ya cargado (" + productos + " productos)");
+            return;
+        }
+
+        pedir("DELETE", urlEmulador() + "/emulator/v1/projects/" + PROYECTO
+                + "/databases/(default)/documents", null);
+
+        JSONArray escrituras = new JSONArray();
+        for (int i = 0; i < CATEGORIAS.length; i++) {
+            escrituras.put(escritura("categorias", "cat-" + (i + 1), new JSONObject()
+                    .put("id_categoria", entero(i + 1))
+                    .put("nombre_categoria", texto(CATEGORIAS[i]))
+                    .put("descripcion", texto(""))
+                    .put("fecha_creacion", fecha())
+                    .put("firestore_id", texto("cat-" + (i + 1)))));
+        }
+        for (int i = 0; i < PROVEEDORES.length; i++) {
+            escrituras.put(escritura("proveedores", "prov-" + (i + 1), new JSONObject()
+                    .put("id_proveedor", entero(i + 1))
+                    .put("nombre_proveedor", texto(PROVEEDORES[i]))
+                    .put("telefono", texto(""))
+                    .put("email", texto(""))
+                    .put("direccion", texto(""))
+                    .put("ciudad", texto("Córdoba"))
+                    .put("pais", texto("Argentina"))
+                    .put("fecha_registro", fecha())
+                    .put("firestore_id", texto("prov-" + (i + 1)))));
+        }
+        escrituras = enviarSiLleno(escrituras);
+
+        Random random = new Random(SEMILLA);
+        for (int i = 0; i < productos; i++) {
+            int categoria = random.nextInt(CATEGORIAS.length);
+            String[] nombres = NOMBRES_POR_CATEGORIA[categoria];
+            String nombre = nombres[random.nextInt(nombres.length)] + " " + (i / nombres.length + 1);
+            String docId = String.format(Locale.ROOT, "bench-%06d", i + 1);
+
+            escrituras.put(escritura("productos", docId, new JSONObject()
+                    .put("id_producto", entero(i + 1))
+                    .put("nombre_producto", texto(nombre))
+                    .put("descripcion", texto(""))
+                    .put("precio_unitario", new JSONObject()
+                            .put("doubleValue", 50 + random.nextInt(500000) / 100.0))
+                    .put("stock_actual", entero(random.nextInt(200)))
+                    .put("stock_minimo", entero(5 + random.nextInt(20)))
+                    .put("codigo_barras", texto(String.format(Locale.ROOT, "779%010d", i + 1)))
+                    .put("id_categoria", entero(categoria + 1))
+                    .put("id_proveedor", entero(1 + random.nextInt(PROVEEDORES.length)))
+                    .put("activo", new JSONObject().put("booleanValue", true))
+                    .put("imagen_url", texto(""))
+                    .put("fecha_registro", fecha())
+                    .put("ultima_actualizacion", fecha())
+                    .put("firestore_id", texto(docId))));
+            escrituras = enviarSiLleno(escrituras);
+        }
+
+        // Los IDs que entrega AsignadorIds (posición * shards + shard) empiezan después del catálogo
+        for (int s = 0; s < NUM_SHARDS_CONTADORES; s++) {
+            for (String entidad : new String[]{"productos", "categorias", "proveedores"}) {
+                escrituras.put(escritura("contadores", entidad + "_" + s, new JSONObject()
+                        .put("siguiente", entero(productos + 1))));
+            }
+        }
+        escrituras.put(escritura("fixtures", "benchmark", new JSONObject()
+                .put("productos", entero(productos))));
+        enviar(escrituras);
+
+        Log.d(TAG, "✓ Catálogo de prueba cargado: " + productos + " productos");
+    }
+
+    private static boolean catalogoCargado(int productos) throws IOException, JSONException {
+        String respuesta = pedir("GET", urlDocumentos() + "/fixtures/benchmark", null);
+        if (respuesta == null) {
+            return false;
+        }
+        JSONObject campos = new JSONObject(respuesta).optJSONObject("fields");
+        return campos != null
+                && campos.optJSONObject("productos") != null
+                && campos.getJSONObject("productos").optLong("integerValue") == productos;
+    }
+
+    private static JSONArray enviarSiLleno(JSONArray escrituras) throws IOException, JSONException {
+        if (escrituras.length() < ESCRITURAS_POR_COMMIT) {
+            return escrituras;
+        }
+        enviar(escrituras);
+        return new JSONArray();
+    }
+
+    private static void enviar(JSONArray escrituras) throws IOException, JSONException {
+        if (escrituras.length() == 0) {
+            return;
+        }
+        pedir("POST", urlDocumentos() + ":commit",
+                new JSONObject().put("writes", escrituras).toString());
+    }
+
+    /**
+     * @return el cuerpo de la respuesta, o null si el documento no existe (404)
+     */
+    private static String pedir(String metodo, String url, String cuerpo) throws IOException {
+        HttpURLConnection conexion = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            conexion.setRequestMethod(metodo);
+            conexion.setRequestProperty("Authorization", "Bearer owner");
+            if (cuerpo != null) {
+                conexion.setDoOutput(true);
+                conexion.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+                try (OutputStream salida = conexion.getOutputStream()) {
+                    salida.write(cuerpo.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            int codigo = conexion.getResponseCode();
+            if (codigo == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+            if (codigo >= 300) {
+                throw new IOException(metodo + " " + url + " -> HTTP " + codigo + ": "
+                        + leer(conexion.getErrorStream()));
+            }
+            return leer(conexion.getInputStream());
+        } finally {
+            conexion.disconnect();
+        }
+    }
+
+    private static String leer(InputStream entrada) throws IOException {
+        if (entrada == null) {
+            return "";
+        }
+        try (InputStream in = entrada) {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int leidos;
+            while ((leidos = in.read(buffer)) != -1) {
+                salida.write(buffer, 0, leidos);
+            }
+            return new String(salida.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static JSONObject escritura(String coleccion, String docId, JSONObject campos)
+            throws JSONException {
+        return new JSONObject().put("update", new JSONObject()
+                .put("name", "projects/" + PROYECTO + "/databases/(default)/documents/"
+                        + coleccion + "/" + docId)
+                .put("fields", campos));
+    }
+
+    private static JSONObject texto(String valor) throws JSONException {
+        return new JSONObject().put("stringValue", valor);
+    }
+
+    private static JSONObject entero(long valor) throws JSONException {
+        // La API REST representa los enteros de 64 bits como texto
+        return new JSONObject().put("integerValue", String.valueOf(valor));
+    }
+
+    private static JSONObject fecha() throws JSONException {
+        return new JSONObject().put("timestampValue", FECHA);
+    }
+
+    private static String urlDocumentos() {
+        return urlEmulador() + "/v1/projects/" + PROYECTO + "/databases/(default)/documents";
+    }
+
+    /**
+     * Host del emulador de Firebase visto desde el dispositivo (10.0.2.2 en el
+     * emulador de Android, el mismo que usa la app); se puede cambiar con
+     * -Pandroid.testInstrumentationRunnerArguments.hostEmuladorFirebase=...
+     */
+    private static String urlEmulador() {
+        Bundle argumentos = InstrumentationRegistry.getArguments();
+        String host = argumentos.getString("hostEmuladorFirebase", "10.0.2.2");
+        return "http://" + host + ":" + PUERTO;
+    }
+}
@@ -0,0 +1,61 @@
+package com.tienda.inventario.microbenchmark;
+
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.search.BuscadorProductos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice de búsqueda (BuscadorProductos): construcción al cargar el catálogo
+ * y consultas de MainActivity.buscarProductos()
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BusquedaBenchmark {
+
+    // Igual que MainActivity.MAX_RESULTADOS_BUSQUEDA
+    private static final int MAX_RESULTADOS = 200;
+
+    @Param({"1000", "10000", "100000"})
+    public int productos;
+
+    private List<Producto> catalogo;
+    private BuscadorProductos buscador;
+
+    @Setup
+    public void preparar() {
+        catalogo = CatalogoPrueba.productos(productos);
+        buscador = BuscadorProductos.construir(catalogo);
+    }
+
+    @Benchmark
+    public BuscadorProductos construirIndice() {
+        return BuscadorProductos.construir(catalogo);
+    }
+
+    @Benchmark
+    public List<Producto> buscarExacto() {
+        return buscador.buscar("leche", MAX_RESULTADOS);
+    }
+
+    @Benchmark
+    public List<Producto> buscarPrefijo() {
+        return buscador.buscar("gal", MAX_RESULTADOS);
+    }
+
+    @Benchmark
+    public List<Producto> buscarConErrores() {
+        return buscador.buscar("detergnte", MAX_RESULTADOS);
+    }
+}
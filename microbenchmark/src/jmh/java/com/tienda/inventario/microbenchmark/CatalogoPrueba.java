@@ -0,0 +1,81 @@
+package com.tienda.inventario.microbenchmark;
+
+import com.tienda.inventario.database.CamposMapa;
+import com.tienda.inventario.database.DecodificadorProducto;
+import com.tienda.inventario.database.entities.Producto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Catálogo determinista para los benchmarks: mismos campos y tipos que los
+ * documentos de Firestore (ver FirestoreManager.datosProductoNuevo)
+ */
+final class CatalogoPrueba {
+
+    static final int CATEGORIAS = 8;
+    static final int PROVEEDORES = 5;
+
+    private static final String[] NOMBRES = {
+            "Arroz", "Fideos", "Aceite", "Azúcar", "Agua mineral", "Gaseosa cola",
+            "Jugo de naranja", "Helado", "Leche entera", "Yogur", "Queso cremoso",
+            "Detergente", "Lavandina", "Pan lactal", "Shampoo", "Jabón",
+            "Papas fritas", "Galletitas", "Chocolate", "Alfajor"
+    };
+
+    private static final String[] DESCRIPCIONES = {
+            "", "Paquete 1 kg", "Botella 1,5 L", "Unidad", "Caja x 12", "Sin TACC"
+    };
+
+    private static final long SEMILLA = 42;
+    private static final long FECHA = 1_704_067_200_000L; // 2024-01-01
+
+    private CatalogoPrueba() {
+    }
+
+    static List<Map<String, Object>> documentos(int cantidad) {
+        Random random = new Random(SEMILLA);
+        List<Map<String, Object>> documentos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Map<String, Object> campos = new HashMap<>();
+            campos.put("id_producto", (long) (i + 1));
+            campos.put("nombre_producto", NOMBRES[random.nextInt(NOMBRES.length)] + " " + (i + 1));
+            campos.put("descripcion", DESCRIPCIONES[random.nextInt(DESCRIPCIONES.length)]);
+            // Firestore devuelve Long para precios enteros y Double para el resto
+            campos.put("precio_unitario", random.nextBoolean()
+                    ? (Object) (long) (50 + random.nextInt(5000))
+                    : (Object) (50 + random.nextInt(500000) / 100.0));
+            campos.put("stock_actual", (long) random.nextInt(200));
+            campos.put("stock_minimo", (long) (5 + random.nextInt(20)));
+            campos.put("codigo_barras", String.format(Locale.ROOT, "779%010d", i + 1));
+            campos.put("id_categoria", (long) (1 + random.nextInt(CATEGORIAS)));
+            campos.put("id_proveedor", (long) (1 + random.nextInt(PROVEEDORES)));
+            campos.put("activo", true);
+            campos.put("imagen_url", "");
+            campos.put("fecha_registro", FECHA);
+            campos.put("ultima_actualizacion", FECHA + i);
+            campos.put("firestore_id", docId(i));
+            documentos.add(campos);
+        }
+        return documentos;
+    }
+
+    static List<Producto> productos(int cantidad) {
+        List<Map<String, Object>> documentos = documentos(cantidad);
+        DecodificadorProducto decodificador = new DecodificadorProducto();
+        CamposMapa campos = new CamposMapa(null, null);
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            productos.add(decodificador.decodificar(campos.apuntar(docId(i), documentos.get(i))));
+        }
+        return productos;
+    }
+
+    static String docId(int indice) {
+        return String.format(Locale.ROOT, "bench-%06d", indice + 1);
+    }
+}
@@ -0,0 +1,53 @@
+package com.tienda.inventario.microbenchmark;
+
+import com.tienda.inventario.database.CamposMapa;
+import com.tienda.inventario.database.DecodificadorProducto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Documento -> Producto para toda una carga del catálogo (FirestoreManager.getProductos)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DecodificacionBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int productos;
+
+    private List<Map<String, Object>> documentos;
+    private String[] docIds;
+
+    // Como en la app, el pool de textos sobrevive entre cargas
+    private final DecodificadorProducto decodificador = new DecodificadorProducto();
+
+    @Setup
+    public void preparar() {
+        documentos = CatalogoPrueba.documentos(productos);
+        docIds = new String[productos];
+        for (int i = 0; i < productos; i++) {
+            docIds[i] = CatalogoPrueba.docId(i);
+        }
+    }
+
+    @Benchmark
+    public void decodificarCatalogo(Blackhole bh) {
+        CamposMapa campos = new CamposMapa(null, null);
+        for (int i = 0; i < productos; i++) {
+            bh.consume(decodificador.decodificar(campos.apuntar(docIds[i], documentos.get(i))));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.tienda.inventario.microbenchmark;
+
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.ui.adapter.ProductoFila;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Textos de las filas de la lista (ProductoFila: precio, stock, categoría...),
+ * lo que ProductoAdapter calcula para cada producto antes de bind()
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilasBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int productos;
+
+    private List<Producto> catalogo;
+
+    @Setup
+    public void preparar() {
+        catalogo = CatalogoPrueba.productos(productos);
+    }
+
+    @Benchmark
+    public void crearFilas(Blackhole bh) {
+        for (int i = 0; i < catalogo.size(); i++) {
+            bh.consume(ProductoFila.desde(catalogo.get(i), "Bebidas", "Distribuidora Norte"));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tienda.inventario.microbenchmark;
+
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.repository.ConsultaProductos;
+import com.tienda.inventario.repository.IndiceFiltros;
+import com.tienda.inventario.repository.TablaProductos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro por categoría (MainActivity.filtrarPorCategoria) y agregados del
+ * encabezado (MainActivity.actualizarEstadisticas) sobre TablaProductos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FiltrosBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int productos;
+
+    private List<Producto> catalogo;
+    private TablaProductos tabla;
+    private IndiceFiltros indice;
+    private ConsultaProductos porCategoria;
+
+    @Setup
+    public void preparar() {
+        catalogo = CatalogoPrueba.productos(productos);
+        tabla = TablaProductos.construir(catalogo);
+        indice = IndiceFiltros.construir(tabla);
+        porCategoria = ConsultaProductos.TODOS.conCategoria(2);
+    }
+
+    @Benchmark
+    public IndiceFiltros construirIndices() {
+        return IndiceFiltros.construir(TablaProductos.construir(catalogo));
+    }
+
+    @Benchmark
+    public List<Producto> filtrarPorCategoria() {
+        return indice.evaluar(porCategoria, null);
+    }
+
+    @Benchmark
+    public int[] filtrarPorCategoriaTabla() {
+        return tabla.filtrarPorCategoria(2);
+    }
+
+    @Benchmark
+    public long valorInventario() {
+        return tabla.valorInventarioCentavos();
+    }
+
+    @Benchmark
+    public int contarStockBajo() {
+        return tabla.contarStockBajo();
+    }
+}